@@ -1,18 +1,25 @@
 package com.taskmanager.model;
 
+import com.google.gson.annotations.JsonAdapter;
+import com.taskmanager.service.typeadapters.IntLinkedHashSetAdapter;
+import com.taskmanager.util.IntLinkedHashSet;
+
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.function.IntConsumer;
 
 /**
  * Дата-класс для эпика
  */
 public class Epic extends AbstractTask {
     /**
-     * Список подзадач эпика
+     * Идентификаторы подзадач эпика в порядке добавления. Множество не потокобезопасно,
+     * поэтому все обращения к нему выполняются под его монитором: эпик, общий с потокобезопасным
+     * таск-менеджером, можно читать и сериализовать параллельно с добавлением подзадач
      */
-    private final List<Integer> subtaskList;
+    @JsonAdapter(IntLinkedHashSetAdapter.class)
+    private final IntLinkedHashSet subtaskList;
 
     /**
      * Дата и время окончания работы над эпиком
@@ -26,7 +33,9 @@ public class Epic extends AbstractTask {
      */
     public Epic(Epic epic) {
         super(epic);
-        this.subtaskList = new ArrayList<>(epic.getSubtaskList());
+        synchronized (epic.subtaskList) {
+            this.subtaskList = new IntLinkedHashSet(epic.subtaskList);
+        }
         this.endTime = epic.getEndTime();
     }
 
@@ -37,7 +46,7 @@ public class Epic extends AbstractTask {
      */
     public Epic(String name) {
         super(name);
-        this.subtaskList = new ArrayList<>();
+        this.subtaskList = new IntLinkedHashSet();
     }
 
     /**
@@ -48,7 +57,7 @@ public class Epic extends AbstractTask {
      */
     public Epic(String name, String description) {
         super(name, description);
-        this.subtaskList = new ArrayList<>();
+        this.subtaskList = new IntLinkedHashSet();
     }
 
     /**
@@ -59,7 +68,7 @@ public class Epic extends AbstractTask {
      */
     public Epic(Integer id, String name) {
         super(id, name);
-        this.subtaskList = new ArrayList<>();
+        this.subtaskList = new IntLinkedHashSet();
     }
 
     /**
@@ -71,16 +80,63 @@ public class Epic extends AbstractTask {
      */
     public Epic(Integer id, String name, String description) {
         super(id, name, description);
-        this.subtaskList = new ArrayList<>();
+        this.subtaskList = new IntLinkedHashSet();
     }
 
     /**
-     * Получение списка подзадач
+     * Получение списка подзадач на момент вызова. Список доступен только для чтения
      *
      * @return Список подзадач
      */
     public List<Integer> getSubtaskList() {
-        return subtaskList;
+        synchronized (subtaskList) {
+            return List.copyOf(subtaskList.asList());
+        }
+    }
+
+    /**
+     * Обход идентификаторов подзадач в порядке добавления без упаковки в Integer
+     *
+     * @param action Действие для каждого идентификатора
+     */
+    public void forEachSubtask(IntConsumer action) {
+        synchronized (subtaskList) {
+            subtaskList.forEach(action);
+        }
+    }
+
+    /**
+     * Получение идентификаторов подзадач в порядке добавления
+     *
+     * @return Массив идентификаторов
+     */
+    public int[] getSubtaskIds() {
+        synchronized (subtaskList) {
+            return subtaskList.toArray();
+        }
+    }
+
+    /**
+     * Проверка, привязана ли подзадача к эпику
+     *
+     * @param id Идентификатор подзадачи
+     * @return true, если подзадача привязана к эпику
+     */
+    public boolean containsSubtask(int id) {
+        synchronized (subtaskList) {
+            return subtaskList.contains(id);
+        }
+    }
+
+    /**
+     * Получение количества подзадач
+     *
+     * @return Количество подзадач
+     */
+    public int getSubtaskCount() {
+        synchronized (subtaskList) {
+            return subtaskList.size();
+        }
     }
 
     /**
@@ -89,7 +145,9 @@ public class Epic extends AbstractTask {
      * @param id Идентификатор подзадачи
      */
     public void addNewSubtask(int id) {
-        subtaskList.add(id);
+        synchronized (subtaskList) {
+            subtaskList.add(id);
+        }
     }
 
     /**
@@ -97,15 +155,19 @@ public class Epic extends AbstractTask {
      *
      * @param id Идентификатор
      */
-    public void deleteSubtaskById(Integer id) {
-        subtaskList.remove(id);
+    public void deleteSubtaskById(int id) {
+        synchronized (subtaskList) {
+            subtaskList.remove(id);
+        }
     }
 
     /**
      * Удаление всех подзадач из эпика
      */
     public void deleteAllSubtasks() {
-        subtaskList.clear();
+        synchronized (subtaskList) {
+            subtaskList.clear();
+        }
     }
 
     /**
@@ -2,32 +2,55 @@ package com.taskmanager.service;
 
 import com.sun.net.httpserver.HttpServer;
 import com.taskmanager.service.handlers.*;
+import com.taskmanager.service.managers.HistorySessions;
 import com.taskmanager.service.managers.TaskManager;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.util.concurrent.Executor;
 
 
 public class HttpTaskServer {
     private static final int PORT = 8083;
     private final HttpServer server;
     private final TaskManager manager;
+    /**
+     * Истории просмотра клиентов, передающих заголовок X-Client-Id
+     */
+    private final HistorySessions sessions;
 
     public HttpTaskServer(TaskManager manager) throws IOException {
-        this.manager = manager;
-        this.server = HttpServer.create(new InetSocketAddress(PORT), 0);
+        this(manager, PORT);
     }
 
     public HttpTaskServer(TaskManager manager, Integer port) throws IOException {
+        this(manager, port, new HistorySessions());
+    }
+
+    public HttpTaskServer(TaskManager manager, Integer port, HistorySessions sessions) throws IOException {
+        this(manager, port, sessions, null);
+    }
+
+    /**
+     * Конструктор сервера, обрабатывающего запросы в потоках executor. Таск-менеджер должен допускать
+     * изменения из нескольких потоков, например {@link com.taskmanager.service.managers.ConcurrentTaskManager}
+     * или {@link com.taskmanager.service.managers.FileBackedTaskManager} с журналом: тогда изменения
+     * параллельных запросов ждут общего сброса журнала на диск
+     *
+     * @param executor Потоки обработки запросов (null - поток самого сервера)
+     */
+    public HttpTaskServer(TaskManager manager, Integer port, HistorySessions sessions, Executor executor) throws IOException {
         this.manager = manager;
+        this.sessions = sessions;
         this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        this.server.setExecutor(executor);
     }
 
     public void start() {
-        server.createContext("/tasks", new TaskHandler(manager));
-        server.createContext("/subtasks", new SubtaskHandler(manager));
-        server.createContext("/epics", new EpicHandler(manager));
-        server.createContext("/history", new HistoryHandler(manager));
+        server.createContext("/tasks", new TaskHandler(manager, sessions));
+        server.createContext("/subtasks", new SubtaskHandler(manager, sessions));
+        server.createContext("/epics", new EpicHandler(manager, sessions));
+        server.createContext("/history", new HistoryHandler(manager, sessions));
         server.createContext("/prioritized", new PrioritizedHandler(manager));
         server.start();
     }
@@ -0,0 +1,7 @@
+package com.taskmanager.service.exceptions;
+
+public class InconsistentAggregateException extends RuntimeException {
+    public InconsistentAggregateException(String message) {
+        super(message);
+    }
+}
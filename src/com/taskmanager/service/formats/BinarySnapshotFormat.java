@@ -0,0 +1,306 @@
+package com.taskmanager.service.formats;
+
+import com.taskmanager.model.*;
+import com.taskmanager.service.exceptions.ManagerReadException;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Двоичный формат снимка
+ * <p>
+ * Файл начинается с сигнатуры {@code TMSB} и номера версии формата, за ними - номер последнего
+ * вошедшего в снимок сегмента журнала и три раздела (задачи, эпики, подзадачи), каждый с количеством
+ * элементов в начале. Целые числа записываются переменной длины (7 бит на байт), поэтому небольшие
+ * идентификаторы занимают один-два байта. Строки записываются длиной и байтами UTF-8, поэтому могут
+ * содержать любые символы. Время начала хранится в секундах от эпохи (UTC) с отдельными наносекундами,
+ * длительность - в секундах, статус - порядковым номером
+ * <p>
+ * Элемент: id, наименование, описание, статус, флаги (есть ли время начала), время начала,
+ * длительность и для подзадачи - id эпика
+ */
+public class BinarySnapshotFormat implements SnapshotFormat {
+    /**
+     * Текущая версия формата
+     */
+    public static final int VERSION = 1;
+
+    private static final byte[] MAGIC = {'T', 'M', 'S', 'B'};
+    private static final int HAS_START_TIME = 1;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final Status[] STATUSES = Status.values();
+
+    /**
+     * Проверка, записан ли файл в двоичном формате
+     *
+     * @param file Файл
+     * @return true, если файл начинается с сигнатуры формата
+     */
+    public static boolean matches(File file) {
+        final byte[] prefix = new byte[MAGIC.length];
+        try (InputStream in = new FileInputStream(file)) {
+            return in.readNBytes(prefix, 0, prefix.length) == prefix.length && Arrays.equals(prefix, MAGIC);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void write(OutputStream out, TaskSnapshot snapshot) throws IOException {
+        final Encoder encoder = new Encoder(out);
+        encoder.writeBytes(MAGIC);
+        encoder.writeByte(VERSION);
+        encoder.writeVarLong(snapshot.getLogSegment());
+
+        encoder.writeVarLong(snapshot.getTasks().size());
+        for (Task task : snapshot.getTasks()) {
+            writeCommon(encoder, task);
+        }
+        encoder.writeVarLong(snapshot.getEpics().size());
+        for (Epic epic : snapshot.getEpics()) {
+            writeCommon(encoder, epic);
+        }
+        encoder.writeVarLong(snapshot.getSubtasks().size());
+        for (Subtask subtask : snapshot.getSubtasks()) {
+            writeCommon(encoder, subtask);
+            encoder.writeVarLong(subtask.getEpicId());
+        }
+        encoder.flush();
+    }
+
+    @Override
+    public TaskSnapshot read(InputStream in) throws IOException {
+        final Decoder decoder = new Decoder(in);
+        final byte[] magic = new byte[MAGIC.length];
+        for (int i = 0; i < magic.length; i++) {
+            magic[i] = (byte) decoder.readByte();
+        }
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new ManagerReadException("Файл не является двоичным снимком задач");
+        }
+        final int version = decoder.readByte();
+        if (version != VERSION) {
+            throw new ManagerReadException("Неподдерживаемая версия формата снимка: " + version);
+        }
+        final int logSegment = decoder.readVarInt();
+
+        final int taskCount = decoder.readVarInt();
+        final List<Task> tasks = new ArrayList<>(Math.min(taskCount, BUFFER_SIZE));
+        for (int i = 0; i < taskCount; i++) {
+            final Task task = new Task(decoder.readVarInt(), decoder.readString(), decoder.readString());
+            readDetails(decoder, task);
+            tasks.add(task);
+        }
+
+        final int epicCount = decoder.readVarInt();
+        final List<Epic> epics = new ArrayList<>(Math.min(epicCount, BUFFER_SIZE));
+        for (int i = 0; i < epicCount; i++) {
+            final Epic epic = new Epic(decoder.readVarInt(), decoder.readString(), decoder.readString());
+            readDetails(decoder, epic);
+            epic.setEndTime(epic.getStartTime() != null ? epic.getStartTime().plus(epic.getDuration()) : null);
+            epics.add(epic);
+        }
+
+        final int subtaskCount = decoder.readVarInt();
+        final List<Subtask> subtasks = new ArrayList<>(Math.min(subtaskCount, BUFFER_SIZE));
+        for (int i = 0; i < subtaskCount; i++) {
+            final Subtask subtask = new Subtask(decoder.readVarInt(), decoder.readString(), decoder.readString(), null);
+            readDetails(decoder, subtask);
+            subtask.setEpicId(decoder.readVarInt());
+            subtasks.add(subtask);
+        }
+
+        return new TaskSnapshot(logSegment, tasks, epics, subtasks);
+    }
+
+    private static void writeCommon(Encoder encoder, AbstractTask task) throws IOException {
+        encoder.writeVarLong(task.getId());
+        encoder.writeString(task.getName());
+        encoder.writeString(task.getDescription());
+        encoder.writeByte(task.getStatus().ordinal());
+
+        final LocalDateTime startTime = task.getStartTime();
+        encoder.writeByte(startTime != null ? HAS_START_TIME : 0);
+        if (startTime != null) {
+            encoder.writeVarLong(zigZag(startTime.toEpochSecond(ZoneOffset.UTC)));
+            encoder.writeVarLong(startTime.getNano());
+        }
+        encoder.writeVarLong(zigZag(task.getDuration().toSeconds()));
+    }
+
+    private static void readDetails(Decoder decoder, AbstractTask task) throws IOException {
+        final int status = decoder.readByte();
+        if (status >= STATUSES.length) {
+            throw new ManagerReadException("Неверный статус задачи с id = " + task.getId() + ": " + status);
+        }
+        task.setStatus(STATUSES[status]);
+
+        final int flags = decoder.readByte();
+        if ((flags & HAS_START_TIME) != 0) {
+            final long epochSecond = unZigZag(decoder.readVarLong());
+            task.setStartTime(LocalDateTime.ofEpochSecond(epochSecond, decoder.readVarInt(), ZoneOffset.UTC));
+        }
+        task.setDuration(Duration.ofSeconds(unZigZag(decoder.readVarLong())));
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Запись в поток через собственный буфер
+     */
+    private static class Encoder {
+        private final OutputStream out;
+        private final byte[] buffer;
+        private int position;
+
+        private Encoder(OutputStream out) {
+            this.out = out;
+            this.buffer = new byte[BUFFER_SIZE];
+        }
+
+        private void writeByte(int value) throws IOException {
+            if (position == buffer.length) {
+                drain();
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        private void writeBytes(byte[] bytes) throws IOException {
+            if (bytes.length > buffer.length - position) {
+                drain();
+                if (bytes.length > buffer.length) {
+                    out.write(bytes);
+                    return;
+                }
+            }
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        /**
+         * Запись неотрицательного числа по 7 бит на байт, старший бит - признак продолжения
+         */
+        private void writeVarLong(long value) throws IOException {
+            if (buffer.length - position < 10) {
+                drain();
+            }
+            while ((value & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        /**
+         * Запись строки: длина в байтах + 1 (0 - null) и байты UTF-8
+         */
+        private void writeString(String value) throws IOException {
+            if (value == null) {
+                writeVarLong(0);
+                return;
+            }
+            final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length + 1L);
+            writeBytes(bytes);
+        }
+
+        private void flush() throws IOException {
+            drain();
+            out.flush();
+        }
+
+        private void drain() throws IOException {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+
+    /**
+     * Чтение из потока через собственный буфер
+     */
+    private static class Decoder {
+        private final InputStream in;
+        private final byte[] buffer;
+        private int position;
+        private int limit;
+
+        private Decoder(InputStream in) {
+            this.in = in;
+            this.buffer = new byte[BUFFER_SIZE];
+        }
+
+        private int readByte() throws IOException {
+            if (position == limit) {
+                fill();
+            }
+            return buffer[position++] & 0xFF;
+        }
+
+        private long readVarLong() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                final int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new ManagerReadException("Неверное число в двоичном снимке");
+        }
+
+        private int readVarInt() throws IOException {
+            final long value = readVarLong();
+            if (value > Integer.MAX_VALUE) {
+                throw new ManagerReadException("Неверное число в двоичном снимке: " + value);
+            }
+            return (int) value;
+        }
+
+        private String readString() throws IOException {
+            final int length = readVarInt() - 1;
+            if (length < 0) {
+                return null;
+            }
+            if (length <= limit - position) {
+                final String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+                position += length;
+                return value;
+            }
+
+            final byte[] bytes = new byte[length];
+            int copied = limit - position;
+            System.arraycopy(buffer, position, bytes, 0, copied);
+            position = limit;
+            while (copied < length) {
+                fill();
+                final int chunk = Math.min(length - copied, limit);
+                System.arraycopy(buffer, 0, bytes, copied, chunk);
+                position = chunk;
+                copied += chunk;
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private void fill() throws IOException {
+            final int read = in.read(buffer);
+            if (read <= 0) {
+                throw new EOFException("Двоичный снимок обрывается");
+            }
+            position = 0;
+            limit = read;
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.taskmanager.service.formats;
+
+import com.taskmanager.model.*;
+import com.taskmanager.service.exceptions.ManagerReadException;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Текстовый формат снимка: заголовок и по строке на каждую задачу, эпик и подзадачу
+ * в порядке полей {@code toString()}
+ * <p>
+ * Номер последнего вошедшего в снимок сегмента журнала дописывается в заголовок.
+ * Поля разделяются запятыми. В наименовании и описании символы {@code %}, запятая и переводы строк
+ * заменяются кодами {@code %25}, {@code %2C}, {@code %0A} и {@code %0D}, поэтому строка задачи
+ * всегда занимает одну строку файла и делится на поля по запятым
+ */
+public class CsvSnapshotFormat implements SnapshotFormat {
+    /**
+     * Заголовок файла
+     */
+    public static final String HEADER = "id,type,name,status,description,epic,start_date,duration";
+
+    /**
+     * Метка номера последнего вошедшего в снимок сегмента журнала в заголовке файла
+     */
+    private static final String SEGMENT_MARK = ",log_segment=";
+
+    @Override
+    public void write(OutputStream out, TaskSnapshot snapshot) throws IOException {
+        final Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(snapshot.getLogSegment() > 0 ? HEADER + SEGMENT_MARK + snapshot.getLogSegment() + "\n" : HEADER + "\n");
+        for (Task task : snapshot.getTasks()) {
+            writer.write(toLine(task) + "\n");
+        }
+        for (Epic epic : snapshot.getEpics()) {
+            writer.write(toLine(epic) + "\n");
+        }
+        for (Subtask subtask : snapshot.getSubtasks()) {
+            writer.write(toLine(subtask) + "\n");
+        }
+        writer.flush();
+    }
+
+    @Override
+    public TaskSnapshot read(InputStream in) throws IOException {
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        final int logSegment = segmentOf(reader.readLine());
+        final List<Task> tasks = new ArrayList<>();
+        final List<Epic> epics = new ArrayList<>();
+        final List<Subtask> subtasks = new ArrayList<>();
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+            final AbstractTask task = fromString(line);
+            if (task instanceof Epic epic) {
+                epics.add(epic);
+            } else if (task instanceof Subtask subtask) {
+                subtasks.add(subtask);
+            } else {
+                tasks.add((Task) task);
+            }
+        }
+        return new TaskSnapshot(logSegment, tasks, epics, subtasks);
+    }
+
+    /**
+     * Преобразование задачи, эпика или подзадачи в строку формата
+     *
+     * @param task Задача, эпик или подзадача
+     * @return Строка с экранированными наименованием и описанием
+     */
+    public static String toLine(AbstractTask task) {
+        final TaskType taskType = task instanceof Epic ? TaskType.EPIC
+                : task instanceof Subtask ? TaskType.SUBTASK : TaskType.TASK;
+        return String.join(",",
+                /* id */            task.getId().toString(),
+                /* type */          taskType.toString(),
+                /* name */          escape(String.valueOf(task.getName())),
+                /* status */        task.getStatus().toString(),
+                /* description */   task.getDescription() != null ? escape(task.getDescription()) : "",
+                /* epic */          task instanceof Subtask subtask ? subtask.getEpicId().toString() : "",
+                /* start_date */    task.getStartTime() != null ? task.getStartTime().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) : "",
+                /* duration */      String.valueOf(task.getDuration().toSeconds()));
+    }
+
+    /**
+     * Преобразование строки формата (или строки {@code toString()} без запятых в наименовании и описании)
+     * обратно в задачу, эпик или подзадачу
+     *
+     * @param str Строка
+     * @return Задача, эпик или подзадача
+     */
+    public static AbstractTask fromString(String str) {
+        final String[] words = str.split(",", -1);
+        if (words.length > 4) {
+            words[2] = unescape(words[2]);
+            words[4] = unescape(words[4]);
+        }
+
+        try {
+            final TaskType taskType = TaskType.valueOf(words[1]);
+            switch (taskType) {
+                case TASK -> {
+                    Task task = new Task(Integer.parseInt(words[0]), words[2], words[4]);
+                    task.setStatus(Status.valueOf(words[3]));
+                    task.setStartTime(!words[6].isEmpty() ? LocalDateTime.parse(words[6], DateTimeFormatter.ISO_LOCAL_DATE_TIME) : null);
+                    task.setDuration(Duration.ofSeconds(Integer.parseInt(words[7])));
+                    return task;
+                }
+                case EPIC -> {
+                    Epic epic = new Epic(Integer.parseInt(words[0]), words[2], words[4]);
+                    epic.setStatus(Status.valueOf(words[3]));
+                    epic.setStartTime(!words[6].isEmpty() ? LocalDateTime.parse(words[6], DateTimeFormatter.ISO_LOCAL_DATE_TIME) : null);
+                    epic.setDuration(Duration.ofSeconds(Integer.parseInt(words[7])));
+                    epic.setEndTime(!words[6].isEmpty() ? epic.getStartTime().plus(epic.getDuration()) : null);
+                    return epic;
+                }
+                case SUBTASK -> {
+                    Subtask subtask = new Subtask(Integer.parseInt(words[0]), words[2], words[4], Integer.parseInt(words[5]));
+                    subtask.setStatus(Status.valueOf(words[3]));
+                    subtask.setStartTime(!words[6].isEmpty() ? LocalDateTime.parse(words[6], DateTimeFormatter.ISO_LOCAL_DATE_TIME) : null);
+                    subtask.setDuration(Duration.ofSeconds(Integer.parseInt(words[7])));
+                    return subtask;
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            throw new ManagerReadException(e.getMessage());
+        } catch (IndexOutOfBoundsException e) {
+            throw new ManagerReadException("Не удалось преобразовать строку в задачу: " + str);
+        }
+
+        throw new ManagerReadException("Не удалось преобразовать строку в задачу: " + str);
+    }
+
+    /**
+     * Замена символов, которые нельзя записать в поле как есть, на коды
+     */
+    private static String escape(String value) {
+        StringBuilder builder = null;
+        for (int i = 0; i < value.length(); i++) {
+            final String code = switch (value.charAt(i)) {
+                case '%' -> "%25";
+                case ',' -> "%2C";
+                case '\n' -> "%0A";
+                case '\r' -> "%0D";
+                default -> null;
+            };
+            if (code != null && builder == null) {
+                builder = new StringBuilder(value.length() + 8).append(value, 0, i);
+            }
+            if (builder != null) {
+                if (code != null) {
+                    builder.append(code);
+                } else {
+                    builder.append(value.charAt(i));
+                }
+            }
+        }
+        return builder != null ? builder.toString() : value;
+    }
+
+    /**
+     * Замена кодов обратно на символы. Знак {@code %}, за которым нет известного кода, остаётся как есть
+     */
+    private static String unescape(String value) {
+        int percent = value.indexOf('%');
+        if (percent < 0) {
+            return value;
+        }
+
+        final StringBuilder builder = new StringBuilder(value.length());
+        int from = 0;
+        while (percent >= 0) {
+            final char decoded = percent + 3 <= value.length() ? decode(value.substring(percent + 1, percent + 3)) : 0;
+            if (decoded != 0) {
+                builder.append(value, from, percent).append(decoded);
+                from = percent + 3;
+            }
+            percent = value.indexOf('%', decoded != 0 ? from : percent + 1);
+        }
+        return builder.append(value, from, value.length()).toString();
+    }
+
+    private static char decode(String code) {
+        return switch (code) {
+            case "25" -> '%';
+            case "2C" -> ',';
+            case "0A" -> '\n';
+            case "0D" -> '\r';
+            default -> 0;
+        };
+    }
+
+    private static int segmentOf(String header) {
+        if (header == null || !header.contains(SEGMENT_MARK)) {
+            return 0;
+        }
+
+        try {
+            return Integer.parseInt(header.substring(header.indexOf(SEGMENT_MARK) + SEGMENT_MARK.length()));
+        } catch (NumberFormatException e) {
+            throw new ManagerReadException("Неверный заголовок файла: " + header);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.taskmanager.service.formats;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Формат файла со снимком задач таск-менеджера
+ */
+public interface SnapshotFormat {
+
+    /**
+     * Запись снимка
+     *
+     * @param out      Поток для записи (не закрывается)
+     * @param snapshot Снимок
+     */
+    void write(OutputStream out, TaskSnapshot snapshot) throws IOException;
+
+    /**
+     * Чтение снимка. При неверном содержимом выбрасывается
+     * {@link com.taskmanager.service.exceptions.ManagerReadException}
+     *
+     * @param in Поток для чтения (не закрывается)
+     * @return Снимок
+     */
+    TaskSnapshot read(InputStream in) throws IOException;
+}
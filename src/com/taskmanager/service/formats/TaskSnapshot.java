@@ -0,0 +1,57 @@
+package com.taskmanager.service.formats;
+
+import com.taskmanager.model.Epic;
+import com.taskmanager.model.Subtask;
+import com.taskmanager.model.Task;
+
+import java.util.List;
+
+/**
+ * Снимок задач таск-менеджера для записи в файл и чтения из него
+ */
+public class TaskSnapshot {
+    private final int logSegment;
+    private final List<Task> tasks;
+    private final List<Epic> epics;
+    private final List<Subtask> subtasks;
+
+    /**
+     * Конструктор
+     *
+     * @param logSegment Номер последнего вошедшего в снимок сегмента журнала (0, если журнала нет)
+     * @param tasks      Задачи
+     * @param epics      Эпики
+     * @param subtasks   Подзадачи
+     */
+    public TaskSnapshot(int logSegment, List<Task> tasks, List<Epic> epics, List<Subtask> subtasks) {
+        this.logSegment = logSegment;
+        this.tasks = tasks;
+        this.epics = epics;
+        this.subtasks = subtasks;
+    }
+
+    public int getLogSegment() {
+        return logSegment;
+    }
+
+    public List<Task> getTasks() {
+        return tasks;
+    }
+
+    public List<Epic> getEpics() {
+        return epics;
+    }
+
+    public List<Subtask> getSubtasks() {
+        return subtasks;
+    }
+
+    /**
+     * Получение количества задач, эпиков и подзадач
+     *
+     * @return Количество элементов снимка
+     */
+    public int size() {
+        return tasks.size() + epics.size() + subtasks.size();
+    }
+}
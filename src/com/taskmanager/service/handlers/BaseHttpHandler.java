@@ -10,6 +10,8 @@ import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
 
 public class BaseHttpHandler {
 
@@ -86,6 +88,30 @@ public class BaseHttpHandler {
         sendMessage(exchange, text, 406);
     }
 
+    /**
+     * Получение параметров строки запроса
+     *
+     * @param exchange Объект для обмена информацией
+     * @return Параметры запроса (для параметра без значения - пустая строка)
+     */
+    protected Map<String, String> getQueryParams(HttpExchange exchange) {
+        final Map<String, String> params = new HashMap<>();
+        final String query = exchange.getRequestURI().getQuery();
+        if (query == null || query.isEmpty()) {
+            return params;
+        }
+
+        for (String param : query.split("&")) {
+            final int separator = param.indexOf('=');
+            if (separator < 0) {
+                params.put(param, "");
+            } else {
+                params.put(param.substring(0, separator), param.substring(separator + 1));
+            }
+        }
+        return params;
+    }
+
     /**
      * Метод для отправки HTTP-ответа
      *
@@ -10,6 +10,7 @@ import com.taskmanager.model.Subtask;
 import com.taskmanager.service.exceptions.AlreadyExistsException;
 import com.taskmanager.service.exceptions.NotFoundException;
 import com.taskmanager.service.exceptions.WithouIdException;
+import com.taskmanager.service.managers.HistorySessions;
 import com.taskmanager.service.managers.TaskManager;
 
 import java.io.IOException;
@@ -24,6 +25,10 @@ public class EpicHandler extends ManagerAwareHandler implements HttpHandler {
         super(manager);
     }
 
+    public EpicHandler(TaskManager manager, HistorySessions sessions) {
+        super(manager, sessions);
+    }
+
     @Override
     public void handle(HttpExchange exchange) throws IOException {
         URI requestUri = exchange.getRequestURI();
@@ -56,6 +61,11 @@ public class EpicHandler extends ManagerAwareHandler implements HttpHandler {
                 sendErrorRequest(exchange, "Запрос сформирован некорректно");
             }
             case "DELETE" -> {
+                if (path.length == 2 && getQueryParams(exchange).containsKey("ids")) {
+                    sendRemoveByIds(exchange, manager::peekEpicById, getQueryParams(exchange).get("ids"));
+                    return;
+                }
+
                 if (path.length == 2) {
                     sendErrorRequest(exchange, "Не передан id, который нужно удалить");
                     return;
@@ -84,7 +94,7 @@ public class EpicHandler extends ManagerAwareHandler implements HttpHandler {
     private void sendEpicById(HttpExchange exchange, String pathParamId) throws IOException {
         try {
             int epicId = Integer.parseInt(pathParamId);
-            Epic epic = manager.getEpicById(epicId);
+            Epic epic = view(exchange, epicId, manager::peekEpicById, manager::getEpicById);
             String taskStr = gson.toJson(epic);
             sendText(exchange, taskStr);
         } catch (NumberFormatException e) {
@@ -153,7 +163,9 @@ public class EpicHandler extends ManagerAwareHandler implements HttpHandler {
     private void sendRemoveEpic(HttpExchange exchange, String pathParamId) throws IOException {
         try {
             int epicId = Integer.parseInt(pathParamId);
+            Epic epic = manager.peekEpicById(epicId);
             manager.deleteEpicById(epicId);
+            removeFromSessions(epic);
             sendText(exchange, "Эпик с id = " + epicId + " удален");
         } catch (NumberFormatException e) {
             sendErrorRequest(exchange, "Запрос сформирован некорректно. Не удаётся определить номер эпика из " + pathParamId);
@@ -3,6 +3,11 @@ package com.taskmanager.service.handlers;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import com.taskmanager.model.AbstractTask;
+import com.taskmanager.model.Epic;
+import com.taskmanager.model.Subtask;
+import com.taskmanager.service.exceptions.NotFoundException;
+import com.taskmanager.service.managers.HistoryManager;
+import com.taskmanager.service.managers.HistorySessions;
 import com.taskmanager.service.managers.TaskManager;
 
 import java.io.IOException;
@@ -15,6 +20,10 @@ public class HistoryHandler extends ManagerAwareHandler implements HttpHandler {
         super(manager);
     }
 
+    public HistoryHandler(TaskManager manager, HistorySessions sessions) {
+        super(manager, sessions);
+    }
+
     @Override
     public void handle(HttpExchange exchange) throws IOException {
         URI requestUri = exchange.getRequestURI();
@@ -33,10 +42,51 @@ public class HistoryHandler extends ManagerAwareHandler implements HttpHandler {
     }
 
     private void sendHistory(HttpExchange exchange) throws IOException {
-        List<AbstractTask> history = manager.getHistory();
+        final String limit = getQueryParams(exchange).get("limit");
+        List<AbstractTask> history;
+        try {
+            final String clientId = getClientId(exchange);
+            if (clientId != null) {
+                history = getClientHistory(clientId, limit != null ? Integer.parseInt(limit) : null);
+            } else {
+                history = limit != null ? manager.getHistory(Integer.parseInt(limit)) : manager.getHistory();
+            }
+        } catch (IllegalArgumentException e) {
+            sendErrorRequest(exchange, "Запрос сформирован некорректно. Не удаётся определить количество задач из " + limit);
+            return;
+        }
         String historyStr = gson.toJson(history);
         sendText(exchange, historyStr);
     }
 
+    /**
+     * Получение истории клиента. Задачи, удалённые из таск-менеджера после просмотра,
+     * удаляются из истории клиента при чтении
+     */
+    private List<AbstractTask> getClientHistory(String clientId, Integer limit) {
+        final HistoryManager history = sessions.getHistory(clientId);
+        for (AbstractTask abstractTask : history.getHistory()) {
+            if (!isStored(abstractTask)) {
+                history.remove(abstractTask.getId());
+            }
+        }
+        return limit != null ? history.getHistory(limit) : history.getHistory();
+    }
+
+    private boolean isStored(AbstractTask abstractTask) {
+        try {
+            if (abstractTask instanceof Subtask) {
+                manager.peekSubtaskById(abstractTask.getId());
+            } else if (abstractTask instanceof Epic) {
+                manager.peekEpicById(abstractTask.getId());
+            } else {
+                manager.peekTaskById(abstractTask.getId());
+            }
+            return true;
+        } catch (NotFoundException e) {
+            return false;
+        }
+    }
+
 }
 
@@ -1,16 +1,128 @@
 package com.taskmanager.service.handlers;
 
+import com.sun.net.httpserver.HttpExchange;
+import com.taskmanager.model.AbstractTask;
+import com.taskmanager.model.Epic;
+import com.taskmanager.service.exceptions.NotFoundException;
+import com.taskmanager.service.managers.HistorySessions;
 import com.taskmanager.service.managers.TaskManager;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.IntFunction;
+
 abstract class ManagerAwareHandler extends BaseHttpHandler {
+    /**
+     * Заголовок с идентификатором клиента, по которому ведётся его собственная история просмотра
+     */
+    protected static final String CLIENT_ID_HEADER = "X-Client-Id";
+
     protected TaskManager manager;
+    protected HistorySessions sessions;
 
     private ManagerAwareHandler() {
     }
 
     public ManagerAwareHandler(TaskManager manager) {
+        this(manager, null);
+    }
+
+    public ManagerAwareHandler(TaskManager manager, HistorySessions sessions) {
         super();
         this.manager = manager;
+        this.sessions = sessions;
+    }
+
+    /**
+     * Получение идентификатора клиента из заголовка запроса
+     *
+     * @param exchange Объект для обмена информацией
+     * @return Идентификатор клиента или null, если клиент не передал его или сессии не поддерживаются
+     */
+    protected String getClientId(HttpExchange exchange) {
+        final String clientId = exchange.getRequestHeaders().getFirst(CLIENT_ID_HEADER);
+        return sessions != null && clientId != null && !clientId.isBlank() ? clientId : null;
+    }
+
+    /**
+     * Просмотр задачи по идентификатору: для клиента с идентификатором просмотр записывается в его историю,
+     * иначе - в общую историю таск-менеджера
+     *
+     * @param exchange Объект для обмена информацией
+     * @param id       Идентификатор задачи
+     * @param peek     Получение задачи без записи в историю
+     * @param get      Получение задачи с записью в общую историю
+     * @return Задача
+     */
+    protected <T extends AbstractTask> T view(HttpExchange exchange, int id, IntFunction<T> peek, IntFunction<T> get) {
+        final String clientId = getClientId(exchange);
+        if (clientId == null) {
+            return get.apply(id);
+        }
+
+        final T task = peek.apply(id);
+        sessions.getHistory(clientId).add(task);
+        return task;
+    }
+
+    /**
+     * Удаление задачи из историй просмотра клиентов, а для эпика - и его подзадач
+     *
+     * @param deleted Удалённая задача, эпик или подзадача
+     */
+    protected void removeFromSessions(AbstractTask deleted) {
+        if (sessions == null) {
+            return;
+        }
+        sessions.remove(deleted.getId());
+        if (deleted instanceof Epic epic) {
+            for (int subtaskId : epic.getSubtaskIds()) {
+                sessions.remove(subtaskId);
+            }
+        }
+    }
+
+    /**
+     * Пакетное удаление по идентификаторам из параметра ids, перечисленным через запятую
+     * (например, DELETE /subtasks?ids=2,3,4). Все идентификаторы должны относиться к задачам того же типа,
+     * что и запрос: каждый проверяется поиском по идентификатору, без обхода всего списка
+     *
+     * @param exchange Объект для обмена информацией
+     * @param peek     Получение задачи, эпика или подзадачи без записи в историю
+     * @param ids      Значение параметра ids
+     * @throws IOException Исключения при отправке ответа
+     */
+    protected void sendRemoveByIds(HttpExchange exchange, IntFunction<? extends AbstractTask> peek, String ids) throws IOException {
+        final Set<Integer> idsToRemove = new LinkedHashSet<>();
+        try {
+            for (String id : ids.split(",")) {
+                idsToRemove.add(Integer.parseInt(id.trim()));
+            }
+        } catch (NumberFormatException e) {
+            sendErrorRequest(exchange, "Запрос сформирован некорректно. Не удаётся определить номера из " + ids);
+            return;
+        }
+
+        final List<AbstractTask> tasksToRemove = new ArrayList<>(idsToRemove.size());
+        for (int id : idsToRemove) {
+            try {
+                tasksToRemove.add(peek.apply(id));
+            } catch (NotFoundException e) {
+                sendNotFound(exchange, "Не найден элемент с id = " + id);
+                return;
+            }
+        }
+
+        try {
+            manager.deleteByIds(idsToRemove);
+            tasksToRemove.forEach(this::removeFromSessions);
+            sendText(exchange, "Удалено элементов: " + idsToRemove.size());
+        } catch (NotFoundException e) {
+            sendNotFound(exchange, e.getMessage());
+        }
     }
 
 }
@@ -1,13 +1,19 @@
 package com.taskmanager.service.handlers;
 
+import com.google.gson.JsonObject;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import com.taskmanager.model.AbstractTask;
+import com.taskmanager.service.exceptions.NotFoundException;
 import com.taskmanager.service.managers.TaskManager;
 
 import java.io.IOException;
 import java.net.URI;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.List;
+import java.util.Map;
 
 public class PrioritizedHandler extends ManagerAwareHandler implements HttpHandler {
 
@@ -25,6 +31,11 @@ public class PrioritizedHandler extends ManagerAwareHandler implements HttpHandl
                 sendPrioritized(exchange);
                 return;
             }
+
+            if (path.length == 3 && path[2].equals("free-slot")) {
+                sendFreeSlot(exchange);
+                return;
+            }
             sendErrorRequest(exchange, "Запрос сформирован некорректно");
         } else {
             sendMethodNotSupported(exchange);
@@ -32,10 +43,61 @@ public class PrioritizedHandler extends ManagerAwareHandler implements HttpHandl
 
     }
 
+    /**
+     * Отправка списка задач по приоритету. Параметры from и to (в формате ISO, например 2025-01-10T10:00)
+     * ограничивают список задачами, пересекающимися с интервалом [from, to)
+     */
     private void sendPrioritized(HttpExchange exchange) throws IOException {
-        List<AbstractTask> prioritizedTasks = manager.getPrioritizedTasks();
-        String prioritizedTasksStr = gson.toJson(prioritizedTasks);
-        sendText(exchange, prioritizedTasksStr);
+        Map<String, String> params = getQueryParams(exchange);
+        try {
+            LocalDateTime from = parseDateTime(params.get("from"));
+            LocalDateTime to = parseDateTime(params.get("to"));
+            List<AbstractTask> prioritizedTasks = manager.getPrioritizedTasks(from, to);
+            String prioritizedTasksStr = gson.toJson(prioritizedTasks);
+            sendText(exchange, prioritizedTasksStr);
+        } catch (DateTimeParseException e) {
+            sendErrorRequest(exchange, "Запрос сформирован некорректно. Не удаётся определить время из " + e.getParsedString());
+        } catch (IllegalArgumentException e) {
+            sendErrorRequest(exchange, e.getMessage());
+        }
+    }
+
+    /**
+     * Отправка самого раннего свободного промежутка. Параметры: duration - длительность в секундах,
+     * from - время, не раньше которого начинается промежуток (по умолчанию текущее),
+     * horizon - время, не позже которого промежуток заканчивается (необязательный)
+     */
+    private void sendFreeSlot(HttpExchange exchange) throws IOException {
+        Map<String, String> params = getQueryParams(exchange);
+        if (params.get("duration") == null) {
+            sendErrorRequest(exchange, "Не передана длительность промежутка duration");
+            return;
+        }
+
+        try {
+            Duration duration = Duration.ofSeconds(Long.parseLong(params.get("duration")));
+            LocalDateTime from = parseDateTime(params.get("from"));
+            LocalDateTime horizon = parseDateTime(params.get("horizon"));
+
+            LocalDateTime startTime = manager.findFreeSlot(duration, from != null ? from : LocalDateTime.now(), horizon);
+
+            JsonObject slot = new JsonObject();
+            slot.add("startTime", gson.toJsonTree(startTime));
+            slot.add("endTime", gson.toJsonTree(startTime.plus(duration)));
+            sendText(exchange, gson.toJson(slot));
+        } catch (NumberFormatException e) {
+            sendErrorRequest(exchange, "Запрос сформирован некорректно. Не удаётся определить длительность из " + params.get("duration"));
+        } catch (DateTimeParseException e) {
+            sendErrorRequest(exchange, "Запрос сформирован некорректно. Не удаётся определить время из " + e.getParsedString());
+        } catch (IllegalArgumentException e) {
+            sendErrorRequest(exchange, e.getMessage());
+        } catch (NotFoundException e) {
+            sendNotFound(exchange, e.getMessage());
+        }
+    }
+
+    private LocalDateTime parseDateTime(String value) {
+        return value != null && !value.isEmpty() ? LocalDateTime.parse(value) : null;
     }
 
 }
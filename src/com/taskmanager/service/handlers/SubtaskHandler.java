@@ -10,6 +10,7 @@ import com.taskmanager.service.exceptions.AlreadyExistsException;
 import com.taskmanager.service.exceptions.NotFoundException;
 import com.taskmanager.service.exceptions.TimeOverlapException;
 import com.taskmanager.service.exceptions.WithouIdException;
+import com.taskmanager.service.managers.HistorySessions;
 import com.taskmanager.service.managers.TaskManager;
 
 import java.io.IOException;
@@ -27,6 +28,10 @@ public class SubtaskHandler extends ManagerAwareHandler implements HttpHandler {
 
     }
 
+    public SubtaskHandler(TaskManager manager, HistorySessions sessions) {
+        super(manager, sessions);
+    }
+
     @Override
     public void handle(HttpExchange exchange) throws IOException {
         URI requestUri = exchange.getRequestURI();
@@ -55,6 +60,11 @@ public class SubtaskHandler extends ManagerAwareHandler implements HttpHandler {
                 sendErrorRequest(exchange, "Запрос сформирован некорректно");
             }
             case "DELETE" -> {
+                if (path.length == 2 && getQueryParams(exchange).containsKey("ids")) {
+                    sendRemoveByIds(exchange, manager::peekSubtaskById, getQueryParams(exchange).get("ids"));
+                    return;
+                }
+
                 if (path.length == 2) {
                     sendErrorRequest(exchange, "Не передан id, который нужно удалить");
                     return;
@@ -83,7 +93,7 @@ public class SubtaskHandler extends ManagerAwareHandler implements HttpHandler {
     private void sendSubtaskById(HttpExchange exchange, String pathParamId) throws IOException {
         try {
             int subtaskId = Integer.parseInt(pathParamId);
-            Subtask subtask = manager.getSubtaskById(subtaskId);
+            Subtask subtask = view(exchange, subtaskId, manager::peekSubtaskById, manager::getSubtaskById);
             String taskStr = gson.toJson(subtask);
             sendText(exchange, taskStr);
         } catch (NumberFormatException e) {
@@ -152,7 +162,9 @@ public class SubtaskHandler extends ManagerAwareHandler implements HttpHandler {
     private void sendRemoveSubtask(HttpExchange exchange, String pathParamId) throws IOException {
         try {
             int taskId = Integer.parseInt(pathParamId);
+            Subtask subtask = manager.peekSubtaskById(taskId);
             manager.deleteSubtaskById(taskId);
+            removeFromSessions(subtask);
             sendText(exchange, "Подзадача с id = " + taskId + " удалена");
         } catch (NumberFormatException e) {
             sendErrorRequest(exchange, "Запрос сформирован некорректно. Не удаётся определить номер подзадачи из " + pathParamId);
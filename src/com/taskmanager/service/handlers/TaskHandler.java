@@ -7,6 +7,7 @@ import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import com.taskmanager.model.Task;
 import com.taskmanager.service.exceptions.*;
+import com.taskmanager.service.managers.HistorySessions;
 import com.taskmanager.service.managers.TaskManager;
 
 import java.io.IOException;
@@ -23,6 +24,10 @@ public class TaskHandler extends ManagerAwareHandler implements HttpHandler {
         super(manager);
     }
 
+    public TaskHandler(TaskManager manager, HistorySessions sessions) {
+        super(manager, sessions);
+    }
+
     @Override
     public void handle(HttpExchange exchange) throws IOException {
         URI requestUri = exchange.getRequestURI();
@@ -51,6 +56,11 @@ public class TaskHandler extends ManagerAwareHandler implements HttpHandler {
                 sendErrorRequest(exchange, "Запрос сформирован некорректно");
             }
             case "DELETE" -> {
+                if (path.length == 2 && getQueryParams(exchange).containsKey("ids")) {
+                    sendRemoveByIds(exchange, manager::peekTaskById, getQueryParams(exchange).get("ids"));
+                    return;
+                }
+
                 if (path.length == 2) {
                     sendErrorRequest(exchange, "Не передан id, который нужно удалить");
                     return;
@@ -79,7 +89,7 @@ public class TaskHandler extends ManagerAwareHandler implements HttpHandler {
     private void sendTaskById(HttpExchange exchange, String pathParamId) throws IOException {
         try {
             int taskId = Integer.parseInt(pathParamId);
-            Task task = manager.getTaskById(taskId);
+            Task task = view(exchange, taskId, manager::peekTaskById, manager::getTaskById);
             String taskStr = gson.toJson(task);
             sendText(exchange, taskStr);
         } catch (NumberFormatException e) {
@@ -141,7 +151,9 @@ public class TaskHandler extends ManagerAwareHandler implements HttpHandler {
     private void sendRemoveTask(HttpExchange exchange, String pathParamId) throws IOException {
         try {
             int taskId = Integer.parseInt(pathParamId);
+            Task task = manager.peekTaskById(taskId);
             manager.deleteTaskById(taskId);
+            removeFromSessions(task);
             sendText(exchange, "Задача с id = " + taskId + " удалена");
         } catch (NumberFormatException e) {
             sendErrorRequest(exchange, "Запрос сформирован некорректно. Не удаётся определить номер таски из " + pathParamId);
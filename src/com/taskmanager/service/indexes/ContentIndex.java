@@ -0,0 +1,165 @@
+package com.taskmanager.service.indexes;
+
+import com.taskmanager.model.AbstractTask;
+import com.taskmanager.model.Epic;
+import com.taskmanager.model.Subtask;
+import com.taskmanager.model.TaskType;
+import com.taskmanager.util.ConcurrentIntObjectMap;
+import com.taskmanager.util.IntObjectHashMap;
+import com.taskmanager.util.IntObjectMap;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Индекс содержимого задач для поиска дубликатов
+ * <p>
+ * Ключ содержимого - тип задачи, название, описание и (для подзадач) идентификатор эпика.
+ * Индекс хранит количество задач с каждым ключом, поэтому проверка на дубликат выполняется
+ * за O(1) без обхода всех задач.
+ * Для каждой задачи запоминается учтённый ключ: так изменение можно учесть, даже если
+ * объект задачи был изменён до вызова {@link #put(AbstractTask)}
+ * <p>
+ * В потокобезопасном режиме индекс можно изменять параллельно для разных задач
+ */
+public class ContentIndex {
+    /**
+     * Количество задач с одинаковым содержимым
+     */
+    private final Map<ContentKey, Integer> counts;
+
+    /**
+     * Учтённые ключи по идентификатору задачи
+     */
+    private final IntObjectMap<ContentKey> keysById;
+
+    /**
+     * Конструктор
+     */
+    public ContentIndex() {
+        this(false);
+    }
+
+    /**
+     * Конструктор
+     *
+     * @param threadSafe true, чтобы допускать параллельное изменение индекса для разных задач
+     */
+    public ContentIndex(boolean threadSafe) {
+        this.counts = threadSafe ? new ConcurrentHashMap<>() : new HashMap<>();
+        this.keysById = threadSafe ? new ConcurrentIntObjectMap<>() : new IntObjectHashMap<>();
+    }
+
+    /**
+     * Учёт новой или изменённой задачи
+     *
+     * @param task Задача с заполненным идентификатором
+     */
+    public void put(AbstractTask task) {
+        final ContentKey key = new ContentKey(task);
+        final ContentKey previous = keysById.put(task.getId(), key);
+        if (previous != null) {
+            decrement(previous);
+        }
+        counts.merge(key, 1, Integer::sum);
+    }
+
+    /**
+     * Исключение задачи из учёта
+     *
+     * @param id Идентификатор задачи
+     */
+    public void remove(int id) {
+        final ContentKey previous = keysById.remove(id);
+        if (previous != null) {
+            decrement(previous);
+        }
+    }
+
+    /**
+     * Исключение всех задач из учёта
+     */
+    public void clear() {
+        counts.clear();
+        keysById.clear();
+    }
+
+    /**
+     * Проверка, учтена ли задача с таким же содержимым
+     *
+     * @param task Задача
+     * @return true, если найдена задача того же типа с тем же названием, описанием и эпиком
+     */
+    public boolean containsContent(AbstractTask task) {
+        return counts.containsKey(new ContentKey(task));
+    }
+
+    /**
+     * Получение ключа содержимого задачи для поиска дубликатов вне индекса, например внутри набора задач.
+     * Ключи равны, если у задач совпадают тип, название, описание и эпик
+     *
+     * @param task Задача
+     * @return Ключ содержимого
+     */
+    public static Object keyOf(AbstractTask task) {
+        return new ContentKey(task);
+    }
+
+    /**
+     * Получение количества учтённых задач
+     *
+     * @return Количество задач
+     */
+    public int size() {
+        return keysById.size();
+    }
+
+    private void decrement(ContentKey key) {
+        counts.computeIfPresent(key, (k, count) -> count > 1 ? count - 1 : null);
+    }
+
+    /**
+     * Ключ содержимого задачи
+     */
+    private static class ContentKey {
+        private final TaskType type;
+        private final String name;
+        private final String description;
+        private final Integer epicId;
+
+        private ContentKey(AbstractTask task) {
+            this.type = typeOf(task);
+            this.name = task.getName();
+            this.description = task.getDescription();
+            this.epicId = task instanceof Subtask subtask ? subtask.getEpicId() : null;
+        }
+
+        private static TaskType typeOf(AbstractTask task) {
+            if (task instanceof Subtask) {
+                return TaskType.SUBTASK;
+            } else if (task instanceof Epic) {
+                return TaskType.EPIC;
+            } else {
+                return TaskType.TASK;
+            }
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            ContentKey that = (ContentKey) o;
+            return type == that.type
+                    && Objects.equals(name, that.name)
+                    && Objects.equals(description, that.description)
+                    && Objects.equals(epicId, that.epicId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(type, name, description, epicId);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.taskmanager.service.indexes;
+
+import com.taskmanager.model.Status;
+import com.taskmanager.model.Subtask;
+import com.taskmanager.util.IntObjectHashMap;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.TreeMap;
+
+/**
+ * Агрегированные данные подзадач эпика
+ * <p>
+ * Хранит количество подзадач в каждом статусе и упорядоченные мультимножества времени начала
+ * и окончания незавершённых подзадач со временем. Данные обновляются на разницу при каждом
+ * изменении подзадачи, поэтому статус эпика вычисляется за O(1), а время начала и окончания
+ * за O(log k) без обхода всех подзадач.
+ * Для каждой подзадачи запоминается учтённое состояние: так изменение можно учесть, даже если
+ * объект подзадачи был изменён до вызова {@link #put(Subtask)}
+ */
+public class EpicAggregate {
+    /**
+     * Количество подзадач по статусам (индекс - порядковый номер статуса)
+     */
+    private final int[] statusCounts;
+
+    /**
+     * Время начала незавершённых подзадач с количеством повторений
+     */
+    private final TreeMap<LocalDateTime, Integer> startTimes;
+
+    /**
+     * Время окончания незавершённых подзадач с количеством повторений
+     */
+    private final TreeMap<LocalDateTime, Integer> endTimes;
+
+    /**
+     * Учтённое состояние подзадач по идентификатору
+     */
+    private final IntObjectHashMap<SubtaskState> subtaskStates;
+
+    /**
+     * Конструктор
+     */
+    public EpicAggregate() {
+        this.statusCounts = new int[Status.values().length];
+        this.startTimes = new TreeMap<>();
+        this.endTimes = new TreeMap<>();
+        this.subtaskStates = new IntObjectHashMap<>();
+    }
+
+    /**
+     * Учёт новой или изменённой подзадачи
+     *
+     * @param subtask Подзадача
+     */
+    public void put(Subtask subtask) {
+        final SubtaskState state = new SubtaskState(subtask);
+        final SubtaskState previous = subtaskStates.put(subtask.getId(), state);
+        if (previous != null) {
+            unaccount(previous);
+        }
+        account(state);
+    }
+
+    /**
+     * Исключение подзадачи из учёта
+     *
+     * @param subtaskId Идентификатор подзадачи
+     */
+    public void remove(int subtaskId) {
+        final SubtaskState previous = subtaskStates.remove(subtaskId);
+        if (previous != null) {
+            unaccount(previous);
+        }
+    }
+
+    /**
+     * Исключение всех подзадач из учёта
+     */
+    public void clear() {
+        subtaskStates.clear();
+        startTimes.clear();
+        endTimes.clear();
+        for (int i = 0; i < statusCounts.length; i++) {
+            statusCounts[i] = 0;
+        }
+    }
+
+    /**
+     * Проверка, учтена ли подзадача
+     *
+     * @param subtaskId Идентификатор подзадачи
+     * @return true, если подзадача учтена
+     */
+    public boolean contains(int subtaskId) {
+        return subtaskStates.containsKey(subtaskId);
+    }
+
+    /**
+     * Получение количества учтённых подзадач
+     *
+     * @return Количество подзадач
+     */
+    public int size() {
+        return subtaskStates.size();
+    }
+
+    /**
+     * Получение количества подзадач в статусе
+     *
+     * @param status Статус
+     * @return Количество подзадач
+     */
+    public int getCount(Status status) {
+        return statusCounts[status.ordinal()];
+    }
+
+    /**
+     * Вычисление статуса эпика: NEW, если все подзадачи новые (или подзадач нет),
+     * DONE, если все подзадачи завершены, иначе IN_PROGRESS
+     *
+     * @return Статус эпика
+     */
+    public Status getStatus() {
+        final int size = size();
+        if (getCount(Status.NEW) == size) {
+            return Status.NEW;
+        } else if (getCount(Status.DONE) == size) {
+            return Status.DONE;
+        } else {
+            return Status.IN_PROGRESS;
+        }
+    }
+
+    /**
+     * Получение времени начала эпика: самого раннего начала незавершённых подзадач
+     *
+     * @return Время начала или null, если незавершённых подзадач со временем нет
+     */
+    public LocalDateTime getStartTime() {
+        return startTimes.isEmpty() ? null : startTimes.firstKey();
+    }
+
+    /**
+     * Получение времени окончания эпика: самого позднего окончания незавершённых подзадач
+     *
+     * @return Время окончания или null, если незавершённых подзадач со временем нет
+     */
+    public LocalDateTime getEndTime() {
+        return endTimes.isEmpty() ? null : endTimes.lastKey();
+    }
+
+    private void account(SubtaskState state) {
+        statusCounts[state.status.ordinal()]++;
+        if (state.isScheduled()) {
+            startTimes.merge(state.startTime, 1, Integer::sum);
+            endTimes.merge(state.endTime, 1, Integer::sum);
+        }
+    }
+
+    private void unaccount(SubtaskState state) {
+        statusCounts[state.status.ordinal()]--;
+        if (state.isScheduled()) {
+            decrement(startTimes, state.startTime);
+            decrement(endTimes, state.endTime);
+        }
+    }
+
+    private static void decrement(TreeMap<LocalDateTime, Integer> times, LocalDateTime time) {
+        times.computeIfPresent(time, (key, count) -> count > 1 ? count - 1 : null);
+    }
+
+    /**
+     * Учтённое состояние подзадачи
+     */
+    private static class SubtaskState {
+        private final Status status;
+        private final LocalDateTime startTime;
+        private final LocalDateTime endTime;
+
+        private SubtaskState(Subtask subtask) {
+            final Duration duration = subtask.getDuration();
+            this.status = subtask.getStatus();
+            this.startTime = subtask.getStartTime();
+            this.endTime = startTime != null && duration != null ? startTime.plus(duration) : startTime;
+        }
+
+        /**
+         * Учитывается ли подзадача при расчёте времени эпика
+         */
+        private boolean isScheduled() {
+            return startTime != null && status != Status.DONE;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.taskmanager.service.indexes;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Неизменяемый снимок списка, который пересобирается только после изменения данных
+ * <p>
+ * Каждое изменение данных увеличивает версию через {@link #invalidate()}. Снимок собирается
+ * при первом чтении после изменения и помечается версией, прочитанной до сборки. Если данные
+ * менялись во время сборки, версия снимка окажется устаревшей и следующее чтение соберёт его заново.
+ * Чтение актуального снимка не берёт блокировок и ничего не копирует; сборка выполняется
+ * не более одного раза на каждую версию
+ *
+ * @param <T> Тип элементов списка
+ */
+public class SnapshotCache<T> {
+    /**
+     * Сборка неизменяемого списка по текущим данным
+     */
+    private final Supplier<List<T>> builder;
+
+    /**
+     * Версия данных
+     */
+    private final AtomicLong version;
+
+    /**
+     * Последний собранный снимок
+     */
+    private volatile Snapshot<T> snapshot;
+
+    /**
+     * Конструктор
+     *
+     * @param builder Сборка неизменяемого списка по текущим данным
+     */
+    public SnapshotCache(Supplier<List<T>> builder) {
+        this.builder = builder;
+        this.version = new AtomicLong();
+    }
+
+    /**
+     * Получение снимка, соответствующего текущим данным
+     *
+     * @return Неизменяемый список
+     */
+    public List<T> get() {
+        final Snapshot<T> current = snapshot;
+        if (current != null && current.version == version.get()) {
+            return current.items;
+        }
+        return rebuild();
+    }
+
+    /**
+     * Отметка об изменении данных: текущий снимок больше не используется
+     */
+    public void invalidate() {
+        version.incrementAndGet();
+    }
+
+    private synchronized List<T> rebuild() {
+        final long expectedVersion = version.get();
+        final Snapshot<T> current = snapshot;
+        if (current != null && current.version == expectedVersion) {
+            return current.items;
+        }
+
+        final List<T> items = builder.get();
+        snapshot = new Snapshot<>(expectedVersion, items);
+        return items;
+    }
+
+    /**
+     * Снимок списка с версией данных, по которым он собран
+     */
+    private static class Snapshot<T> {
+        private final long version;
+        private final List<T> items;
+
+        private Snapshot(long version, List<T> items) {
+            this.version = version;
+            this.items = items;
+        }
+    }
+}
@@ -0,0 +1,347 @@
+package com.taskmanager.service.indexes;
+
+import com.taskmanager.model.AbstractTask;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Индекс временных интервалов задач: список задач по приоритету и проверка пересечений по времени
+ * <p>
+ * Интервалы [start, end) хранятся отсортированными по началу. Таск-менеджер не допускает
+ * пересекающихся интервалов, поэтому в этом порядке не убывают и концы интервалов.
+ * Значит, для проверки нового интервала достаточно посмотреть на ближайший интервал,
+ * начинающийся раньше его конца: у него самый поздний конец среди всех кандидатов.
+ * Проверка выполняется за O(log n)
+ * <p>
+ * Интервал хранит время задачи на момент добавления, поэтому изменение объекта задачи
+ * до повторного вызова {@link #put(AbstractTask)} не нарушает порядок в индексе.
+ * Поиск, удаление и замена интервала по идентификатору задачи выполняются за O(log n)
+ * <p>
+ * Изменения индекса выполняются под собственной блокировкой, а {@link #putIfNotOverlapping(AbstractTask)}
+ * атомарно проверяет пересечение и добавляет интервал. В потокобезопасном режиме интервалы хранятся
+ * в {@link ConcurrentSkipListSet}, поэтому чтение не блокируется и может идти параллельно с изменениями
+ */
+public class TimeIntervalIndex {
+    /**
+     * Интервалы, отсортированные по началу, концу и идентификатору
+     */
+    private final NavigableSet<Interval> intervals;
+
+    /**
+     * Интервалы по идентификатору задачи
+     */
+    private final Map<Integer, Interval> intervalsById;
+
+    /**
+     * Блокировка изменений индекса
+     */
+    private final Object lock;
+
+    /**
+     * Конструктор
+     */
+    public TimeIntervalIndex() {
+        this(false);
+    }
+
+    /**
+     * Конструктор
+     *
+     * @param threadSafe true, чтобы читать индекс без блокировки параллельно с изменениями
+     */
+    public TimeIntervalIndex(boolean threadSafe) {
+        this.intervals = threadSafe ? new ConcurrentSkipListSet<>() : new TreeSet<>();
+        this.intervalsById = threadSafe ? new ConcurrentHashMap<>() : new HashMap<>();
+        this.lock = new Object();
+    }
+
+    /**
+     * Добавление или замена интервала задачи. Задачи без времени начала в индекс не попадают
+     *
+     * @param task Задача с заполненным идентификатором
+     */
+    public void put(AbstractTask task) {
+        synchronized (lock) {
+            remove(task.getId());
+            if (task.getStartTime() == null) {
+                return;
+            }
+
+            final Interval interval = new Interval(task.getStartTime(), endOf(task), task.getId(), task);
+            intervals.add(interval);
+            intervalsById.put(interval.id, interval);
+        }
+    }
+
+    /**
+     * Атомарная проверка пересечения и добавление или замена интервала задачи.
+     * Собственный интервал задачи при проверке не учитывается
+     *
+     * @param task Задача с заполненным идентификатором
+     * @return true, если интервал добавлен; false, если найдено пересечение и индекс не изменился
+     */
+    public boolean putIfNotOverlapping(AbstractTask task) {
+        synchronized (lock) {
+            if (isOverlapping(task)) {
+                return false;
+            }
+            put(task);
+            return true;
+        }
+    }
+
+    /**
+     * Удаление интервала задачи
+     *
+     * @param id Идентификатор задачи
+     */
+    public void remove(int id) {
+        synchronized (lock) {
+            final Interval interval = intervalsById.remove(id);
+            if (interval != null) {
+                intervals.remove(interval);
+            }
+        }
+    }
+
+    /**
+     * Проверка наличия интервала задачи в индексе
+     *
+     * @param id Идентификатор задачи
+     * @return true, если интервал задачи есть в индексе
+     */
+    public boolean contains(int id) {
+        return intervalsById.containsKey(id);
+    }
+
+    /**
+     * Получение задачи, добавленной в индекс
+     *
+     * @param id Идентификатор задачи
+     * @return Задача или null, если интервала задачи нет в индексе
+     */
+    public AbstractTask get(int id) {
+        final Interval interval = intervalsById.get(id);
+        return interval != null ? interval.task : null;
+    }
+
+    /**
+     * Получение задач, отсортированных по времени начала
+     *
+     * @return Неизменяемый список задач
+     */
+    public List<AbstractTask> getTasks() {
+        final List<AbstractTask> tasks = new ArrayList<>(intervalsById.size());
+        for (Interval interval : intervals) {
+            tasks.add(interval.task);
+        }
+        return Collections.unmodifiableList(tasks);
+    }
+
+    /**
+     * Получение задач, пересекающихся с интервалом [from, to), отсортированных по времени начала.
+     * Задача без длительности попадает в список, если её начало лежит в интервале.
+     * Выполняется за O(log n + k), где k - количество найденных задач
+     *
+     * @param from Начало интервала (null - без ограничения)
+     * @param to   Конец интервала (null - без ограничения)
+     * @return Неизменяемый список задач
+     */
+    public List<AbstractTask> getTasks(LocalDateTime from, LocalDateTime to) {
+        if (from != null && to != null && to.isBefore(from)) {
+            throw new IllegalArgumentException("Конец интервала " + to + " раньше его начала " + from);
+        }
+
+        final List<AbstractTask> tasks = new ArrayList<>();
+        NavigableSet<Interval> window = intervals;
+        if (from != null) {
+            // из интервалов, начавшихся раньше from, в окно может попасть только последний:
+            // интервалы не пересекаются, поэтому все предыдущие закончились до его начала
+            final Interval previous = intervals.lower(Interval.lowerBound(from));
+            if (previous != null && previous.end.isAfter(from)) {
+                tasks.add(previous.task);
+            }
+            window = window.tailSet(Interval.lowerBound(from), true);
+        }
+        if (to != null) {
+            window = window.headSet(Interval.lowerBound(to), false);
+        }
+
+        for (Interval interval : window) {
+            tasks.add(interval.task);
+        }
+        return Collections.unmodifiableList(tasks);
+    }
+
+    /**
+     * Поиск самого раннего свободного промежутка заданной длительности, начинающегося не раньше from.
+     * Интервалы обходятся по возрастанию начала, начиная с интервала, в который попадает from,
+     * поэтому просматриваются только интервалы до найденного промежутка: O(log n + k)
+     *
+     * @param duration Длительность промежутка (не отрицательная)
+     * @param from     Время, не раньше которого должен начинаться промежуток
+     * @param horizon  Время, не позже которого должен закончиться промежуток (null - без ограничения)
+     * @return Начало промежутка или null, если до horizon свободного промежутка нет
+     */
+    public LocalDateTime findFreeSlot(Duration duration, LocalDateTime from, LocalDateTime horizon) {
+        if (duration == null || duration.isNegative()) {
+            throw new IllegalArgumentException("Длительность промежутка должна быть неотрицательной: " + duration);
+        }
+        if (from == null) {
+            throw new IllegalArgumentException("Не задано время начала поиска");
+        }
+
+        LocalDateTime candidate = from;
+        final Interval previous = intervals.lower(Interval.lowerBound(from));
+        if (previous != null && previous.end.isAfter(candidate)) {
+            candidate = previous.end;
+        }
+
+        for (Interval interval : intervals.tailSet(Interval.lowerBound(candidate), true)) {
+            if (!candidate.plus(duration).isAfter(interval.start)) {
+                break;
+            }
+            // интервал без длительности в начале промежутка с ним не пересекается
+            if (interval.end.isAfter(candidate)) {
+                candidate = interval.end;
+            }
+            if (horizon != null && candidate.plus(duration).isAfter(horizon)) {
+                return null;
+            }
+        }
+
+        return horizon == null || !candidate.plus(duration).isAfter(horizon) ? candidate : null;
+    }
+
+    /**
+     * Удаление всех интервалов
+     */
+    public void clear() {
+        synchronized (lock) {
+            intervals.clear();
+            intervalsById.clear();
+        }
+    }
+
+    /**
+     * Проверка, пересекается ли задача по времени с интервалами индекса.
+     * Интервал самой задачи (с тем же идентификатором) не учитывается
+     *
+     * @param task Задача
+     * @return true, если найдено пересечение
+     */
+    public boolean isOverlapping(AbstractTask task) {
+        if (task.getStartTime() == null) {
+            return false;
+        }
+
+        return isOverlapping(task.getStartTime(), endOf(task), task.getId());
+    }
+
+    /**
+     * Поиск задачи набора, которая пересекается по времени с другой задачей набора или с интервалами индекса.
+     * Задачи набора сортируются по началу и проверяются одним проходом: пока среди проверенных задач
+     * пересечений нет, новую задачу достаточно сравнить с последней из них, а с индексом - за O(log n).
+     * Всего O(k log k + k log n) для набора из k задач
+     *
+     * @param tasks Задачи набора (задачи без времени начала не проверяются)
+     * @return Первая найденная пересекающаяся задача или null
+     */
+    public AbstractTask findOverlapping(Collection<? extends AbstractTask> tasks) {
+        final List<Interval> batch = new ArrayList<>(tasks.size());
+        for (AbstractTask task : tasks) {
+            if (task.getStartTime() != null) {
+                batch.add(new Interval(task.getStartTime(), endOf(task), batch.size(), task));
+            }
+        }
+        batch.sort(null);
+
+        Interval previous = null;
+        for (Interval interval : batch) {
+            if (previous != null && previous.start.isBefore(interval.end) && previous.end.isAfter(interval.start)) {
+                return interval.task;
+            }
+            if (isOverlapping(interval.start, interval.end, interval.task.getId())) {
+                return interval.task;
+            }
+            previous = interval;
+        }
+        return null;
+    }
+
+    /**
+     * Проверка, пересекается ли интервал [start, end) с интервалами индекса
+     *
+     * @param start      Начало интервала
+     * @param end        Конец интервала
+     * @param excludedId Идентификатор задачи, интервал которой не учитывается (может быть null)
+     * @return true, если найдено пересечение
+     */
+    public boolean isOverlapping(LocalDateTime start, LocalDateTime end, Integer excludedId) {
+        final Iterator<Interval> candidates = intervals.headSet(Interval.lowerBound(end), false).descendingIterator();
+
+        while (candidates.hasNext()) {
+            final Interval candidate = candidates.next();
+            if (excludedId != null && candidate.id == excludedId) {
+                continue;
+            }
+            return candidate.end.isAfter(start);
+        }
+
+        return false;
+    }
+
+    /**
+     * Получение количества интервалов в индексе
+     *
+     * @return Количество интервалов
+     */
+    public int size() {
+        return intervalsById.size();
+    }
+
+    private static LocalDateTime endOf(AbstractTask task) {
+        final Duration duration = task.getDuration();
+        return duration != null ? task.getStartTime().plus(duration) : task.getStartTime();
+    }
+
+    /**
+     * Интервал времени задачи
+     */
+    private static class Interval implements Comparable<Interval> {
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+        private final int id;
+        private final AbstractTask task;
+
+        private Interval(LocalDateTime start, LocalDateTime end, int id, AbstractTask task) {
+            this.start = start;
+            this.end = end;
+            this.id = id;
+            this.task = task;
+        }
+
+        /**
+         * Интервал, который меньше любого интервала, начинающегося в момент start
+         */
+        private static Interval lowerBound(LocalDateTime start) {
+            return new Interval(start, LocalDateTime.MIN, Integer.MIN_VALUE, null);
+        }
+
+        @Override
+        public int compareTo(Interval o) {
+            int result = start.compareTo(o.start);
+            if (result == 0) {
+                result = end.compareTo(o.end);
+            }
+            if (result == 0) {
+                result = Integer.compare(id, o.id);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.taskmanager.service.managers;
+
+import com.taskmanager.model.AbstractTask;
+import com.taskmanager.util.OpenAddressing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Менеджер истории просмотра фиксированной ёмкости на массивах
+ * <p>
+ * Идентификаторы задач и связи списка в порядке просмотра хранятся в параллельных массивах
+ * примитивов, а ячейка записи ищется по идентификатору через хэш-таблицу с открытой адресацией
+ * ({@link OpenAddressing}).
+ * Все массивы создаются в конструкторе, освобождённые ячейки переиспользуются, поэтому просмотр
+ * задачи не создаёт объектов. При переполнении вытесняется задача, просмотренная раньше всех.
+ * Добавление, удаление и вытеснение выполняются за O(1)
+ */
+public class ArrayHistoryManager implements HistoryManager {
+    private static final int NONE = -1;
+
+    private final int capacity;
+
+    /**
+     * Хэш-таблица: номер ячейки + 1, 0 - свободная ячейка таблицы
+     */
+    private final int[] table;
+
+    /**
+     * Идентификаторы задач
+     */
+    private final int[] ids;
+
+    /**
+     * Предыдущая ячейка в порядке просмотра
+     */
+    private final int[] prev;
+
+    /**
+     * Следующая ячейка в порядке просмотра (для свободных ячеек - следующая свободная)
+     */
+    private final int[] next;
+
+    /**
+     * Просмотренные задачи
+     */
+    private final AbstractTask[] tasks;
+
+    private int head;
+    private int tail;
+    private int freeHead;
+    private int used;
+    private int size;
+
+    /**
+     * Конструктор
+     *
+     * @param capacity Максимальное количество задач в истории (положительное)
+     */
+    public ArrayHistoryManager(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Ёмкость истории должна быть положительной: " + capacity);
+        }
+        this.capacity = capacity;
+        this.table = new int[OpenAddressing.tableSizeFor(capacity)];
+        this.ids = new int[capacity];
+        this.prev = new int[capacity];
+        this.next = new int[capacity];
+        this.tasks = new AbstractTask[capacity];
+        this.head = NONE;
+        this.tail = NONE;
+        this.freeHead = NONE;
+    }
+
+    @Override
+    public void add(AbstractTask abstractTask) {
+        final int id = abstractTask.getId();
+        final int position = OpenAddressing.indexOf(table, ids, id);
+
+        if (table[position] != 0) {
+            final int entry = table[position] - 1;
+            tasks[entry] = abstractTask;
+            if (entry != tail) {
+                unlink(entry);
+                linkLast(entry);
+            }
+            return;
+        }
+
+        if (size == capacity) {
+            remove(ids[head]);
+            add(abstractTask);
+            return;
+        }
+
+        final int entry = allocate();
+        ids[entry] = id;
+        tasks[entry] = abstractTask;
+        linkLast(entry);
+        table[position] = entry + 1;
+        size++;
+    }
+
+    @Override
+    public void remove(int id) {
+        final int position = OpenAddressing.indexOf(table, ids, id);
+        if (table[position] == 0) {
+            return;
+        }
+
+        final int entry = table[position] - 1;
+        unlink(entry);
+        tasks[entry] = null;
+        next[entry] = freeHead;
+        freeHead = entry;
+
+        OpenAddressing.deleteSlot(table, ids, position);
+        size--;
+    }
+
+    @Override
+    public List<AbstractTask> getHistory() {
+        final List<AbstractTask> history = new ArrayList<>(size);
+        for (int entry = head; entry != NONE; entry = next[entry]) {
+            history.add(tasks[entry]);
+        }
+        return history;
+    }
+
+    @Override
+    public List<AbstractTask> getHistory(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Количество задач не может быть отрицательным: " + limit);
+        }
+
+        final AbstractTask[] history = new AbstractTask[Math.min(limit, size)];
+        int entry = tail;
+        for (int i = history.length - 1; i >= 0; i--) {
+            history[i] = tasks[entry];
+            entry = prev[entry];
+        }
+        return Arrays.asList(history);
+    }
+
+    /**
+     * Получение ёмкости истории
+     *
+     * @return Максимальное количество задач в истории
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ArrayHistoryManager that = (ArrayHistoryManager) o;
+        return Objects.equals(getHistory(), that.getHistory());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(getHistory());
+    }
+
+    @Override
+    public String toString() {
+        return ArrayHistoryManager.class.getName() + " {" +
+                "history = " + getHistory() +
+                '}';
+    }
+
+    private int allocate() {
+        if (freeHead != NONE) {
+            final int entry = freeHead;
+            freeHead = next[entry];
+            return entry;
+        }
+        return used++;
+    }
+
+    private void linkLast(int entry) {
+        prev[entry] = tail;
+        next[entry] = NONE;
+        if (tail == NONE) {
+            head = entry;
+        } else {
+            next[tail] = entry;
+        }
+        tail = entry;
+    }
+
+    private void unlink(int entry) {
+        if (prev[entry] == NONE) {
+            head = next[entry];
+        } else {
+            next[prev[entry]] = next[entry];
+        }
+        if (next[entry] == NONE) {
+            tail = prev[entry];
+        } else {
+            prev[next[entry]] = prev[entry];
+        }
+    }
+}
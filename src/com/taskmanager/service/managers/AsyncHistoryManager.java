@@ -0,0 +1,210 @@
+package com.taskmanager.service.managers;
+
+import com.taskmanager.model.AbstractTask;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Менеджер истории с асинхронной записью просмотров
+ * <p>
+ * Просмотры и удаления не изменяют историю сразу, а помещаются в неблокирующую очередь, поэтому
+ * чтение задачи не ждёт изменения связного списка. Фоновый поток периодически забирает накопившиеся
+ * события пачкой и применяет к обёрнутой истории. Внутри пачки для каждой задачи остаётся только
+ * последнее событие: повторный просмотр всё равно переносит задачу в конец истории, а удаление
+ * отменяет предыдущие просмотры, поэтому результат не меняется.
+ * <p>
+ * В режиме {@link Consistency#FLUSH} чтение истории сначала применяет все события из очереди,
+ * в режиме {@link Consistency#STALE} возвращает историю на момент последней пачки: отставание
+ * не превышает периода фоновой записи
+ */
+public class AsyncHistoryManager implements HistoryManager, AutoCloseable {
+    /**
+     * Период фоновой записи по умолчанию
+     */
+    public static final Duration DEFAULT_DRAIN_INTERVAL = Duration.ofMillis(50);
+
+    /**
+     * Поведение чтения истории
+     */
+    public enum Consistency {
+        /**
+         * Перед чтением применяются все накопившиеся события
+         */
+        FLUSH,
+        /**
+         * Читается история на момент последней пачки
+         */
+        STALE
+    }
+
+    private final HistoryManager historyManager;
+    private final Consistency consistency;
+    private final Queue<Event> events;
+    private final ScheduledExecutorService drainer;
+
+    /**
+     * Блокировка обёрнутой истории: её изменяет и читает только один поток одновременно
+     */
+    private final Object lock;
+
+    /**
+     * Создание менеджера истории с запуском фоновой записи
+     *
+     * @param historyManager Обёрнутый менеджер истории (не обязан быть потокобезопасным)
+     * @param drainInterval  Период фоновой записи
+     * @param consistency    Поведение чтения истории
+     * @return Менеджер истории
+     */
+    public static AsyncHistoryManager start(HistoryManager historyManager, Duration drainInterval,
+                                            Consistency consistency) {
+        if (drainInterval.isNegative() || drainInterval.isZero()) {
+            throw new IllegalArgumentException("Период записи должен быть положительным: " + drainInterval);
+        }
+        final AsyncHistoryManager manager = new AsyncHistoryManager(historyManager, consistency);
+        final long intervalNanos = drainInterval.toNanos();
+        manager.drainer.scheduleWithFixedDelay(manager::flush, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+        return manager;
+    }
+
+    /**
+     * Конструктор. Фоновая запись планируется в {@link #start}, чтобы ссылка на объект
+     * не попала в поток записи до окончания конструктора
+     *
+     * @param historyManager Обёрнутый менеджер истории (не обязан быть потокобезопасным)
+     * @param consistency    Поведение чтения истории
+     */
+    private AsyncHistoryManager(HistoryManager historyManager, Consistency consistency) {
+        this.historyManager = historyManager;
+        this.consistency = consistency;
+        this.events = new ConcurrentLinkedQueue<>();
+        this.lock = new Object();
+        this.drainer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "history-drainer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void add(AbstractTask abstractTask) {
+        events.offer(new Event(abstractTask.getId(), abstractTask));
+    }
+
+    @Override
+    public void remove(int id) {
+        events.offer(new Event(id, null));
+    }
+
+    @Override
+    public List<AbstractTask> getHistory() {
+        synchronized (lock) {
+            if (consistency == Consistency.FLUSH) {
+                drain();
+            }
+            return List.copyOf(historyManager.getHistory());
+        }
+    }
+
+    @Override
+    public List<AbstractTask> getHistory(int limit) {
+        synchronized (lock) {
+            if (consistency == Consistency.FLUSH) {
+                drain();
+            }
+            return List.copyOf(historyManager.getHistory(limit));
+        }
+    }
+
+    /**
+     * Применение всех накопившихся событий к истории
+     */
+    public void flush() {
+        synchronized (lock) {
+            drain();
+        }
+    }
+
+    /**
+     * Получение количества событий, ещё не применённых к истории
+     *
+     * @return Количество событий
+     */
+    public int getPendingCount() {
+        return events.size();
+    }
+
+    /**
+     * Получение поведения чтения истории
+     *
+     * @return Поведение чтения
+     */
+    public Consistency getConsistency() {
+        return consistency;
+    }
+
+    /**
+     * Остановка фоновой записи с применением накопившихся событий
+     */
+    @Override
+    public void close() {
+        drainer.shutdown();
+        flush();
+    }
+
+    @Override
+    public String toString() {
+        return AsyncHistoryManager.class.getName() + " {" +
+                "historyManager = " + historyManager +
+                ", pending = " + events.size() +
+                '}';
+    }
+
+    /**
+     * Применение пачки событий, накопившихся к этому моменту. Вызывается под блокировкой истории.
+     * События, добавленные во время применения, остаются до следующей пачки, поэтому
+     * непрерывный поток просмотров не задерживает запись и чтение истории
+     */
+    private void drain() {
+        int remaining = events.size();
+        if (remaining == 0) {
+            return;
+        }
+
+        // последнее событие по каждой задаче в порядке последних событий
+        final Map<Integer, Event> batch = new LinkedHashMap<>();
+        Event event;
+        while (remaining-- > 0 && (event = events.poll()) != null) {
+            batch.remove(event.id);
+            batch.put(event.id, event);
+        }
+
+        for (Event last : batch.values()) {
+            if (last.task != null) {
+                historyManager.add(last.task);
+            } else {
+                historyManager.remove(last.id);
+            }
+        }
+    }
+
+    /**
+     * Просмотр (задача задана) или удаление (задача null)
+     */
+    private static class Event {
+        private final int id;
+        private final AbstractTask task;
+
+        private Event(int id, AbstractTask task) {
+            this.id = id;
+            this.task = task;
+        }
+    }
+}
@@ -0,0 +1,327 @@
+package com.taskmanager.service.managers;
+
+import com.taskmanager.model.AbstractTask;
+import com.taskmanager.model.Epic;
+import com.taskmanager.model.Subtask;
+import com.taskmanager.model.Task;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Потокобезопасный таск-менеджер для обслуживания нескольких клиентов
+ * <p>
+ * Задачи хранятся в {@link java.util.concurrent.ConcurrentHashMap}, список по приоритету -
+ * в {@link java.util.concurrent.ConcurrentSkipListSet}, идентификаторы выдаются атомарно,
+ * поэтому чтение списков и задач по идентификатору не блокируется.
+ * Проверка пересечения по времени и добавление в список по приоритету выполняются атомарно
+ * под отдельной блокировкой списка.
+ * Возвращаемые объекты задач - общие с менеджером, поэтому их поля могут меняться параллельно с чтением.
+ * Идентификаторы подзадач эпика эпик защищает сам, поэтому их чтение и сериализация эпика возвращают
+ * согласованный набор на момент обращения
+ * <p>
+ * Изменения затрагивают сразу несколько структур (задачи, индексы, агрегированные данные эпика)
+ * и блокируются в одном из режимов {@link LockingMode}
+ */
+public class ConcurrentTaskManager extends InMemoryTaskManager {
+    /**
+     * Количество блокировок эпиков (степень двойки)
+     */
+    private static final int EPIC_STRIPES = 64;
+
+    private final LockingMode lockingMode;
+
+    /**
+     * Блокировка структуры: массовые операции берут её на запись, остальные изменения - на чтение
+     */
+    private final ReentrantReadWriteLock structureLock;
+
+    /**
+     * Блокировки эпиков: эпик и его подзадачи изменяются под блокировкой с номером по идентификатору эпика
+     */
+    private final ReentrantLock[] epicStripes;
+
+    /**
+     * Блокировка изменений задач
+     */
+    private final ReentrantLock taskLock;
+
+    /**
+     * Блокировка индекса содержимого эпиков: добавление, изменение и удаление эпика, чтобы проверка
+     * на дубликат не пересекалась с переименованием. Берётся раньше блокировки эпика
+     */
+    private final ReentrantLock epicCreationLock;
+
+    /**
+     * Конструктор таск-менеджера с общей блокировкой изменений
+     */
+    public ConcurrentTaskManager() {
+        this(LockingMode.GLOBAL);
+    }
+
+    /**
+     * Конструктор
+     *
+     * @param lockingMode Режим блокировки изменений
+     */
+    public ConcurrentTaskManager(LockingMode lockingMode) {
+        this(lockingMode, new SynchronizedHistoryManager(Managers.getDefaultHistory()));
+    }
+
+    /**
+     * Конструктор
+     *
+     * @param lockingMode    Режим блокировки изменений
+     * @param historyManager Потокобезопасный менеджер истории, например {@link AsyncHistoryManager}
+     */
+    public ConcurrentTaskManager(LockingMode lockingMode, HistoryManager historyManager) {
+        super(true, historyManager);
+        this.lockingMode = lockingMode;
+        this.structureLock = new ReentrantReadWriteLock();
+        this.epicStripes = new ReentrantLock[EPIC_STRIPES];
+        for (int i = 0; i < EPIC_STRIPES; i++) {
+            epicStripes[i] = new ReentrantLock();
+        }
+        this.taskLock = new ReentrantLock();
+        this.epicCreationLock = new ReentrantLock();
+    }
+
+    /**
+     * Получение режима блокировки изменений
+     *
+     * @return Режим блокировки
+     */
+    public LockingMode getLockingMode() {
+        return lockingMode;
+    }
+
+    @Override
+    public void addTask(Task task) {
+        runLocked(() -> super.addTask(task), taskLock);
+    }
+
+    @Override
+    public void addEpic(Epic epic) {
+        runLocked(() -> super.addEpic(epic), epicCreationLock);
+    }
+
+    @Override
+    public void addSubtask(Subtask subtask) {
+        if (subtask.getEpicId() == null) {
+            // подзадача без эпика будет отклонена без изменения данных
+            runLocked(() -> super.addSubtask(subtask));
+            return;
+        }
+        runLocked(() -> super.addSubtask(subtask), epicStripe(subtask.getEpicId()));
+    }
+
+    @Override
+    public void addAll(Collection<? extends AbstractTask> items) {
+        runExclusive(() -> super.addAll(items));
+    }
+
+    @Override
+    public void editTask(Task task) {
+        runLocked(() -> super.editTask(task), taskLock);
+    }
+
+    @Override
+    public void editEpic(Epic epic) {
+        if (epic.getId() == null) {
+            runLocked(() -> super.editEpic(epic));
+            return;
+        }
+        runLocked(() -> super.editEpic(epic), epicCreationLock, epicStripe(epic.getId()));
+    }
+
+    @Override
+    public void editSubtask(Subtask subtask) {
+        if (subtask.getId() == null || subtask.getEpicId() == null) {
+            runLocked(() -> super.editSubtask(subtask));
+            return;
+        }
+        runLockedWithSubtaskEpic(subtask.getId(), subtask.getEpicId(), () -> super.editSubtask(subtask));
+    }
+
+    /**
+     * Получение списка подзадач конкретного эпика. Выполняется под блокировкой эпика,
+     * чтобы список подзадач эпика не менялся во время чтения
+     *
+     * @param epicId Идентификатор эпика
+     * @return Список подзадач
+     */
+    @Override
+    public List<Subtask> getSubtaskListByEpicId(Integer epicId) {
+        if (epicId == null) {
+            return callLocked(() -> super.getSubtaskListByEpicId(null));
+        }
+        return callLocked(() -> super.getSubtaskListByEpicId(epicId), epicStripe(epicId));
+    }
+
+    @Override
+    public void deleteAllTasks() {
+        runExclusive(super::deleteAllTasks);
+    }
+
+    @Override
+    public void deleteAllEpics() {
+        runExclusive(super::deleteAllEpics);
+    }
+
+    @Override
+    public void deleteAllSubtasks() {
+        runExclusive(super::deleteAllSubtasks);
+    }
+
+    @Override
+    public void deleteAllSubtasksInEpic(int epicId) {
+        runLocked(() -> super.deleteAllSubtasksInEpic(epicId), epicStripe(epicId));
+    }
+
+    @Override
+    public void deleteTaskById(int id) {
+        runLocked(() -> super.deleteTaskById(id), taskLock);
+    }
+
+    @Override
+    public void deleteEpicById(int id) {
+        runLocked(() -> super.deleteEpicById(id), epicCreationLock, epicStripe(id));
+    }
+
+    @Override
+    public void deleteSubtaskById(int id) {
+        runLockedWithSubtaskEpic(id, null, () -> super.deleteSubtaskById(id));
+    }
+
+    @Override
+    public void deleteByIds(Collection<Integer> ids) {
+        runExclusive(() -> super.deleteByIds(ids));
+    }
+
+    /**
+     * Набор изменений применяется под исключительной блокировкой: операции набора
+     * повторно захватывают уже удерживаемые блокировки. Чтение блокировку не берёт,
+     * поэтому может увидеть операции набора, которые затем будут отменены
+     */
+    @Override
+    public void apply(TaskBatch batch) {
+        runExclusive(() -> super.apply(batch));
+    }
+
+    @Override
+    public void correctEpicStatus(int epicId) {
+        runLocked(() -> super.correctEpicStatus(epicId), epicStripe(epicId));
+    }
+
+    /**
+     * Выполнение изменения подзадачи под блокировками её текущего эпика и эпика, в который она переносится.
+     * Если подзадачу перенесли в другой эпик до получения блокировок, блокировки берутся заново
+     */
+    private void runLockedWithSubtaskEpic(int subtaskId, Integer targetEpicId, Runnable action) {
+        while (true) {
+            final Integer currentEpicId = findEpicIdOfSubtask(subtaskId);
+            // блокировки эпиков берутся в порядке номеров, чтобы два потока, переносящих подзадачи
+            // между одними и теми же эпиками, не ждали друг друга бесконечно
+            final int currentStripe = currentEpicId != null ? stripeIndex(currentEpicId) : EPIC_STRIPES;
+            final int targetStripe = targetEpicId != null ? stripeIndex(targetEpicId) : EPIC_STRIPES;
+            final Lock first = stripeOrNull(Math.min(currentStripe, targetStripe));
+            final Lock second = stripeOrNull(Math.max(currentStripe, targetStripe));
+
+            final boolean done = callLocked(() -> {
+                if (!Objects.equals(currentEpicId, findEpicIdOfSubtask(subtaskId))) {
+                    return false;
+                }
+                action.run();
+                return true;
+            }, first, second);
+
+            if (done) {
+                return;
+            }
+        }
+    }
+
+    private ReentrantLock epicStripe(int epicId) {
+        return epicStripes[stripeIndex(epicId)];
+    }
+
+    private Lock stripeOrNull(int index) {
+        return index < EPIC_STRIPES ? epicStripes[index] : null;
+    }
+
+    private static int stripeIndex(int epicId) {
+        return epicId & (EPIC_STRIPES - 1);
+    }
+
+    private void runExclusive(Runnable action) {
+        structureLock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            structureLock.writeLock().unlock();
+        }
+    }
+
+    private void runLocked(Runnable action, Lock... locks) {
+        callLocked(() -> {
+            action.run();
+            return null;
+        }, locks);
+    }
+
+    /**
+     * Выполнение действия под блокировкой структуры на чтение и переданными блокировками.
+     * В режиме {@link LockingMode#GLOBAL} действие выполняется под блокировкой структуры на запись.
+     * Блокировки берутся в переданном порядке, повторяющиеся и null пропускаются
+     */
+    private <T> T callLocked(Supplier<T> action, Lock... locks) {
+        if (lockingMode == LockingMode.GLOBAL) {
+            structureLock.writeLock().lock();
+            try {
+                return action.get();
+            } finally {
+                structureLock.writeLock().unlock();
+            }
+        }
+
+        final Lock[] acquired = new Lock[locks.length];
+        int count = 0;
+        structureLock.readLock().lock();
+        try {
+            for (Lock lock : locks) {
+                if (lock != null && (count == 0 || acquired[count - 1] != lock)) {
+                    lock.lock();
+                    acquired[count++] = lock;
+                }
+            }
+            return action.get();
+        } finally {
+            for (int i = count - 1; i >= 0; i--) {
+                acquired[i].unlock();
+            }
+            structureLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Режим блокировки изменений
+     */
+    public enum LockingMode {
+        /**
+         * Все изменения выполняются под одной общей блокировкой
+         */
+        GLOBAL,
+
+        /**
+         * Изменения эпика и его подзадач блокируют только блокировку эпика, изменения задач - общую
+         * блокировку задач, и лишь массовые удаления блокируют всю структуру.
+         * Изменения подзадач разных эпиков выполняются параллельно
+         */
+        EPIC_STRIPES
+    }
+}
@@ -0,0 +1,101 @@
+package com.taskmanager.service.managers;
+
+import java.time.Duration;
+
+/**
+ * Политика сброса журнала на диск: определяет, когда изменение считается сохранённым
+ * и сколько ждёт изменяющий поток
+ * <p>
+ * Потоки, которые ждут сброса одновременно, ожидают один общий вызов
+ * {@link java.nio.channels.FileChannel#force(boolean)}, поэтому при параллельных изменениях
+ * один сброс на диск подтверждает сразу несколько записей
+ */
+public final class DurabilityPolicy {
+    /**
+     * Режим сброса
+     */
+    public enum Mode {
+        /**
+         * Изменение возвращает управление только после сброса своей записи на диск
+         */
+        EVERY_WRITE,
+        /**
+         * Записи сбрасываются группой: по истечении интервала с первой несброшенной записи
+         * или по накоплении заданного количества записей. Изменение ждёт сброса своей группы
+         */
+        GROUP_COMMIT,
+        /**
+         * Записи остаются в буфере операционной системы и на диск явно не сбрасываются
+         */
+        OS_BUFFERED
+    }
+
+    private static final DurabilityPolicy EVERY_WRITE = new DurabilityPolicy(Mode.EVERY_WRITE, Duration.ZERO, 1);
+    private static final DurabilityPolicy OS_BUFFERED = new DurabilityPolicy(Mode.OS_BUFFERED, Duration.ZERO, Integer.MAX_VALUE);
+
+    private final Mode mode;
+    private final Duration interval;
+    private final int maxRecords;
+
+    private DurabilityPolicy(Mode mode, Duration interval, int maxRecords) {
+        this.mode = mode;
+        this.interval = interval;
+        this.maxRecords = maxRecords;
+    }
+
+    /**
+     * Сброс на диск после каждой записи
+     *
+     * @return Политика сброса
+     */
+    public static DurabilityPolicy everyWrite() {
+        return EVERY_WRITE;
+    }
+
+    /**
+     * Групповой сброс на диск
+     *
+     * @param interval   Наибольшее время ожидания сброса с первой несброшенной записи (положительное)
+     * @param maxRecords Количество несброшенных записей, при котором сброс выполняется сразу (положительное)
+     * @return Политика сброса
+     */
+    public static DurabilityPolicy groupCommit(Duration interval, int maxRecords) {
+        if (interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("Интервал сброса должен быть положительным: " + interval);
+        }
+        if (maxRecords <= 0) {
+            throw new IllegalArgumentException("Количество записей должно быть положительным: " + maxRecords);
+        }
+        return new DurabilityPolicy(Mode.GROUP_COMMIT, interval, maxRecords);
+    }
+
+    /**
+     * Без явного сброса на диск
+     *
+     * @return Политика сброса
+     */
+    public static DurabilityPolicy osBuffered() {
+        return OS_BUFFERED;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public Duration getInterval() {
+        return interval;
+    }
+
+    public int getMaxRecords() {
+        return maxRecords;
+    }
+
+    @Override
+    public String toString() {
+        return DurabilityPolicy.class.getName() + " {" +
+                "mode = " + mode +
+                ", interval = " + interval +
+                ", maxRecords = " + maxRecords +
+                '}';
+    }
+}
@@ -3,105 +3,612 @@ package com.taskmanager.service.managers;
 import com.taskmanager.model.*;
 import com.taskmanager.service.exceptions.ManagerReadException;
 import com.taskmanager.service.exceptions.ManagerSaveException;
+import com.taskmanager.service.formats.BinarySnapshotFormat;
+import com.taskmanager.service.formats.CsvSnapshotFormat;
+import com.taskmanager.service.formats.SnapshotFormat;
+import com.taskmanager.service.formats.TaskSnapshot;
 
 import java.io.*;
+import java.lang.ref.Cleaner;
+import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.time.Duration;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
-public class FileBackedTaskManager extends InMemoryTaskManager {
+/**
+ * Таск-менеджер с сохранением данных в файл
+ * <p>
+ * В режиме {@link PersistenceMode#SNAPSHOT} после каждого изменения файл перезаписывается целиком.
+ * В режиме {@link PersistenceMode#LOG} файл только читается при запуске, а каждое изменение дописывается
+ * одной записью в журнал рядом с ним (файл с суффиксом {@value #LOG_SUFFIX}), поэтому запись изменения
+ * не зависит от количества задач. При запуске журнал воспроизводится поверх файла
+ * <p>
+ * Чтобы журнал не рос бесконечно, после заданного количества записей или размера он сжимается:
+ * текущий журнал переименовывается в сегмент с очередным номером и сразу открывается новый,
+ * а фоновый поток записывает в файл полный снимок состояния на момент переименования и удаляет
+ * вошедшие в него сегменты. Этот снимок фоновый поток собирает сам из прежнего файла и сегментов,
+ * а не копирует текущее состояние, поэтому изменение, на котором журнал сжимается, не ждёт
+ * копирования всех задач и не задерживает другие изменения. Номер последнего вошедшего в снимок сегмента хранится в заголовке файла,
+ * поэтому при запуске воспроизводятся только более новые сегменты и текущий журнал, даже если
+ * работа была прервана во время сжатия
+ * <p>
+ * В режиме {@link PersistenceMode#DEBOUNCED} изменение только отмечает данные как несохранённые
+ * и сразу возвращает управление, а файл перезаписывается целиком фоновым потоком, когда изменения
+ * затихают на время задержки сохранения, но не позже наибольшей задержки с первого несохранённого
+ * изменения. Так серия изменений сохраняется одной записью файла, а при сбое теряются изменения
+ * не более чем за наибольшую задержку. При закрытии и завершении программы несохранённые изменения
+ * записываются в файл. Таск-менеджер в этом режиме нужно закрывать через {@link #close()}: обработчик
+ * завершения программы держит его только по слабой ссылке, поэтому незакрытый таск-менеджер всё же
+ * освобождается после записи последних изменений, но его поток сохранения и обработчик завершения
+ * остаются до сборки мусора
+ */
+public class FileBackedTaskManager extends InMemoryTaskManager implements Closeable {
+    /**
+     * Суффикс файла журнала
+     */
+    public static final String LOG_SUFFIX = ".log";
+
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    /**
+     * Количество записей журнала, после которого он сжимается, по умолчанию
+     */
+    public static final int DEFAULT_COMPACTION_RECORDS = 10_000;
+
+    /**
+     * Размер журнала в байтах, после которого он сжимается, по умолчанию
+     */
+    public static final long DEFAULT_COMPACTION_BYTES = 4L * 1024 * 1024;
+
+    /**
+     * Задержка сохранения после последнего изменения по умолчанию
+     */
+    public static final Duration DEFAULT_SAVE_DELAY = Duration.ofMillis(100);
+
+    /**
+     * Наибольшая задержка сохранения с первого несохранённого изменения по умолчанию
+     */
+    public static final Duration DEFAULT_MAX_SAVE_DELAY = Duration.ofMillis(500);
+
+    /**
+     * Способ сохранения изменений
+     */
+    public enum PersistenceMode {
+        /**
+         * Перезапись файла целиком после каждого изменения
+         */
+        SNAPSHOT,
+        /**
+         * Дописывание записи об изменении в журнал
+         */
+        LOG,
+        /**
+         * Отложенная перезапись файла целиком фоновым потоком
+         */
+        DEBOUNCED
+    }
+
+    /**
+     * Операция, записываемая в журнал
+     */
+    private enum LogOperation {
+        ADD,
+        EDIT,
+        DELETE_TASK,
+        DELETE_EPIC,
+        DELETE_SUBTASK,
+        DELETE_BY_IDS,
+        DELETE_ALL_TASKS,
+        DELETE_ALL_EPICS,
+        DELETE_ALL_SUBTASKS,
+        DELETE_SUBTASKS_IN_EPIC
+    }
 
     private final File file;
+    private final PersistenceMode mode;
+
+    /**
+     * Формат записи файла. Читается файл в том формате, в котором записан.
+     * Записи журнала от формата не зависят: задача в них - строка {@link CsvSnapshotFormat#toLine}
+     * с экранированными наименованием и описанием
+     */
+    private final SnapshotFormat format;
+    private final File logFile;
+
+    /**
+     * Политика сброса журнала на диск по умолчанию: без явного сброса, как при записи через {@link FileWriter}
+     */
+    public static final DurabilityPolicy DEFAULT_DURABILITY = DurabilityPolicy.osBuffered();
+
+    /**
+     * Журнал (только в режиме {@link PersistenceMode#LOG})
+     */
+    private volatile LogWriter log;
+    private final DurabilityPolicy durability;
+    private long syncCountOnClose;
+
+    /**
+     * Блокировка изменений: изменение и его запись в журнал выполняются без параллельных изменений
+     */
+    private final Object mutationLock;
+
+    private final int compactionRecords;
+    private final long compactionBytes;
+
+    /**
+     * Количество записей и размер текущего журнала
+     */
+    private int logRecords;
+    private long logBytes;
+
+    /**
+     * Номер последнего сегмента журнала
+     */
+    private int segment;
+
+    /**
+     * Поток сжатия журнала и выполняемое сжатие
+     */
+    private ExecutorService compactor;
+    private Future<?> compaction;
+
+    /**
+     * Ошибка последнего фонового сжатия (сегменты при этом не удаляются)
+     */
+    private volatile ManagerSaveException compactionError;
+
+    private final long saveDelayNanos;
+    private final long maxSaveDelayNanos;
+
+    /**
+     * Поток отложенного сохранения (только в режиме {@link PersistenceMode#DEBOUNCED})
+     */
+    private ScheduledExecutorService saver;
+
+    /**
+     * Остановка потока сохранения и снятие обработчика завершения программы: при закрытии
+     * или после сборки мусора незакрытого таск-менеджера
+     */
+    private Cleaner.Cleanable saverCleanup;
+
+    /**
+     * Блокировка записи файла: снимки записываются по одному в порядке захвата
+     */
+    private final Object saveLock;
+
+    /**
+     * Время первого и последнего несохранённого изменения и количество несохранённых изменений.
+     * Изменяются под блокировкой изменений
+     */
+    private volatile long dirtySinceNanos;
+    private long lastDirtyNanos;
+    private volatile int pendingMutations;
+    private boolean saveScheduled;
+
+    /**
+     * Изменения, которые записываются в файл прямо сейчас, и время первого из них
+     */
+    private volatile int savingMutations;
+    private volatile long savingSinceNanos;
+
+    private final AtomicLong saveCount;
+
+    /**
+     * Ошибка последнего отложенного сохранения
+     */
+    private volatile ManagerSaveException saveError;
+
+    /**
+     * Записи журнала, накопленные при применении набора изменений
+     */
+    private final List<String> pendingRecords;
+
+    /**
+     * Признак применения набора изменений: файл сохраняется один раз после всего набора
+     */
+    private boolean batchInProgress;
 
-    private FileBackedTaskManager() {
-        this.file = null;
+    /**
+     * Таск-менеджер без сохранения изменений для сборки снимка при сжатии журнала
+     *
+     * @param file    Файл с задачами (читается отдельно)
+     * @param logFile Журнал сжимаемого таск-менеджера
+     */
+    private FileBackedTaskManager(File file, File logFile) {
+        this.file = file;
+        this.mode = PersistenceMode.SNAPSHOT;
+        this.format = new CsvSnapshotFormat();
+        this.logFile = logFile;
+        this.pendingRecords = new ArrayList<>();
+        this.durability = DEFAULT_DURABILITY;
+        this.mutationLock = new Object();
+        this.compactionRecords = DEFAULT_COMPACTION_RECORDS;
+        this.compactionBytes = DEFAULT_COMPACTION_BYTES;
+        this.saveDelayNanos = DEFAULT_SAVE_DELAY.toNanos();
+        this.maxSaveDelayNanos = DEFAULT_MAX_SAVE_DELAY.toNanos();
+        this.saveLock = new Object();
+        this.saveCount = new AtomicLong();
     }
 
     public FileBackedTaskManager(File file) {
+        this(file, PersistenceMode.SNAPSHOT);
+    }
+
+    /**
+     * Конструктор
+     *
+     * @param file Файл с задачами (кроме режима {@link PersistenceMode#SNAPSHOT} может отсутствовать)
+     * @param mode Способ сохранения изменений
+     */
+    public FileBackedTaskManager(File file, PersistenceMode mode) {
+        this(file, mode, DEFAULT_DURABILITY);
+    }
+
+    /**
+     * Конструктор
+     *
+     * @param file       Файл с задачами (в режиме {@link PersistenceMode#LOG} может отсутствовать)
+     * @param mode       Способ сохранения изменений
+     * @param durability Политика сброса журнала на диск
+     */
+    public FileBackedTaskManager(File file, PersistenceMode mode, DurabilityPolicy durability) {
+        this(file, mode, durability, DEFAULT_COMPACTION_RECORDS, DEFAULT_COMPACTION_BYTES);
+    }
+
+    /**
+     * Конструктор
+     *
+     * @param file              Файл с задачами (в режиме {@link PersistenceMode#LOG} может отсутствовать)
+     * @param mode              Способ сохранения изменений
+     * @param compactionRecords Количество записей журнала, после которого он сжимается (положительное)
+     * @param compactionBytes   Размер журнала в байтах, после которого он сжимается (положительный)
+     */
+    public FileBackedTaskManager(File file, PersistenceMode mode, int compactionRecords, long compactionBytes) {
+        this(file, mode, DEFAULT_DURABILITY, compactionRecords, compactionBytes);
+    }
+
+    /**
+     * Конструктор. В режиме {@link PersistenceMode#LOG} задачи хранятся в потокобезопасных структурах,
+     * а изменения выполняются по одному, поэтому таск-менеджер можно изменять из нескольких потоков
+     *
+     * @param file              Файл с задачами (в режиме {@link PersistenceMode#LOG} может отсутствовать)
+     * @param mode              Способ сохранения изменений
+     * @param durability        Политика сброса журнала на диск
+     * @param compactionRecords Количество записей журнала, после которого он сжимается (положительное)
+     * @param compactionBytes   Размер журнала в байтах, после которого он сжимается (положительный)
+     */
+    public FileBackedTaskManager(File file, PersistenceMode mode, DurabilityPolicy durability,
+                                 int compactionRecords, long compactionBytes) {
+        this(file, mode, new CsvSnapshotFormat(), durability, compactionRecords, compactionBytes,
+                DEFAULT_SAVE_DELAY, DEFAULT_MAX_SAVE_DELAY);
+    }
+
+    /**
+     * Конструктор
+     *
+     * @param file   Файл с задачами (кроме режима {@link PersistenceMode#SNAPSHOT} может отсутствовать)
+     * @param mode   Способ сохранения изменений
+     * @param format Формат записи файла, например {@link BinarySnapshotFormat}
+     */
+    public FileBackedTaskManager(File file, PersistenceMode mode, SnapshotFormat format) {
+        this(file, mode, format, DEFAULT_DURABILITY, DEFAULT_COMPACTION_RECORDS, DEFAULT_COMPACTION_BYTES,
+                DEFAULT_SAVE_DELAY, DEFAULT_MAX_SAVE_DELAY);
+    }
+
+    /**
+     * Конструктор таск-менеджера с отложенным сохранением ({@link PersistenceMode#DEBOUNCED})
+     *
+     * @param file         Файл с задачами (может отсутствовать)
+     * @param saveDelay    Задержка сохранения после последнего изменения (положительная)
+     * @param maxSaveDelay Наибольшая задержка сохранения с первого несохранённого изменения (не меньше saveDelay)
+     */
+    public FileBackedTaskManager(File file, Duration saveDelay, Duration maxSaveDelay) {
+        this(file, PersistenceMode.DEBOUNCED, new CsvSnapshotFormat(), DEFAULT_DURABILITY,
+                DEFAULT_COMPACTION_RECORDS, DEFAULT_COMPACTION_BYTES, saveDelay, maxSaveDelay);
+    }
+
+    private FileBackedTaskManager(File file, PersistenceMode mode, SnapshotFormat format, DurabilityPolicy durability,
+                                  int compactionRecords, long compactionBytes,
+                                  Duration saveDelay, Duration maxSaveDelay) {
+        super(mode != PersistenceMode.SNAPSHOT,
+                mode != PersistenceMode.SNAPSHOT
+                        ? new SynchronizedHistoryManager(Managers.getDefaultHistory())
+                        : Managers.getDefaultHistory());
         if (file == null) {
             throw new ManagerReadException("Файл не инициализирован");
         }
+        if (compactionRecords <= 0 || compactionBytes <= 0) {
+            throw new IllegalArgumentException("Порог сжатия журнала должен быть положительным");
+        }
+        if (saveDelay.isNegative() || saveDelay.isZero() || maxSaveDelay.compareTo(saveDelay) < 0) {
+            throw new IllegalArgumentException("Задержка сохранения должна быть положительной и не больше наибольшей: "
+                    + saveDelay + ", " + maxSaveDelay);
+        }
 
         this.file = file;
-        restoreFromFile();
+        this.mode = mode;
+        this.format = format;
+        this.logFile = new File(file.getPath() + LOG_SUFFIX);
+        this.pendingRecords = new ArrayList<>();
+        this.durability = durability;
+        this.mutationLock = new Object();
+        this.compactionRecords = compactionRecords;
+        this.compactionBytes = compactionBytes;
+        this.saveDelayNanos = saveDelay.toNanos();
+        this.maxSaveDelayNanos = maxSaveDelay.toNanos();
+        this.saveLock = new Object();
+        this.saveCount = new AtomicLong();
+
+        if (mode == PersistenceMode.SNAPSHOT) {
+            restoreFromFile();
+            return;
+        }
+        if (mode == PersistenceMode.DEBOUNCED) {
+            if (file.exists()) {
+                restoreFromFile();
+            }
+            saver = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                final Thread thread = new Thread(runnable, "snapshot-saver");
+                thread.setDaemon(true);
+                return thread;
+            });
+            // обработчик не должен удерживать незакрытый таск-менеджер в памяти
+            final WeakReference<FileBackedTaskManager> manager = new WeakReference<>(this);
+            final Thread shutdownHook = new Thread(() -> {
+                final FileBackedTaskManager target = manager.get();
+                if (target != null) {
+                    target.flush();
+                }
+            }, "snapshot-flush");
+            Runtime.getRuntime().addShutdownHook(shutdownHook);
+            saverCleanup = CLEANER.register(this, new SaverCleanup(saver, shutdownHook));
+            return;
+        }
+
+        segment = file.exists() ? restoreFromFile() : 0;
+        for (Map.Entry<Integer, File> entry : findSegments().entrySet()) {
+            if (entry.getKey() <= segment) {
+                // сегмент уже вошёл в снимок, но не был удалён
+                entry.getValue().delete();
+            } else {
+                replayLog(entry.getValue());
+                segment = entry.getKey();
+            }
+        }
+        logRecords = replayLog(logFile);
+        logBytes = logFile.length();
+        log = new LogWriter(logFile.toPath(), durability);
     }
 
     @Override
     public void addTask(Task task) {
-        super.addTask(task);
-        save();
+        mutate(() -> super.addTask(task), () -> record(LogOperation.ADD, task));
     }
 
     @Override
     public void addEpic(Epic epic) {
-        super.addEpic(epic);
-        save();
+        mutate(() -> super.addEpic(epic), () -> record(LogOperation.ADD, epic));
     }
 
     @Override
     public void addSubtask(Subtask subtask) {
-        super.addSubtask(subtask);
-        save();
+        mutate(() -> super.addSubtask(subtask), () -> record(LogOperation.ADD, subtask));
+    }
+
+    @Override
+    public void addAll(Collection<? extends AbstractTask> items) {
+        mutateAll(() -> super.addAll(items), () -> {
+            // эпики записываются первыми: подзадачи набора могут ссылаться на них
+            final List<String> records = new ArrayList<>(items.size());
+            for (AbstractTask item : items) {
+                if (item instanceof Epic) {
+                    records.add(record(LogOperation.ADD, item));
+                }
+            }
+            for (AbstractTask item : items) {
+                if (!(item instanceof Epic)) {
+                    records.add(record(LogOperation.ADD, item));
+                }
+            }
+            return records;
+        });
     }
 
     @Override
     public void editTask(Task task) {
-        super.editTask(task);
-        save();
+        mutate(() -> super.editTask(task), () -> record(LogOperation.EDIT, task));
     }
 
     @Override
     public void editEpic(Epic epic) {
-        super.editEpic(epic);
-        save();
+        mutate(() -> super.editEpic(epic), () -> record(LogOperation.EDIT, epic));
     }
 
     @Override
     public void editSubtask(Subtask subtask) {
-        super.editSubtask(subtask);
-        save();
+        mutate(() -> super.editSubtask(subtask), () -> record(LogOperation.EDIT, subtask));
     }
 
     @Override
     public void deleteAllTasks() {
-        super.deleteAllTasks();
-        save();
+        mutate(() -> super.deleteAllTasks(), () -> record(LogOperation.DELETE_ALL_TASKS, ""));
     }
 
     @Override
     public void deleteAllEpics() {
-        super.deleteAllEpics();
-        save();
+        mutate(() -> super.deleteAllEpics(), () -> record(LogOperation.DELETE_ALL_EPICS, ""));
     }
 
     @Override
     public void deleteAllSubtasks() {
-        super.deleteAllSubtasks();
-        save();
+        mutate(() -> super.deleteAllSubtasks(), () -> record(LogOperation.DELETE_ALL_SUBTASKS, ""));
     }
 
     @Override
     public void deleteAllSubtasksInEpic(int epicId) {
-        super.deleteAllSubtasksInEpic(epicId);
-        save();
+        mutate(() -> super.deleteAllSubtasksInEpic(epicId), () -> record(LogOperation.DELETE_SUBTASKS_IN_EPIC, String.valueOf(epicId)));
     }
 
     @Override
     public void deleteTaskById(int id) {
-        super.deleteTaskById(id);
-        save();
+        mutate(() -> super.deleteTaskById(id), () -> record(LogOperation.DELETE_TASK, String.valueOf(id)));
     }
 
     @Override
     public void deleteEpicById(int id) {
-        super.deleteEpicById(id);
-        save();
+        mutate(() -> super.deleteEpicById(id), () -> record(LogOperation.DELETE_EPIC, String.valueOf(id)));
     }
 
     @Override
     public void deleteSubtaskById(int id) {
-        super.deleteSubtaskById(id);
-        save();
+        mutate(() -> super.deleteSubtaskById(id), () -> record(LogOperation.DELETE_SUBTASK, String.valueOf(id)));
+    }
+
+    @Override
+    public void deleteByIds(Collection<Integer> ids) {
+        // пустой набор ничего не меняет, поэтому в журнал не записывается
+        mutateAll(() -> super.deleteByIds(ids), () -> {
+            if (ids.isEmpty()) {
+                return List.of();
+            }
+            final StringJoiner joiner = new StringJoiner(",");
+            for (Integer id : ids) {
+                joiner.add(id.toString());
+            }
+            return List.of(record(LogOperation.DELETE_BY_IDS, joiner.toString()));
+        });
+    }
+
+    /**
+     * В режиме {@link PersistenceMode#LOG} записи операций набора копятся и дописываются в журнал
+     * одной операцией записи только после успешного применения: операции отменённого набора в журнал не попадают.
+     * Читатели в этом режиме блокировок не берут и до отмены видят операции набора в памяти
+     */
+    @Override
+    public void apply(TaskBatch batch) {
+        final long sequence;
+        final LogWriter writer;
+        synchronized (mutationLock) {
+            batchInProgress = true;
+            try {
+                super.apply(batch);
+            } catch (RuntimeException e) {
+                pendingRecords.clear();
+                throw e;
+            } finally {
+                batchInProgress = false;
+            }
+
+            if (mode == PersistenceMode.SNAPSHOT) {
+                save();
+                return;
+            }
+            if (mode == PersistenceMode.DEBOUNCED) {
+                markDirty();
+                return;
+            }
+            final List<String> records = List.copyOf(pendingRecords);
+            pendingRecords.clear();
+            sequence = append(records);
+            writer = log;
+        }
+        writer.awaitDurable(sequence);
+    }
+
+    /**
+     * Получение файла журнала
+     *
+     * @return Файл журнала
+     */
+    public File getLogFile() {
+        return logFile;
+    }
+
+    /**
+     * Получение способа сохранения изменений
+     *
+     * @return Способ сохранения
+     */
+    public PersistenceMode getPersistenceMode() {
+        return mode;
+    }
+
+    /**
+     * Сжатие журнала в текущем потоке: дожидается фонового сжатия, если оно выполняется,
+     * и записывает снимок текущего состояния. В режиме {@link PersistenceMode#SNAPSHOT} ничего не делает
+     */
+    public void compact() {
+        synchronized (mutationLock) {
+            if (log == null) {
+                return;
+            }
+
+            awaitCompaction();
+            rotate().run();
+            throwCompactionError();
+        }
+    }
+
+    /**
+     * Получение количества сбросов журнала на диск
+     *
+     * @return Количество сбросов (0 в режиме {@link PersistenceMode#SNAPSHOT})
+     */
+    public long getSyncCount() {
+        return log != null ? log.getSyncCount() : syncCountOnClose;
+    }
+
+    /**
+     * Получение политики сброса журнала на диск
+     *
+     * @return Политика сброса
+     */
+    public DurabilityPolicy getDurabilityPolicy() {
+        return durability;
+    }
+
+    /**
+     * Закрытие журнала с ожиданием фонового сжатия. В режиме {@link PersistenceMode#SNAPSHOT} ничего не делает
+     */
+    @Override
+    public void close() {
+        if (mode == PersistenceMode.DEBOUNCED) {
+            closeSaver();
+            return;
+        }
+
+        synchronized (mutationLock) {
+            if (log == null) {
+                return;
+            }
+
+            try {
+                awaitCompaction();
+                if (compactor != null) {
+                    compactor.shutdown();
+                }
+                log.close();
+            } finally {
+                syncCountOnClose = log.getSyncCount();
+                log = null;
+            }
+            throwCompactionError();
+        }
     }
 
     private void addAbstractTask(AbstractTask abstractTask) {
@@ -118,75 +625,500 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
         }
     }
 
-    private void restoreFromFile() {
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String line;
-            reader.readLine(); // пропускаем шапку
-            while ((line = reader.readLine()) != null) {
-                AbstractTask task = fromString(line);
-                if (task == null) {
-                    throw new ManagerReadException("Не удалось преобразовать строку в задачу: " + line);
-                }
-
+    /**
+     * Чтение задач из файла в текстовом или двоичном формате
+     *
+     * @return Номер последнего вошедшего в файл сегмента журнала (0, если его нет)
+     */
+    private int restoreFromFile() {
+        final SnapshotFormat reader = BinarySnapshotFormat.matches(file) ? new BinarySnapshotFormat() : new CsvSnapshotFormat();
+        try (InputStream in = new FileInputStream(file)) {
+            final TaskSnapshot snapshot = reader.read(in);
+            for (Task task : snapshot.getTasks()) {
                 addAbstractTask(task);
             }
+            for (Epic epic : snapshot.getEpics()) {
+                addAbstractTask(epic);
+            }
+            for (Subtask subtask : snapshot.getSubtasks()) {
+                addAbstractTask(subtask);
+            }
+            return snapshot.getLogSegment();
         } catch (IOException e) {
             throw new ManagerReadException("Ошибка при чтении данных из файла: " + e.getMessage());
         }
     }
 
-    private void save() {
-        try (FileWriter writer = new FileWriter(file)) {
-            writer.write("id,type,name,status,description,epic,start_date,duration\n");
+    /**
+     * Изменение с сохранением: перезапись файла или дописывание записей в журнал.
+     * В режиме {@link PersistenceMode#LOG} изменения выполняются и записываются в журнал по одному,
+     * а сброса журнала на диск поток ждёт уже после этого, поэтому параллельные изменения
+     * попадают в один общий сброс
+     *
+     * @param change Изменение таск-менеджера
+     * @param record Запись журнала, получаемая после изменения
+     */
+    private void mutate(Runnable change, Supplier<String> record) {
+        mutateAll(change, () -> List.of(record.get()));
+    }
 
-            for (Task task : getTasks()) {
-                writer.write(task.toString() + "\n");
+    private void mutateAll(Runnable change, Supplier<List<String>> records) {
+        final long sequence;
+        final LogWriter writer;
+        synchronized (mutationLock) {
+            change.run();
+            if (mode == PersistenceMode.SNAPSHOT) {
+                save();
+                return;
             }
-            for (Epic epic : getEpics()) {
-                writer.write(epic.toString() + "\n");
+            if (mode == PersistenceMode.DEBOUNCED) {
+                markDirty();
+                return;
             }
-            for (Subtask subtask : getSubtasks()) {
-                writer.write(subtask.toString() + "\n");
+            if (batchInProgress) {
+                pendingRecords.addAll(records.get());
+                return;
             }
-        } catch (IOException e) {
-            throw new ManagerSaveException("Ошибка при записи данных в файл: " + e.getMessage());
+            sequence = append(records.get());
+            writer = log;
         }
+        writer.awaitDurable(sequence);
     }
 
-    private AbstractTask fromString(String str) {
-        final String[] words = str.split(",", -1);
+    /**
+     * Дописывание записей одного изменения в журнал одной операцией записи.
+     * Вызывается под блокировкой изменений
+     *
+     * @return Номер записи в журнале для ожидания сброса (0, если записей нет)
+     */
+    private long append(List<String> records) {
+        if (records.isEmpty()) {
+            return 0;
+        }
+        if (log == null) {
+            throw new ManagerSaveException("Журнал закрыт");
+        }
+
+        final StringBuilder builder = new StringBuilder();
+        for (String record : records) {
+            builder.append(record).append('\n');
+        }
+        final byte[] bytes = builder.toString().getBytes(StandardCharsets.UTF_8);
+        final long sequence = log.append(bytes);
+
+        logRecords += records.size();
+        logBytes += bytes.length;
+        if ((logRecords >= compactionRecords || logBytes >= compactionBytes)
+                && (compaction == null || compaction.isDone())) {
+            if (compactor == null) {
+                compactor = Executors.newSingleThreadExecutor(runnable -> {
+                    final Thread thread = new Thread(runnable, "log-compactor");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+            compaction = compactor.submit(rotate());
+        }
+        return sequence;
+    }
+
+    /**
+     * Переименование текущего журнала в очередной сегмент и открытие нового журнала.
+     * Выполняется под блокировкой изменений и не зависит от количества задач
+     *
+     * @return Запись снимка на момент переименования с удалением вошедших в него сегментов
+     */
+    private Runnable rotate() {
+        final int rotated = segment + 1;
+        log.rotate(segmentFile(rotated).toPath());
+        segment = rotated;
+        logRecords = 0;
+        logBytes = 0;
+
+        return () -> {
+            try {
+                // сегменты удаляются только после того, как снимок окажется на диске
+                writeSnapshot(rebuild(rotated), durability.getMode() != DurabilityPolicy.Mode.OS_BUFFERED);
+                compactionError = null;
+            } catch (IOException | ManagerReadException e) {
+                compactionError = new ManagerSaveException("Ошибка при сжатии журнала: " + e.getMessage());
+                return;
+            }
+
+            for (Map.Entry<Integer, File> entry : findSegments().entrySet()) {
+                if (entry.getKey() <= rotated) {
+                    entry.getValue().delete();
+                }
+            }
+        };
+    }
+
+    /**
+     * Сборка снимка на момент переименования журнала в сегмент lastSegment: прежний файл
+     * и сегменты после него воспроизводятся в отдельном таск-менеджере. Файл и сегменты
+     * до lastSegment изменяет только поток сжатия, поэтому блокировка изменений не нужна
+     */
+    private TaskSnapshot rebuild(int lastSegment) {
+        final FileBackedTaskManager replica = new FileBackedTaskManager(file, logFile);
+        final int covered = file.exists() ? replica.restoreFromFile() : 0;
+        for (Map.Entry<Integer, File> entry : findSegments().entrySet()) {
+            if (entry.getKey() > covered && entry.getKey() <= lastSegment) {
+                replica.replayLog(entry.getValue());
+            }
+        }
+        return new TaskSnapshot(lastSegment, replica.getTasks(), replica.getEpics(), replica.getSubtasks());
+    }
+
+    /**
+     * Захват текущего состояния для записи снимка. Вызывается под блокировкой изменений
+     */
+    private TaskSnapshot capture(int logSegment) {
+        // эпики изменяются на месте, поэтому копируются сразу,
+        // а задачи и подзадачи при изменении заменяются, и достаточно неизменяемых списков
+        final List<Epic> epics = new ArrayList<>(getEpics().size());
+        for (Epic epic : getEpics()) {
+            epics.add(new Epic(epic));
+        }
+        return new TaskSnapshot(logSegment, getTasks(), epics, getSubtasks());
+    }
+
+    /**
+     * Запись снимка во временный файл с последующей атомарной заменой файла
+     *
+     * @param force true, чтобы сбросить снимок на диск перед заменой
+     */
+    private void writeSnapshot(TaskSnapshot snapshot, boolean force) throws IOException {
+        final File temp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(temp)) {
+            format.write(out, snapshot);
+            if (force) {
+                out.getChannel().force(true);
+            }
+        }
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Запоминание несохранённого изменения и планирование отложенного сохранения.
+     * Вызывается под блокировкой изменений
+     */
+    private void markDirty() {
+        final long now = System.nanoTime();
+        if (pendingMutations == 0) {
+            dirtySinceNanos = now;
+        }
+        lastDirtyNanos = now;
+        pendingMutations++;
+        scheduleSave(saveDelayNanos);
+    }
+
+    private void scheduleSave(long delayNanos) {
+        if (!saveScheduled && saver != null) {
+            saveScheduled = true;
+            saver.schedule(this::saveInBackground, delayNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Отложенное сохранение: если изменения ещё не затихли и наибольшая задержка не истекла,
+     * сохранение переносится на ближайший из этих моментов
+     */
+    private void saveInBackground() {
+        synchronized (mutationLock) {
+            saveScheduled = false;
+            if (pendingMutations == 0 || saver == null) {
+                return;
+            }
+
+            final long deadline = Math.min(lastDirtyNanos + saveDelayNanos, dirtySinceNanos + maxSaveDelayNanos);
+            final long remaining = deadline - System.nanoTime();
+            if (remaining > 0) {
+                scheduleSave(remaining);
+                return;
+            }
+        }
 
         try {
-            final TaskType taskType = TaskType.valueOf(words[1]);
-            switch (taskType) {
-                case TASK -> {
-                    Task task = new Task(Integer.parseInt(words[0]), words[2], words[4]);
-                    task.setStatus(Status.valueOf(words[3]));
-                    task.setStartTime(!words[6].isEmpty() ? LocalDateTime.parse(words[6], DateTimeFormatter.ISO_LOCAL_DATE_TIME) : null);
-                    task.setDuration(Duration.ofSeconds(Integer.parseInt(words[7])));
-                    return task;
+            flush();
+        } catch (ManagerSaveException e) {
+            // изменения остались несохранёнными, ошибка передаётся при закрытии
+            saveError = e;
+        }
+    }
+
+    /**
+     * Запись несохранённых изменений в файл в текущем потоке
+     */
+    public void flush() {
+        if (mode != PersistenceMode.DEBOUNCED) {
+            return;
+        }
+
+        synchronized (saveLock) {
+            final TaskSnapshot snapshot;
+            synchronized (mutationLock) {
+                if (pendingMutations == 0) {
+                    return;
                 }
-                case EPIC -> {
-                    Epic epic = new Epic(Integer.parseInt(words[0]), words[2], words[4]);
-                    epic.setStatus(Status.valueOf(words[3]));
-                    epic.setStartTime(!words[6].isEmpty() ? LocalDateTime.parse(words[6], DateTimeFormatter.ISO_LOCAL_DATE_TIME) : null);
-                    epic.setDuration(Duration.ofSeconds(Integer.parseInt(words[7])));
-                    epic.setEndTime(!words[6].isEmpty() ? epic.getStartTime().plus(epic.getDuration()) : null);
-                    return epic;
+                snapshot = capture(0);
+                savingSinceNanos = dirtySinceNanos;
+                savingMutations = pendingMutations;
+                pendingMutations = 0;
+            }
+
+            try {
+                writeSnapshot(snapshot, durability.getMode() != DurabilityPolicy.Mode.OS_BUFFERED);
+                saveCount.incrementAndGet();
+                saveError = null;
+            } catch (IOException e) {
+                synchronized (mutationLock) {
+                    // изменения снова несохранённые с момента первого из них, сохранение повторится
+                    dirtySinceNanos = savingSinceNanos;
+                    pendingMutations += savingMutations;
+                    scheduleSave(saveDelayNanos);
                 }
-                case SUBTASK -> {
-                    Subtask subtask = new Subtask(Integer.parseInt(words[0]), words[2], words[4], Integer.parseInt(words[5]));
-                    subtask.setStatus(Status.valueOf(words[3]));
-                    subtask.setStartTime(!words[6].isEmpty() ? LocalDateTime.parse(words[6], DateTimeFormatter.ISO_LOCAL_DATE_TIME) : null);
-                    subtask.setDuration(Duration.ofSeconds(Integer.parseInt(words[7])));
-                    return subtask;
+                throw new ManagerSaveException("Ошибка при записи данных в файл: " + e.getMessage());
+            } finally {
+                savingMutations = 0;
+            }
+        }
+    }
+
+    /**
+     * Получение времени, прошедшего с первого несохранённого изменения
+     *
+     * @return Время или {@link Duration#ZERO}, если несохранённых изменений нет
+     */
+    public Duration getDirtyAge() {
+        if (savingMutations > 0) {
+            return Duration.ofNanos(System.nanoTime() - savingSinceNanos);
+        }
+        if (pendingMutations > 0) {
+            return Duration.ofNanos(System.nanoTime() - dirtySinceNanos);
+        }
+        return Duration.ZERO;
+    }
+
+    /**
+     * Получение количества несохранённых изменений, включая записываемые в файл прямо сейчас
+     *
+     * @return Количество изменений
+     */
+    public int getPendingMutations() {
+        return pendingMutations + savingMutations;
+    }
+
+    /**
+     * Получение количества перезаписей файла
+     *
+     * @return Количество перезаписей
+     */
+    public long getSaveCount() {
+        return saveCount.get();
+    }
+
+    private void closeSaver() {
+        final ScheduledExecutorService executor;
+        synchronized (mutationLock) {
+            if (saver == null) {
+                return;
+            }
+            executor = saver;
+            saver = null;
+        }
+
+        // запланированные сохранения после этого ничего не делают
+        saverCleanup.clean();
+        flush();
+
+        final ManagerSaveException error = saveError;
+        if (error != null && pendingMutations > 0) {
+            throw error;
+        }
+    }
+
+    private void awaitCompaction() {
+        if (compaction == null) {
+            return;
+        }
+
+        try {
+            compaction.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ManagerSaveException("Ожидание сжатия журнала прервано");
+        } catch (ExecutionException e) {
+            throw new ManagerSaveException("Ошибка при сжатии журнала: " + e.getCause().getMessage());
+        }
+    }
+
+    private void throwCompactionError() {
+        final ManagerSaveException error = compactionError;
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    private File segmentFile(int number) {
+        return new File(logFile.getPath() + "." + number);
+    }
+
+    /**
+     * Проверка, велась ли запись файла в режиме {@link PersistenceMode#LOG}: есть ли рядом с ним
+     * журнал или сегменты журнала. Сам файл при этом может отсутствовать
+     *
+     * @param file Файл с задачами
+     * @return true, если есть журнал или хотя бы один сегмент
+     */
+    public static boolean hasLog(File file) {
+        final File logFile = new File(file.getPath() + LOG_SUFFIX);
+        return logFile.exists() || !findSegments(logFile).isEmpty();
+    }
+
+    /**
+     * Поиск сегментов журнала, упорядоченных по номеру
+     */
+    private Map<Integer, File> findSegments() {
+        return findSegments(logFile);
+    }
+
+    private static Map<Integer, File> findSegments(File logFile) {
+        final Map<Integer, File> segments = new TreeMap<>();
+        final File[] files = logFile.getAbsoluteFile().getParentFile().listFiles();
+        if (files == null) {
+            return segments;
+        }
+
+        final String prefix = logFile.getName() + ".";
+        for (File candidate : files) {
+            final String name = candidate.getName();
+            if (name.startsWith(prefix)) {
+                try {
+                    segments.put(Integer.parseInt(name.substring(prefix.length())), candidate);
+                } catch (NumberFormatException ignored) {
+                    // не сегмент журнала
                 }
             }
+        }
+        return segments;
+    }
+
+    private static String record(LogOperation operation, String payload) {
+        return operation.name() + "," + payload;
+    }
+
+    /**
+     * Запись журнала с задачей: наименование и описание экранируются, как в {@link CsvSnapshotFormat},
+     * поэтому запятые и переводы строк в них не ломают журнал
+     */
+    private static String record(LogOperation operation, AbstractTask task) {
+        return record(operation, CsvSnapshotFormat.toLine(task));
+    }
+
+    /**
+     * Воспроизведение журнала: операции применяются к таск-менеджеру в порядке записи
+     *
+     * @return Количество воспроизведённых записей
+     */
+    private int replayLog(File source) {
+        if (!source.exists()) {
+            return 0;
+        }
+
+        int records = 0;
+        try (BufferedReader reader = new BufferedReader(new FileReader(source, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty()) {
+                    replay(line);
+                    records++;
+                }
+            }
+            return records;
+        } catch (IOException e) {
+            throw new ManagerReadException("Ошибка при чтении журнала: " + e.getMessage());
+        }
+    }
+
+    private void replay(String line) {
+        final String[] parts = line.split(",", 2);
+        final String payload = parts.length > 1 ? parts[1] : "";
+
+        try {
+            switch (LogOperation.valueOf(parts[0])) {
+                case ADD -> addAbstractTask(parseTask(payload));
+                case EDIT -> {
+                    final AbstractTask task = parseTask(payload);
+                    if (task instanceof Epic epic) {
+                        super.editEpic(epic);
+                    } else if (task instanceof Subtask subtask) {
+                        super.editSubtask(subtask);
+                    } else {
+                        super.editTask((Task) task);
+                    }
+                }
+                case DELETE_TASK -> super.deleteTaskById(Integer.parseInt(payload));
+                case DELETE_EPIC -> super.deleteEpicById(Integer.parseInt(payload));
+                case DELETE_SUBTASK -> super.deleteSubtaskById(Integer.parseInt(payload));
+                case DELETE_BY_IDS -> {
+                    final List<Integer> ids = new ArrayList<>();
+                    // пустой набор могли записать версии, ещё не пропускавшие его
+                    if (!payload.isEmpty()) {
+                        for (String id : payload.split(",")) {
+                            ids.add(Integer.parseInt(id));
+                        }
+                    }
+                    super.deleteByIds(ids);
+                }
+                case DELETE_ALL_TASKS -> super.deleteAllTasks();
+                case DELETE_ALL_EPICS -> super.deleteAllEpics();
+                case DELETE_ALL_SUBTASKS -> super.deleteAllSubtasks();
+                case DELETE_SUBTASKS_IN_EPIC -> super.deleteAllSubtasksInEpic(Integer.parseInt(payload));
+            }
         } catch (IllegalArgumentException e) {
-            throw new ManagerReadException(e.getMessage());
+            throw new ManagerReadException("Не удалось разобрать запись журнала: " + line);
         }
+    }
 
-        return null;
+    private AbstractTask parseTask(String str) {
+        return CsvSnapshotFormat.fromString(str);
     }
 
+    private void save() {
+        if (batchInProgress) {
+            return;
+        }
+
+        // изменения выполняются под блокировкой, поэтому эпики можно не копировать
+        try (OutputStream out = new FileOutputStream(file)) {
+            format.write(out, new TaskSnapshot(0, getTasks(), getEpics(), getSubtasks()));
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при записи данных в файл: " + e.getMessage());
+        }
+        saveCount.incrementAndGet();
+    }
+
+    /**
+     * Остановка потока сохранения и снятие обработчика завершения программы.
+     * Не ссылается на таск-менеджер, иначе он не будет собран сборщиком мусора
+     */
+    private static class SaverCleanup implements Runnable {
+        private final ExecutorService saver;
+        private final Thread shutdownHook;
+
+        private SaverCleanup(ExecutorService saver, Thread shutdownHook) {
+            this.saver = saver;
+            this.shutdownHook = shutdownHook;
+        }
+
+        @Override
+        public void run() {
+            saver.shutdown();
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            } catch (IllegalStateException ignored) {
+                // программа уже завершается: сохранение выполнит сам обработчик
+            }
+        }
+    }
 }
@@ -26,4 +26,12 @@ public interface HistoryManager {
      * @return Список просмотренных задач
      */
     List<AbstractTask> getHistory();
+
+    /**
+     * Получение последних просмотренных задач
+     *
+     * @param limit Максимальное количество задач (не отрицательное)
+     * @return Список не более чем из limit последних просмотренных задач в порядке просмотра
+     */
+    List<AbstractTask> getHistory(int limit);
 }
@@ -0,0 +1,188 @@
+package com.taskmanager.service.managers;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Истории просмотра отдельных клиентов
+ * <p>
+ * У каждого клиента своя история со своей блокировкой, поэтому просмотры разных клиентов
+ * не конкурируют между собой. Сессия, к которой не обращались дольше времени простоя, удаляется.
+ * Количество сессий ограничено: если при создании новой сессии лимит исчерпан, сначала удаляются
+ * простаивающие сессии, а если их нет - сессия, к которой обращались раньше всех
+ */
+public class HistorySessions {
+    /**
+     * Время простоя, после которого сессия удаляется, по умолчанию
+     */
+    public static final Duration DEFAULT_IDLE_TIMEOUT = Duration.ofMinutes(30);
+
+    /**
+     * Максимальное количество сессий по умолчанию
+     */
+    public static final int DEFAULT_MAX_SESSIONS = 1_000;
+
+    private final Map<String, Session> sessions;
+    private final long idleTimeoutMillis;
+    private final int maxSessions;
+    private final int historyCapacity;
+    private final Clock clock;
+
+    /**
+     * Блокировка создания сессий (для соблюдения лимита)
+     */
+    private final Object creationLock;
+
+    /**
+     * Время последнего удаления простаивающих сессий
+     */
+    private volatile long lastEvictionMillis;
+
+    /**
+     * Конструктор с параметрами по умолчанию
+     */
+    public HistorySessions() {
+        this(DEFAULT_IDLE_TIMEOUT, DEFAULT_MAX_SESSIONS, Managers.DEFAULT_HISTORY_CAPACITY, Clock.systemUTC());
+    }
+
+    /**
+     * Конструктор
+     *
+     * @param idleTimeout     Время простоя, после которого сессия удаляется
+     * @param maxSessions     Максимальное количество сессий (положительное)
+     * @param historyCapacity Ёмкость истории одной сессии (положительная)
+     * @param clock           Часы для отсчёта времени простоя
+     */
+    public HistorySessions(Duration idleTimeout, int maxSessions, int historyCapacity, Clock clock) {
+        if (idleTimeout.isNegative() || idleTimeout.isZero()) {
+            throw new IllegalArgumentException("Время простоя должно быть положительным: " + idleTimeout);
+        }
+        if (maxSessions <= 0) {
+            throw new IllegalArgumentException("Количество сессий должно быть положительным: " + maxSessions);
+        }
+        if (historyCapacity <= 0) {
+            throw new IllegalArgumentException("Ёмкость истории должна быть положительной: " + historyCapacity);
+        }
+        this.sessions = new ConcurrentHashMap<>();
+        this.idleTimeoutMillis = idleTimeout.toMillis();
+        this.maxSessions = maxSessions;
+        this.historyCapacity = historyCapacity;
+        this.clock = clock;
+        this.creationLock = new Object();
+        this.lastEvictionMillis = clock.millis();
+    }
+
+    /**
+     * Получение истории клиента. Если сессии нет или она простаивала слишком долго, создаётся новая.
+     * Не чаще одного раза за время простоя при обращении удаляются простаивающие сессии других клиентов,
+     * поэтому они не копятся, даже если новые клиенты не приходят
+     *
+     * @param clientId Идентификатор клиента
+     * @return История просмотра клиента
+     */
+    public HistoryManager getHistory(String clientId) {
+        final long now = clock.millis();
+        Session session = sessions.get(clientId);
+
+        if (session == null || session.isIdle(now, idleTimeoutMillis)) {
+            synchronized (creationLock) {
+                session = sessions.get(clientId);
+                if (session == null || session.isIdle(now, idleTimeoutMillis)) {
+                    evictIdle(now);
+                    if (sessions.size() >= maxSessions) {
+                        evictLeastRecentlyUsed();
+                    }
+                    session = new Session(historyCapacity, now);
+                    sessions.put(clientId, session);
+                }
+            }
+        } else if (now - lastEvictionMillis > idleTimeoutMillis) {
+            synchronized (creationLock) {
+                if (now - lastEvictionMillis > idleTimeoutMillis) {
+                    evictIdle(now);
+                }
+            }
+        }
+
+        session.lastAccessMillis = now;
+        return session.history;
+    }
+
+    /**
+     * Удаление задачи из историй всех клиентов
+     *
+     * @param id Идентификатор задачи
+     */
+    public void remove(int id) {
+        for (Session session : sessions.values()) {
+            session.history.remove(id);
+        }
+    }
+
+    /**
+     * Удаление простаивающих сессий
+     */
+    public void evictIdle() {
+        synchronized (creationLock) {
+            evictIdle(clock.millis());
+        }
+    }
+
+    /**
+     * Проверка наличия активной сессии клиента
+     *
+     * @param clientId Идентификатор клиента
+     * @return true, если сессия есть и не простаивает
+     */
+    public boolean contains(String clientId) {
+        final Session session = sessions.get(clientId);
+        return session != null && !session.isIdle(clock.millis(), idleTimeoutMillis);
+    }
+
+    /**
+     * Получение количества сессий, включая ещё не удалённые простаивающие
+     *
+     * @return Количество сессий
+     */
+    public int size() {
+        return sessions.size();
+    }
+
+    private void evictIdle(long now) {
+        sessions.values().removeIf(session -> session.isIdle(now, idleTimeoutMillis));
+        lastEvictionMillis = now;
+    }
+
+    private void evictLeastRecentlyUsed() {
+        String oldestClientId = null;
+        long oldestAccess = Long.MAX_VALUE;
+        for (Map.Entry<String, Session> entry : sessions.entrySet()) {
+            if (entry.getValue().lastAccessMillis < oldestAccess) {
+                oldestAccess = entry.getValue().lastAccessMillis;
+                oldestClientId = entry.getKey();
+            }
+        }
+        if (oldestClientId != null) {
+            sessions.remove(oldestClientId);
+        }
+    }
+
+    /**
+     * Сессия клиента
+     */
+    private static class Session {
+        private final HistoryManager history;
+        private volatile long lastAccessMillis;
+
+        private Session(int historyCapacity, long now) {
+            this.history = new SynchronizedHistoryManager(new InMemoryHistoryManager(historyCapacity));
+            this.lastAccessMillis = now;
+        }
+
+        private boolean isIdle(long now, long idleTimeoutMillis) {
+            return now - lastAccessMillis > idleTimeoutMillis;
+        }
+    }
+}
@@ -5,13 +5,37 @@ import com.taskmanager.model.TaskNode;
 
 import java.util.*;
 
+/**
+ * Менеджер истории просмотра с ограниченной ёмкостью
+ * <p>
+ * Просмотренные задачи хранятся в двусвязном списке в порядке просмотра, узлы ищутся по идентификатору
+ * через хэш-таблицу. При переполнении удаляется задача, просмотренная раньше всех (голова списка),
+ * поэтому добавление, удаление и вытеснение выполняются за O(1)
+ */
 public class InMemoryHistoryManager implements HistoryManager {
     private final Map<Integer, TaskNode> idTaskMap;
+    private final int capacity;
     private TaskNode head;
     private TaskNode tail;
 
+    /**
+     * Конструктор истории без ограничения ёмкости
+     */
     public InMemoryHistoryManager() {
+        this(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Конструктор
+     *
+     * @param capacity Максимальное количество задач в истории (положительное)
+     */
+    public InMemoryHistoryManager(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Ёмкость истории должна быть положительной: " + capacity);
+        }
         this.idTaskMap = new HashMap<>();
+        this.capacity = capacity;
     }
 
     @Override
@@ -19,6 +43,10 @@ public class InMemoryHistoryManager implements HistoryManager {
         int id = abstractTask.getId();
         remove(id);
 
+        if (idTaskMap.size() == capacity) {
+            remove(head.getTask().getId());
+        }
+
         linkLast(abstractTask);
         idTaskMap.put(id, tail);
     }
@@ -36,6 +64,32 @@ public class InMemoryHistoryManager implements HistoryManager {
         return getTasks();
     }
 
+    @Override
+    public List<AbstractTask> getHistory(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Количество задач не может быть отрицательным: " + limit);
+        }
+
+        final LinkedList<AbstractTask> tasks = new LinkedList<>();
+        TaskNode current = tail;
+
+        while (current != null && tasks.size() < limit) {
+            tasks.addFirst(current.getTask());
+            current = current.getPrev();
+        }
+
+        return tasks;
+    }
+
+    /**
+     * Получение ёмкости истории
+     *
+     * @return Максимальное количество задач в истории
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
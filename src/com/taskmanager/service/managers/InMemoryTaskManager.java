@@ -2,13 +2,22 @@ package com.taskmanager.service.managers;
 
 import com.taskmanager.model.*;
 import com.taskmanager.service.exceptions.AlreadyExistsException;
+import com.taskmanager.service.exceptions.InconsistentAggregateException;
 import com.taskmanager.service.exceptions.NotFoundException;
 import com.taskmanager.service.exceptions.TimeOverlapException;
 import com.taskmanager.service.exceptions.WithouIdException;
+import com.taskmanager.service.indexes.ContentIndex;
+import com.taskmanager.service.indexes.EpicAggregate;
+import com.taskmanager.service.indexes.SnapshotCache;
+import com.taskmanager.service.indexes.TimeIntervalIndex;
+import com.taskmanager.util.ConcurrentIntObjectMap;
+import com.taskmanager.util.IntObjectHashMap;
+import com.taskmanager.util.IntObjectMap;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Класс таск-менеджера, реализующий хранение задач в текущей памяти
@@ -17,17 +26,38 @@ public class InMemoryTaskManager implements TaskManager {
     /**
      * Список задач
      */
-    private final Map<Integer, Task> tasks;
+    private final IntObjectMap<Task> tasks;
     /**
      * Список эпиков
      */
-    private final Map<Integer, Epic> epics;
+    private final IntObjectMap<Epic> epics;
     /**
      * Список подзадач
      */
-    private final Map<Integer, Subtask> subtasks;
+    private final IntObjectMap<Subtask> subtasks;
 
-    private final TreeSet<AbstractTask> prioritizedTasks;
+    /**
+     * Задачи и подзадачи, отсортированные по времени начала, с поиском по идентификатору
+     */
+    private final TimeIntervalIndex prioritizedTasks;
+    /**
+     * Агрегированные данные подзадач по идентификатору эпика
+     */
+    private final IntObjectMap<EpicAggregate> epicAggregates;
+    /**
+     * Индексы содержимого задач, эпиков и подзадач для поиска дубликатов
+     */
+    private final ContentIndex taskContents;
+    private final ContentIndex epicContents;
+    private final ContentIndex subtaskContents;
+    /**
+     * Неизменяемые снимки списков, пересобираемые после изменения данных
+     */
+    private final SnapshotCache<Task> taskSnapshot;
+    private final SnapshotCache<Epic> epicSnapshot;
+    private final SnapshotCache<Subtask> subtaskSnapshot;
+    private final SnapshotCache<AbstractTask> allEntitiesSnapshot;
+    private final SnapshotCache<AbstractTask> prioritizedSnapshot;
     /**
      * Менеджер для работы с историей просмотра
      */
@@ -36,23 +66,57 @@ public class InMemoryTaskManager implements TaskManager {
     /**
      * Текущий свободный идентификатор
      */
-    private int currentId;
+    private final AtomicInteger currentId;
+
+    /**
+     * Режим сверки агрегированных данных эпиков с полным пересчётом
+     */
+    private boolean aggregateCheckEnabled;
 
     /**
      * Конструктор для создания нового таск-менеджера
      */
     public InMemoryTaskManager() {
-        this.tasks = new HashMap<>();
-        this.epics = new HashMap<>();
-        this.subtasks = new HashMap<>();
-        this.prioritizedTasks = new TreeSet<>(Comparator.comparing(AbstractTask::getStartTime));
-        this.historyManager = Managers.getDefaultHistory();
-        this.currentId = 1;
+        this(false, Managers.getDefaultHistory());
+    }
+
+    /**
+     * Конструктор для создания нового таск-менеджера с заданным менеджером истории
+     *
+     * @param historyManager Менеджер для работы с историей просмотра
+     */
+    public InMemoryTaskManager(HistoryManager historyManager) {
+        this(false, historyManager);
+    }
+
+    /**
+     * Конструктор для наследников, которым требуется потокобезопасное хранение задач
+     *
+     * @param threadSafe     true, чтобы хранить задачи в структурах, допускающих чтение без блокировки
+     *                       параллельно с изменениями
+     * @param historyManager Менеджер для работы с историей просмотра
+     */
+    protected InMemoryTaskManager(boolean threadSafe, HistoryManager historyManager) {
+        this.tasks = threadSafe ? new ConcurrentIntObjectMap<>() : new IntObjectHashMap<>();
+        this.epics = threadSafe ? new ConcurrentIntObjectMap<>() : new IntObjectHashMap<>();
+        this.subtasks = threadSafe ? new ConcurrentIntObjectMap<>() : new IntObjectHashMap<>();
+        this.prioritizedTasks = new TimeIntervalIndex(threadSafe);
+        this.epicAggregates = threadSafe ? new ConcurrentIntObjectMap<>() : new IntObjectHashMap<>();
+        this.taskContents = new ContentIndex(threadSafe);
+        this.epicContents = new ContentIndex(threadSafe);
+        this.subtaskContents = new ContentIndex(threadSafe);
+        this.taskSnapshot = new SnapshotCache<>(() -> List.copyOf(tasks.values()));
+        this.epicSnapshot = new SnapshotCache<>(() -> List.copyOf(epics.values()));
+        this.subtaskSnapshot = new SnapshotCache<>(() -> List.copyOf(subtasks.values()));
+        this.allEntitiesSnapshot = new SnapshotCache<>(this::collectAllEntities);
+        this.prioritizedSnapshot = new SnapshotCache<>(prioritizedTasks::getTasks);
+        this.historyManager = historyManager;
+        this.currentId = new AtomicInteger(1);
     }
 
     @Override
     public void addTask(Task task) {
-        if (tasks.containsValue(task)) {
+        if (task.getId() != null && tasks.containsKey(task.getId()) || taskContents.containsContent(task)) {
             throw new AlreadyExistsException("Такая задача уже была добавлена");
         }
 
@@ -60,63 +124,124 @@ public class InMemoryTaskManager implements TaskManager {
             throw new TimeOverlapException("Задача пересекается по времени с уже добавленными задачами");
         }
 
-        if (task.getId() != null) {
-            updateCurrentId(task.getId());
-        } else {
-            task.setId(getNextId());
-        }
-        tasks.put(task.getId(), task);
-
-        if (task.getStartTime() != null) {
-            prioritizedTasks.add(task);
-        }
+        final boolean generatedId = assignId(task);
+        schedule(task, generatedId, "Задача пересекается по времени с уже добавленными задачами");
 
+        tasks.put(task.getId(), task);
+        taskContents.put(task);
+        tasksChanged();
     }
 
     @Override
     public void addEpic(Epic epic) {
-        if (epics.containsValue(epic)) {
+        if (epic.getId() != null && epics.containsKey(epic.getId()) || epicContents.containsContent(epic)) {
             throw new AlreadyExistsException("Такой эпик уже был добавлен");
         }
 
-        if (epic.getId() != null) {
-            updateCurrentId(epic.getId());
-        } else {
-            epic.setId(getNextId());
-        }
+        assignId(epic);
+        // агрегированные данные добавляются раньше эпика: подзадачу можно добавить, как только эпик найден
+        epicAggregates.put(epic.getId(), new EpicAggregate());
+        epicContents.put(epic);
         epics.put(epic.getId(), epic);
+        epicsChanged();
     }
 
     @Override
     public void addSubtask(Subtask subtask) {
-        if (subtasks.containsValue(subtask)) {
-            if (Objects.equals(subtasks.values().stream().filter(item -> item.equals(subtask)).findFirst().orElseThrow().getEpicId(), subtask.getEpicId())) {
-                throw new AlreadyExistsException("Такая подзадача в эпик с id = " + subtask.getEpicId() + " уже была добавлена");
-            }
+        if (isSubtaskAlreadyAdded(subtask)) {
+            throw new AlreadyExistsException("Такая подзадача в эпик с id = " + subtask.getEpicId() + " уже была добавлена");
         }
 
         if (isTasksOverlap(subtask)) {
             throw new TimeOverlapException("Подзадача пересекается по времени с уже добавленными задачами");
         }
 
-        if (!epics.containsKey(subtask.getEpicId())) {
+        if (subtask.getEpicId() == null || !epics.containsKey(subtask.getEpicId())) {
             throw new NotFoundException("Не найден эпик с id = " + subtask.getEpicId());
         }
 
-        if (subtask.getId() != null) {
-            updateCurrentId(subtask.getId());
-        } else {
-            subtask.setId(getNextId());
-        }
-        subtasks.put(subtask.getId(), subtask);
+        final boolean generatedId = assignId(subtask);
+        schedule(subtask, generatedId, "Подзадача пересекается по времени с уже добавленными задачами");
 
-        if (subtask.getStartTime() != null) {
-            prioritizedTasks.add(subtask);
-        }
+        subtasks.put(subtask.getId(), subtask);
+        subtaskContents.put(subtask);
 
         epics.get(subtask.getEpicId()).addNewSubtask(subtask.getId());
+        epicAggregates.get(subtask.getEpicId()).put(subtask);
         correctEpicStatus(subtask.getEpicId());
         correctEpicDuration(epics.get(subtask.getEpicId()));
+        subtasksChanged();
+    }
+
+    @Override
+    public void addAll(Collection<? extends AbstractTask> items) {
+        validateBatch(items);
+
+        // все проверки пройдены до изменения данных, поэтому дальше добавление не прерывается.
+        // Сначала учитываются переданные идентификаторы, чтобы сгенерированный не совпал ни с одним из них
+        final Set<Integer> batchIds = new HashSet<>();
+        for (AbstractTask item : items) {
+            if (item.getId() != null) {
+                batchIds.add(item.getId());
+                updateCurrentId(item.getId());
+            }
+        }
+        for (AbstractTask item : items) {
+            if (item.getId() == null) {
+                int id;
+                do {
+                    id = getNextId();
+                } while (batchIds.contains(id));
+                item.setId(id);
+            }
+        }
+
+        final Set<Integer> affectedEpicIds = new LinkedHashSet<>();
+        boolean tasksAdded = false;
+        boolean epicsAdded = false;
+        boolean subtasksAdded = false;
+
+        for (AbstractTask item : items) {
+            if (item instanceof Epic epic) {
+                epicAggregates.put(epic.getId(), new EpicAggregate());
+                epicContents.put(epic);
+                epics.put(epic.getId(), epic);
+                epicsAdded = true;
+            }
+        }
+
+        for (AbstractTask item : items) {
+            if (item instanceof Subtask subtask) {
+                prioritizedTasks.put(subtask);
+                subtasks.put(subtask.getId(), subtask);
+                subtaskContents.put(subtask);
+                epics.get(subtask.getEpicId()).addNewSubtask(subtask.getId());
+                epicAggregates.get(subtask.getEpicId()).put(subtask);
+                affectedEpicIds.add(subtask.getEpicId());
+                subtasksAdded = true;
+            } else if (item instanceof Task task) {
+                prioritizedTasks.put(task);
+                tasks.put(task.getId(), task);
+                taskContents.put(task);
+                tasksAdded = true;
+            }
+        }
+
+        // статус и время каждого затронутого эпика пересчитываются один раз на весь набор
+        for (int epicId : affectedEpicIds) {
+            correctEpicStatus(epicId);
+            correctEpicDuration(epics.get(epicId));
+        }
+
+        if (tasksAdded) {
+            tasksChanged();
+        }
+        if (epicsAdded) {
+            epicsChanged();
+        }
+        if (subtasksAdded) {
+            subtasksChanged();
+        }
     }
 
     @Override
@@ -124,34 +249,17 @@ public class InMemoryTaskManager implements TaskManager {
         if (task.getId() == null) {
             throw new WithouIdException("Передана задача без id. Невозможно обновить");
         }
-        boolean inTaskInPrioritizedList = prioritizedTasks.stream().map(AbstractTask::getId).anyMatch(id -> task.getId().equals(id));
 
-        if (!inTaskInPrioritizedList && isTasksOverlap(task)) {
+        // собственный интервал задачи при проверке не учитывается
+        if (isTasksOverlap(task)) {
             throw new TimeOverlapException("Задача пересекается по времени с уже добавленными задачами");
         }
 
-        if (inTaskInPrioritizedList) {
-            final Task priTask = (Task) prioritizedTasks.stream().filter(t -> t.getId().equals(task.getId())).findFirst().orElseThrow();
-            if (!priTask.getStartTime().equals(task.getStartTime())
-                    || !priTask.getDuration().equals(task.getDuration())) {
-                prioritizedTasks.remove(priTask);
-
-                if (isTasksOverlap(task)) {
-                    prioritizedTasks.add(priTask);
-                    throw new TimeOverlapException("Задача пересекается по времени с уже добавленными задачами");
-                }
-                prioritizedTasks.add(priTask);
-            }
-        }
+        schedule(task, false, "Задача пересекается по времени с уже добавленными задачами");
 
         tasks.put(task.getId(), task);
-
-        if (task.getStartTime() != null) {
-            prioritizedTasks.add(task);
-        } else {
-            Optional<AbstractTask> taskToDelete = prioritizedTasks.stream().filter(t -> t.getId().equals(task.getId())).findFirst();
-            taskToDelete.ifPresent(prioritizedTasks::remove);
-        }
+        taskContents.put(task);
+        tasksChanged();
     }
 
     @Override
@@ -165,6 +273,8 @@ public class InMemoryTaskManager implements TaskManager {
         final Epic epicSaved = epics.get(epic.getId());
         epicSaved.setName(epic.getName());
         epicSaved.setDescription(epic.getDescription());
+        epicContents.put(epicSaved);
+        epicsChanged();
     }
 
     @Override
@@ -176,63 +286,50 @@ public class InMemoryTaskManager implements TaskManager {
             throw new NotFoundException("Передана подзадача с привязкой к несуществующему эпику. Невозможно обновить");
         }
 
-        boolean isSubtaskInPrioritizedList = prioritizedTasks.stream().map(AbstractTask::getId).anyMatch(id -> subtask.getId().equals(id));
 
-        if (!isSubtaskInPrioritizedList && isTasksOverlap(subtask)) {
+        // собственный интервал подзадачи при проверке не учитывается
+        if (isTasksOverlap(subtask)) {
             throw new TimeOverlapException("Задача пересекается по времени с уже добавленными задачами");
         }
 
-        if (isSubtaskInPrioritizedList) {
-            final Subtask priSubtask = (Subtask) prioritizedTasks.stream().filter(task -> task.getId().equals(subtask.getId())).findFirst().orElseThrow();
-            if (!priSubtask.getStartTime().equals(subtask.getStartTime())
-                    || !priSubtask.getDuration().equals(subtask.getDuration())) {
-                prioritizedTasks.remove(priSubtask);
+        schedule(subtask, false, "Задача пересекается по времени с уже добавленными задачами");
 
-                if (isTasksOverlap(subtask)) {
-                    prioritizedTasks.add(priSubtask);
-                    throw new TimeOverlapException("Задача пересекается по времени с уже добавленными задачами");
-                }
-                prioritizedTasks.add(priSubtask);
-            }
-        }
-
-        subtasks.put(subtask.getId(), subtask);
+        final Subtask previous = subtasks.put(subtask.getId(), subtask);
+        subtaskContents.put(subtask);
 
-        if (subtask.getStartTime() != null) {
-            prioritizedTasks.add(subtask);
-        } else {
-            Optional<AbstractTask> subtaskToDelete = prioritizedTasks.stream().filter(t -> t.getId().equals(subtask.getId())).findFirst();
-            subtaskToDelete.ifPresent(prioritizedTasks::remove);
+        if (previous != null && !previous.getEpicId().equals(subtask.getEpicId())) {
+            // подзадача перенесена в другой эпик
+            unlinkSubtask(previous.getEpicId(), subtask.getId());
         }
 
+        final EpicAggregate aggregate = epicAggregates.get(subtask.getEpicId());
+        if (!aggregate.contains(subtask.getId())) {
+            epics.get(subtask.getEpicId()).addNewSubtask(subtask.getId());
+        }
+        aggregate.put(subtask);
         correctEpicStatus(subtask.getEpicId());
         correctEpicDuration(epics.get(subtask.getEpicId()));
+        subtasksChanged();
     }
 
     @Override
     public List<Task> getTasks() {
-        return List.copyOf(tasks.values());
+        return taskSnapshot.get();
     }
 
     @Override
     public List<Epic> getEpics() {
-        return List.copyOf(epics.values());
+        return epicSnapshot.get();
     }
 
     @Override
     public List<Subtask> getSubtasks() {
-        return List.copyOf(subtasks.values());
+        return subtaskSnapshot.get();
     }
 
     @Override
     public List<AbstractTask> getAllEntities() {
-        List<AbstractTask> allEntities = new ArrayList<>();
-
-        allEntities.addAll(tasks.values());
-        allEntities.addAll(epics.values());
-        allEntities.addAll(subtasks.values());
-
-        return allEntities;
+        return allEntitiesSnapshot.get();
     }
 
     @Override
@@ -242,46 +339,55 @@ public class InMemoryTaskManager implements TaskManager {
             throw new NotFoundException("Не найден эпик с id = " + epicId);
         }
 
-        return epic.getSubtaskList().stream().map(this::getSubtaskById).toList();
+        return Arrays.stream(epic.getSubtaskIds()).mapToObj(this::peekSubtaskById).toList();
     }
 
     @Override
     public void deleteAllTasks() {
-        tasks.keySet().forEach(id -> {
+        tasks.forEachKey(id -> {
             historyManager.remove(id);
-            prioritizedTasks.remove(tasks.get(id));
+            prioritizedTasks.remove(id);
         });
 
         tasks.clear();
+        taskContents.clear();
+        tasksChanged();
     }
 
     @Override
     public void deleteAllEpics() {
-        epics.keySet().forEach(historyManager::remove);
-        subtasks.keySet().forEach(id -> {
+        epics.forEachKey(historyManager::remove);
+        subtasks.forEachKey(id -> {
             historyManager.remove(id);
-            prioritizedTasks.remove(subtasks.get(id));
+            prioritizedTasks.remove(id);
         });
 
         subtasks.clear();
         epics.clear();
-
+        epicAggregates.clear();
+        subtaskContents.clear();
+        epicContents.clear();
+        epicsChanged();
+        subtasksChanged();
     }
 
     @Override
     public void deleteAllSubtasks() {
-        subtasks.keySet().forEach(id -> {
+        subtasks.forEachKey(id -> {
             historyManager.remove(id);
-            prioritizedTasks.remove(subtasks.get(id));
+            prioritizedTasks.remove(id);
         });
 
         epics.forEach((id, epic) -> {
             epic.deleteAllSubtasks();
+            epicAggregates.get(id).clear();
             correctEpicStatus(epic.getId());
             correctEpicDuration(epic);
         });
 
         subtasks.clear();
+        subtaskContents.clear();
+        subtasksChanged();
     }
 
     @Override
@@ -291,54 +397,72 @@ public class InMemoryTaskManager implements TaskManager {
             throw new NotFoundException("Не найден эпик с id = " + epicId);
         }
 
-        epic.getSubtaskList().forEach(id -> {
+        epic.forEachSubtask(id -> {
             historyManager.remove(id);
-            prioritizedTasks.remove(subtasks.get(id));
+            prioritizedTasks.remove(id);
             subtasks.remove(id);
+            subtaskContents.remove(id);
         });
 
         epic.deleteAllSubtasks();
+        epicAggregates.get(epicId).clear();
 
         correctEpicStatus(epicId);
         correctEpicDuration(epic);
+        subtasksChanged();
     }
 
     @Override
-    public Task getTaskById(int id) {
+    public Task peekTaskById(int id) {
         final Task task = tasks.get(id);
 
         if (task == null) {
             throw new NotFoundException("Не найдена задача с id = " + id);
         }
 
-        historyManager.add(task);
-
         return task;
     }
 
     @Override
-    public Epic getEpicById(int id) {
+    public Epic peekEpicById(int id) {
         final Epic epic = epics.get(id);
 
         if (epic == null) {
             throw new NotFoundException("Не найден эпик с id = " + id);
         }
 
-        historyManager.add(epic);
-
         return epic;
     }
 
     @Override
-    public Subtask getSubtaskById(int id) {
+    public Subtask peekSubtaskById(int id) {
         final Subtask subtask = subtasks.get(id);
 
         if (subtask == null) {
             throw new NotFoundException("Не найдена подзадача с id = " + id);
         }
 
-        historyManager.add(subtask);
+        return subtask;
+    }
+
+    @Override
+    public Task getTaskById(int id) {
+        final Task task = peekTaskById(id);
+        historyManager.add(task);
+        return task;
+    }
+
+    @Override
+    public Epic getEpicById(int id) {
+        final Epic epic = peekEpicById(id);
+        historyManager.add(epic);
+        return epic;
+    }
 
+    @Override
+    public Subtask getSubtaskById(int id) {
+        final Subtask subtask = peekSubtaskById(id);
+        historyManager.add(subtask);
         return subtask;
     }
 
@@ -348,9 +472,11 @@ public class InMemoryTaskManager implements TaskManager {
         if (task == null) {
             throw new NotFoundException("Не найдена задача с id = " + id);
         }
-        prioritizedTasks.remove(task);
+        taskContents.remove(id);
+        prioritizedTasks.remove(id);
 
         historyManager.remove(id);
+        tasksChanged();
     }
 
     @Override
@@ -361,15 +487,18 @@ public class InMemoryTaskManager implements TaskManager {
         }
 
         historyManager.remove(id);
+        epicContents.remove(id);
+        epicAggregates.remove(id);
 
-        epic.getSubtaskList().forEach(subtaskId -> {
-            Subtask subtask = subtasks.remove(subtaskId);
-            if (subtask != null) {
-                prioritizedTasks.remove(subtask);
-            }
+        epic.forEachSubtask(subtaskId -> {
+            subtasks.remove(subtaskId);
+            subtaskContents.remove(subtaskId);
+            prioritizedTasks.remove(subtaskId);
             historyManager.remove(subtaskId);
         });
 
+        epicsChanged();
+        subtasksChanged();
     }
 
     @Override
@@ -379,56 +508,425 @@ public class InMemoryTaskManager implements TaskManager {
             throw new NotFoundException("Не найдена подзадача с id = " + id);
         }
 
-        prioritizedTasks.remove(subtask);
+        subtaskContents.remove(id);
+        prioritizedTasks.remove(id);
 
-        final int epicId = subtask.getEpicId();
-        epics.get(epicId).deleteSubtaskById(id);
-        correctEpicStatus(epicId);
-        correctEpicDuration(epics.get(subtask.getEpicId()));
+        unlinkSubtask(subtask.getEpicId(), id);
 
         historyManager.remove(id);
+        subtasksChanged();
+    }
+
+    @Override
+    public void deleteByIds(Collection<Integer> ids) {
+        for (int id : ids) {
+            if (!tasks.containsKey(id) && !epics.containsKey(id) && !subtasks.containsKey(id)) {
+                throw new NotFoundException("Не найдена задача, эпик или подзадача с id = " + id);
+            }
+        }
+
+        boolean tasksDeleted = false;
+        boolean epicsDeleted = false;
+        boolean subtasksDeleted = false;
+
+        // сначала удаляются эпики вместе с подзадачами, чтобы не пересчитывать удаляемые эпики
+        for (int id : ids) {
+            final Epic epic = epics.remove(id);
+            if (epic == null) {
+                continue;
+            }
+            historyManager.remove(id);
+            epicContents.remove(id);
+            epicAggregates.remove(id);
+            epic.forEachSubtask(subtaskId -> {
+                subtasks.remove(subtaskId);
+                subtaskContents.remove(subtaskId);
+                prioritizedTasks.remove(subtaskId);
+                historyManager.remove(subtaskId);
+            });
+            epicsDeleted = true;
+            subtasksDeleted |= epic.getSubtaskCount() > 0;
+        }
+
+        final Set<Integer> affectedEpicIds = new LinkedHashSet<>();
+        for (int id : ids) {
+            if (tasks.remove(id) != null) {
+                taskContents.remove(id);
+                prioritizedTasks.remove(id);
+                historyManager.remove(id);
+                tasksDeleted = true;
+                continue;
+            }
+
+            final Subtask subtask = subtasks.remove(id);
+            if (subtask != null) {
+                subtaskContents.remove(id);
+                prioritizedTasks.remove(id);
+                historyManager.remove(id);
+                epics.get(subtask.getEpicId()).deleteSubtaskById(id);
+                epicAggregates.get(subtask.getEpicId()).remove(id);
+                affectedEpicIds.add(subtask.getEpicId());
+                subtasksDeleted = true;
+            }
+        }
+
+        // статус и время каждого затронутого эпика пересчитываются один раз на весь набор
+        for (int epicId : affectedEpicIds) {
+            correctEpicStatus(epicId);
+            correctEpicDuration(epics.get(epicId));
+        }
+
+        if (tasksDeleted) {
+            tasksChanged();
+        }
+        if (epicsDeleted) {
+            epicsChanged();
+        }
+        if (subtasksDeleted) {
+            subtasksChanged();
+        }
+    }
+
+    /**
+     * Операции набора выполняются через методы таск-менеджера, а для каждой выполненной операции
+     * запоминается обратная. При ошибке выполняются все обратные операции в обратном порядке
+     * (их собственные ошибки добавляются к исходной как подавленные), а счётчик идентификаторов
+     * и история просмотра восстанавливаются в любом случае.
+     * <p>
+     * Операции изменяют само хранилище, а не его копию, поэтому читатели без блокировок
+     * могут увидеть операции набора, которые затем будут отменены
+     */
+    @Override
+    public void apply(TaskBatch batch) {
+        final int savedCurrentId = currentId.get();
+        final List<AbstractTask> savedHistory = batch.hasDeletes() ? List.copyOf(historyManager.getHistory()) : null;
+        final Deque<Runnable> undoLog = new ArrayDeque<>(batch.size());
+
+        try {
+            for (TaskBatch.Operation operation : batch.getOperations()) {
+                undoLog.push(execute(operation));
+            }
+        } catch (RuntimeException e) {
+            try {
+                while (!undoLog.isEmpty()) {
+                    try {
+                        undoLog.pop().run();
+                    } catch (RuntimeException undoError) {
+                        e.addSuppressed(undoError);
+                    }
+                }
+            } finally {
+                currentId.set(savedCurrentId);
+                if (savedHistory != null) {
+                    restoreHistory(savedHistory);
+                }
+            }
+            throw e;
+        }
     }
 
     @Override
     public int getNextId() {
-        return currentId++;
+        return currentId.getAndIncrement();
+    }
+
+    /**
+     * Получение идентификатора эпика подзадачи без записи в историю просмотра
+     *
+     * @param subtaskId Идентификатор подзадачи
+     * @return Идентификатор эпика или null, если подзадачи нет
+     */
+    protected Integer findEpicIdOfSubtask(int subtaskId) {
+        final Subtask subtask = subtasks.get(subtaskId);
+        return subtask != null ? subtask.getEpicId() : null;
+    }
+
+    /**
+     * Проверка, добавлена ли уже подзадача в тот же эпик: с тем же идентификатором
+     * или с тем же названием и описанием
+     */
+    private boolean isSubtaskAlreadyAdded(Subtask subtask) {
+        if (subtask.getId() != null) {
+            final Subtask saved = subtasks.get(subtask.getId());
+            if (saved != null && Objects.equals(saved.getEpicId(), subtask.getEpicId())) {
+                return true;
+            }
+        }
+        return subtaskContents.containsContent(subtask);
+    }
+
+    /**
+     * Проверка набора задач перед добавлением без изменения данных: дубликаты среди добавленных задач
+     * и внутри набора, эпики подзадач и пересечения по времени
+     */
+    private void validateBatch(Collection<? extends AbstractTask> items) {
+        final Set<Integer> batchIds = new HashSet<>();
+        final Set<Integer> batchEpicIds = new HashSet<>();
+        final Set<Object> batchContents = new HashSet<>();
+
+        for (AbstractTask item : items) {
+            if (item.getId() != null && !batchIds.add(item.getId())) {
+                throw new AlreadyExistsException("Идентификатор " + item.getId() + " повторяется в наборе");
+            }
+            if (!batchContents.add(ContentIndex.keyOf(item))) {
+                throw new AlreadyExistsException("Задача \"" + item.getName() + "\" повторяется в наборе");
+            }
+
+            if (item instanceof Epic epic) {
+                if (epic.getId() != null && epics.containsKey(epic.getId()) || epicContents.containsContent(epic)) {
+                    throw new AlreadyExistsException("Такой эпик уже был добавлен");
+                }
+                if (epic.getId() != null) {
+                    batchEpicIds.add(epic.getId());
+                }
+            } else if (item instanceof Subtask subtask) {
+                if (isSubtaskAlreadyAdded(subtask)) {
+                    throw new AlreadyExistsException("Такая подзадача в эпик с id = " + subtask.getEpicId() + " уже была добавлена");
+                }
+            } else if (item instanceof Task task) {
+                if (task.getId() != null && tasks.containsKey(task.getId()) || taskContents.containsContent(task)) {
+                    throw new AlreadyExistsException("Такая задача уже была добавлена");
+                }
+            } else {
+                throw new IllegalArgumentException("Неизвестный тип задачи: " + item.getClass().getName());
+            }
+        }
+
+        for (AbstractTask item : items) {
+            if (item instanceof Subtask subtask && (subtask.getEpicId() == null
+                    || !epics.containsKey(subtask.getEpicId()) && !batchEpicIds.contains(subtask.getEpicId()))) {
+                throw new NotFoundException("Не найден эпик с id = " + subtask.getEpicId());
+            }
+        }
+
+        final List<AbstractTask> scheduled = new ArrayList<>(items.size());
+        for (AbstractTask item : items) {
+            if (!(item instanceof Epic)) {
+                scheduled.add(item);
+            }
+        }
+        final AbstractTask overlapping = prioritizedTasks.findOverlapping(scheduled);
+        if (overlapping != null) {
+            throw new TimeOverlapException("Задача \"" + overlapping.getName()
+                    + "\" пересекается по времени с уже добавленными задачами или задачами набора");
+        }
+    }
+
+    /**
+     * Проверка, что при редактировании в набор передана копия, а не хранящийся в менеджере объект:
+     * изменения, внесённые в хранящийся объект до применения набора, нельзя было бы отменить
+     *
+     * @param staged Обновлённая версия из набора
+     * @param saved  Хранящаяся в менеджере версия
+     */
+    private static void requireNotStored(AbstractTask staged, AbstractTask saved) {
+        if (staged == saved) {
+            throw new IllegalArgumentException("В набор передан хранящийся в менеджере объект с id = "
+                    + staged.getId() + ". Для редактирования в наборе нужна его копия");
+        }
+    }
+
+    /**
+     * Выполнение операции набора
+     *
+     * @return Обратная операция
+     */
+    private Runnable execute(TaskBatch.Operation operation) {
+        switch (operation.getType()) {
+            case ADD_TASK -> {
+                final Task task = (Task) operation.getItem();
+                final boolean generatedId = task.getId() == null;
+                addTask(task);
+                return () -> {
+                    deleteTaskById(task.getId());
+                    if (generatedId) {
+                        task.setId(null);
+                    }
+                };
+            }
+            case ADD_EPIC -> {
+                final Epic epic = (Epic) operation.getItem();
+                final boolean generatedId = epic.getId() == null;
+                addEpic(epic);
+                return () -> {
+                    deleteEpicById(epic.getId());
+                    if (generatedId) {
+                        epic.setId(null);
+                    }
+                };
+            }
+            case ADD_SUBTASK -> {
+                final Subtask subtask = (Subtask) operation.getItem();
+                final boolean generatedId = subtask.getId() == null;
+                final Integer epicId = subtask.getEpicId();
+                if (operation.getEpic() != null) {
+                    subtask.setEpicId(operation.getEpic().getId());
+                }
+                try {
+                    addSubtask(subtask);
+                } catch (RuntimeException e) {
+                    subtask.setEpicId(epicId);
+                    throw e;
+                }
+                return () -> {
+                    deleteSubtaskById(subtask.getId());
+                    subtask.setEpicId(epicId);
+                    if (generatedId) {
+                        subtask.setId(null);
+                    }
+                };
+            }
+            case EDIT_TASK -> {
+                final Task task = (Task) operation.getItem();
+                final Task saved = task.getId() != null ? tasks.get(task.getId()) : null;
+                requireNotStored(task, saved);
+                final Task previous = saved != null ? new Task(saved) : null;
+                editTask(task);
+                return () -> {
+                    if (previous != null) {
+                        editTask(previous);
+                    } else {
+                        deleteTaskById(task.getId());
+                    }
+                };
+            }
+            case EDIT_EPIC -> {
+                final Epic epic = (Epic) operation.getItem();
+                final Epic saved = epic.getId() != null ? epics.get(epic.getId()) : null;
+                if (saved == null && epic.getId() != null) {
+                    throw new NotFoundException("Не найден эпик с id = " + epic.getId());
+                }
+                requireNotStored(epic, saved);
+                final Epic previous = saved != null ? new Epic(saved.getId(), saved.getName(), saved.getDescription()) : null;
+                editEpic(epic);
+                return () -> editEpic(previous);
+            }
+            case EDIT_SUBTASK -> {
+                final Subtask subtask = (Subtask) operation.getItem();
+                final Subtask saved = subtask.getId() != null ? subtasks.get(subtask.getId()) : null;
+                requireNotStored(subtask, saved);
+                final Subtask previous = saved != null ? new Subtask(saved) : null;
+                editSubtask(subtask);
+                return () -> {
+                    if (previous != null) {
+                        editSubtask(previous);
+                    } else {
+                        deleteSubtaskById(subtask.getId());
+                    }
+                };
+            }
+            case DELETE_TASK -> {
+                final Task task = tasks.get(operation.getId());
+                deleteTaskById(operation.getId());
+                return () -> addTask(task);
+            }
+            case DELETE_EPIC -> {
+                final Epic epic = epics.get(operation.getId());
+                final List<Subtask> epicSubtasks = epic != null
+                        ? Arrays.stream(epic.getSubtaskIds()).mapToObj(subtasks::get).filter(Objects::nonNull).toList()
+                        : List.of();
+                deleteEpicById(operation.getId());
+                return () -> {
+                    addEpic(epic);
+                    epicSubtasks.forEach(this::addSubtask);
+                };
+            }
+            case DELETE_SUBTASK -> {
+                final Subtask subtask = subtasks.get(operation.getId());
+                deleteSubtaskById(operation.getId());
+                return () -> addSubtask(subtask);
+            }
+            default -> throw new IllegalArgumentException("Неизвестная операция: " + operation.getType());
+        }
+    }
+
+    /**
+     * Восстановление истории просмотра после отмены набора изменений
+     */
+    private void restoreHistory(List<AbstractTask> history) {
+        for (AbstractTask abstractTask : List.copyOf(historyManager.getHistory())) {
+            historyManager.remove(abstractTask.getId());
+        }
+        history.forEach(historyManager::add);
     }
 
     private void updateCurrentId(Integer newValue) {
-        if (newValue > currentId) currentId = newValue + 1;
+        currentId.updateAndGet(current -> newValue > current ? newValue + 1 : current);
+    }
+
+    /**
+     * Присвоение идентификатора новой задаче, если он не был передан
+     *
+     * @return true, если идентификатор был сгенерирован
+     */
+    private boolean assignId(AbstractTask abstractTask) {
+        if (abstractTask.getId() != null) {
+            updateCurrentId(abstractTask.getId());
+            return false;
+        }
+        abstractTask.setId(getNextId());
+        return true;
+    }
+
+    /**
+     * Атомарная проверка пересечения и добавление задачи в список по приоритету.
+     * Пересечение уже проверено до изменения данных, поэтому повторная проверка может не пройти
+     * только при параллельном добавлении пересекающейся задачи
+     */
+    private void schedule(AbstractTask abstractTask, boolean generatedId, String message) {
+        if (!prioritizedTasks.putIfNotOverlapping(abstractTask)) {
+            if (generatedId) {
+                abstractTask.setId(null);
+            }
+            throw new TimeOverlapException(message);
+        }
+    }
+
+    /**
+     * Включение или выключение режима сверки агрегированных данных эпиков.
+     * В этом режиме при каждой корректировке статуса эпика счётчики статусов и время эпика сравниваются
+     * с полным пересчётом по текущим объектам подзадач, поэтому подзадачи нужно изменять
+     * только через {@link #editSubtask(Subtask)}
+     *
+     * @param enabled true, чтобы включить сверку
+     */
+    public void setAggregateCheckEnabled(boolean enabled) {
+        this.aggregateCheckEnabled = enabled;
     }
 
     @Override
     public void correctEpicStatus(int epicId) {
-        int countToDo = 0;
-        int countDone = 0;
         final Epic epic = epics.get(epicId);
-        final List<Integer> currentSubtaskList = epic.getSubtaskList();
-
-        for (Integer id : currentSubtaskList) {
-            switch (subtasks.get(id).getStatus()) {
-                case NEW -> countToDo++;
-                case DONE -> countDone++;
-                default -> {
-                    epic.setStatus(Status.IN_PROGRESS);
-                    return;
-                }
-            }
-        }
+        final EpicAggregate aggregate = epicAggregates.get(epicId);
 
-        int subtaskListSize = currentSubtaskList.size();
-        if (countToDo == subtaskListSize) {
-            epic.setStatus(Status.NEW);
-        } else if (countDone == subtaskListSize) {
-            epic.setStatus(Status.DONE);
-        } else {
-            epic.setStatus(Status.IN_PROGRESS);
+        if (aggregateCheckEnabled) {
+            checkEpicAggregate(epic, aggregate);
         }
+
+        epic.setStatus(aggregate.getStatus());
     }
 
     @Override
     public List<AbstractTask> getPrioritizedTasks() {
-        return List.copyOf(prioritizedTasks);
+        return prioritizedSnapshot.get();
+    }
+
+    @Override
+    public List<AbstractTask> getPrioritizedTasks(LocalDateTime from, LocalDateTime to) {
+        if (from == null && to == null) {
+            return prioritizedSnapshot.get();
+        }
+        return prioritizedTasks.getTasks(from, to);
+    }
+
+    @Override
+    public LocalDateTime findFreeSlot(Duration duration, LocalDateTime from, LocalDateTime horizon) {
+        final LocalDateTime slot = prioritizedTasks.findFreeSlot(duration, from, horizon);
+        if (slot == null) {
+            throw new NotFoundException("Не найден свободный промежуток длительностью " + duration
+                    + " с " + from + " до " + horizon);
+        }
+        return slot;
     }
 
     @Override
@@ -436,44 +934,118 @@ public class InMemoryTaskManager implements TaskManager {
         return List.copyOf(historyManager.getHistory());
     }
 
+    @Override
+    public List<AbstractTask> getHistory(int limit) {
+        return List.copyOf(historyManager.getHistory(limit));
+    }
+
+    private List<AbstractTask> collectAllEntities() {
+        final List<AbstractTask> allEntities = new ArrayList<>(tasks.size() + epics.size() + subtasks.size());
+
+        allEntities.addAll(tasks.values());
+        allEntities.addAll(epics.values());
+        allEntities.addAll(subtasks.values());
+
+        return Collections.unmodifiableList(allEntities);
+    }
+
+    /**
+     * Отметка об изменении задач: снимки списков, в которые входят задачи, пересобираются при следующем чтении
+     */
+    private void tasksChanged() {
+        taskSnapshot.invalidate();
+        prioritizedSnapshot.invalidate();
+        allEntitiesSnapshot.invalidate();
+    }
+
+    /**
+     * Отметка об изменении эпиков
+     */
+    private void epicsChanged() {
+        epicSnapshot.invalidate();
+        allEntitiesSnapshot.invalidate();
+    }
+
+    /**
+     * Отметка об изменении подзадач
+     */
+    private void subtasksChanged() {
+        subtaskSnapshot.invalidate();
+        prioritizedSnapshot.invalidate();
+        allEntitiesSnapshot.invalidate();
+    }
+
+    private void unlinkSubtask(int epicId, int subtaskId) {
+        final Epic epic = epics.get(epicId);
+        epic.deleteSubtaskById(subtaskId);
+        epicAggregates.get(epicId).remove(subtaskId);
+        correctEpicStatus(epicId);
+        correctEpicDuration(epic);
+    }
+
+    private void checkEpicAggregate(Epic epic, EpicAggregate aggregate) {
+        final int[] counts = new int[Status.values().length];
+        int size = 0;
+        LocalDateTime startTime = null;
+        LocalDateTime endTime = null;
+
+        for (int id : epic.getSubtaskIds()) {
+            final Subtask subtask = subtasks.get(id);
+            if (subtask == null) {
+                continue;
+            }
+
+            counts[subtask.getStatus().ordinal()]++;
+            size++;
+
+            if (subtask.getStartTime() != null && subtask.getStatus() != Status.DONE) {
+                if (startTime == null || subtask.getStartTime().isBefore(startTime)) {
+                    startTime = subtask.getStartTime();
+                }
+                if (endTime == null || subtask.getEndTime().isAfter(endTime)) {
+                    endTime = subtask.getEndTime();
+                }
+            }
+        }
+
+        boolean consistent = size == aggregate.size();
+        for (Status status : Status.values()) {
+            consistent &= counts[status.ordinal()] == aggregate.getCount(status);
+        }
+        if (!consistent) {
+            throw new InconsistentAggregateException("Счётчики статусов эпика с id = " + epic.getId()
+                    + " не совпадают с пересчётом: ожидалось " + Arrays.toString(counts)
+                    + ", учтено NEW = " + aggregate.getCount(Status.NEW)
+                    + ", IN_PROGRESS = " + aggregate.getCount(Status.IN_PROGRESS)
+                    + ", DONE = " + aggregate.getCount(Status.DONE));
+        }
+
+        if (!Objects.equals(startTime, aggregate.getStartTime()) || !Objects.equals(endTime, aggregate.getEndTime())) {
+            throw new InconsistentAggregateException("Время эпика с id = " + epic.getId()
+                    + " не совпадает с пересчётом: ожидалось " + startTime + " - " + endTime
+                    + ", учтено " + aggregate.getStartTime() + " - " + aggregate.getEndTime());
+        }
+    }
+
     private void correctEpicDuration(Epic epic) {
-        final List<Subtask> subtaskList = epics.get(epic.getId()).getSubtaskList().stream().map(subtasks::get).toList();
+        final EpicAggregate aggregate = epicAggregates.get(epic.getId());
+        final LocalDateTime startTime = aggregate.getStartTime();
 
-        final List<Subtask> subtaskWithTime = subtaskList.stream().filter(subtask -> subtask.getStartTime() != null && !subtask.getStatus().equals(Status.DONE)).toList();
-        if (subtaskList.isEmpty() || subtaskWithTime.isEmpty()) {
+        if (startTime == null) {
             epic.setStartTime(null);
             epic.setEndTime(null);
             epic.setDuration(Duration.ZERO);
             return;
         }
 
-        // set start
-        LocalDateTime startTime = subtaskWithTime.stream().map(AbstractTask::getStartTime).min(Comparator.naturalOrder()).orElseThrow();
-
+        final LocalDateTime endTime = aggregate.getEndTime();
         epic.setStartTime(startTime);
-
-        // set end
-        LocalDateTime endTime = subtaskWithTime.stream().map(AbstractTask::getEndTime).max(Comparator.naturalOrder()).orElseThrow();
-
         epic.setEndTime(endTime);
-
-        // set duration
-        Duration duration = Duration.between(startTime, endTime);
-        epic.setDuration(duration);
+        epic.setDuration(Duration.between(startTime, endTime));
     }
 
     private boolean isTasksOverlap(AbstractTask abstractTask) {
-        if (abstractTask.getStartTime() == null) {
-            return false;
-        }
-
-        final List<AbstractTask> overlap = prioritizedTasks.stream()
-                .filter(task -> !task.getStartTime().isAfter(abstractTask.getStartTime().plus(abstractTask.getDuration()))
-                        && !task.getStartTime().equals(abstractTask.getStartTime().plus(abstractTask.getDuration())))
-                .filter(task -> !task.getStartTime().plus(task.getDuration()).isBefore(abstractTask.getStartTime())
-                        && !task.getStartTime().plus(task.getDuration()).equals(abstractTask.getStartTime()))
-                .toList();
-        return !overlap.isEmpty();
+        return prioritizedTasks.isOverlapping(abstractTask);
     }
 
     @Override
@@ -0,0 +1,265 @@
+package com.taskmanager.service.managers;
+
+import com.taskmanager.service.exceptions.ManagerSaveException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Дописывание записей в файл журнала со сбросом на диск по {@link DurabilityPolicy}
+ * <p>
+ * Запись выполняется под блокировкой журнала и получает порядковый номер, а ожидание сброса -
+ * вне её, поэтому изменяющий поток может отпустить свои блокировки до ожидания. Сброс выполняет
+ * первый из ожидающих потоков (ведущий) для всех записанных к этому моменту записей, остальные
+ * потоки ждут окончания его сброса и, если их записи в него вошли, сами на диск не обращаются
+ */
+class LogWriter {
+    private final Path path;
+    private final DurabilityPolicy policy;
+
+    /**
+     * Блокировка записи в канал и состояния сброса
+     */
+    private final ReentrantLock lock;
+
+    /**
+     * Изменение состояния сброса: записана группа, закончен сброс, журнал закрыт
+     */
+    private final Condition changed;
+
+    private FileChannel channel;
+
+    /**
+     * Номер последней записанной и последней сброшенной на диск записи
+     */
+    private long written;
+    private long synced;
+
+    /**
+     * Время записи первой несброшенной записи
+     */
+    private long firstUnsyncedNanos;
+
+    /**
+     * Время записи первой записи, не вошедшей в выполняемый сброс: после сброса
+     * интервал группы отсчитывается от неё
+     */
+    private long firstAfterSyncNanos;
+
+    /**
+     * Признак выполнения сброса ведущим потоком и номер последней записи, входящей в этот сброс
+     */
+    private boolean syncing;
+    private long syncTarget;
+
+    private long syncCount;
+
+    LogWriter(Path path, DurabilityPolicy policy) {
+        this.path = path;
+        this.policy = policy;
+        this.lock = new ReentrantLock();
+        this.changed = lock.newCondition();
+        this.channel = open(path);
+    }
+
+    /**
+     * Дописывание данных одной записью
+     *
+     * @param bytes Данные
+     * @return Номер записи для {@link #awaitDurable(long)}
+     */
+    long append(byte[] bytes) {
+        lock.lock();
+        try {
+            if (channel == null) {
+                throw new ManagerSaveException("Журнал закрыт");
+            }
+
+            final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            try {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            } catch (IOException e) {
+                throw new ManagerSaveException("Ошибка при записи в журнал: " + e.getMessage());
+            }
+
+            if (written == synced) {
+                firstUnsyncedNanos = System.nanoTime();
+            } else if (syncing && written == syncTarget) {
+                firstAfterSyncNanos = System.nanoTime();
+            }
+            written++;
+            if (policy.getMode() == DurabilityPolicy.Mode.GROUP_COMMIT && written - synced >= policy.getMaxRecords()) {
+                // группа набрана: ожидающие потоки не должны ждать конца интервала
+                changed.signalAll();
+            }
+            return written;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Ожидание сброса записи на диск согласно политике. Не вызывается под блокировками,
+     * которые нужны другим изменяющим потокам, иначе их записи не попадут в общий сброс
+     *
+     * @param sequence Номер записи
+     */
+    void awaitDurable(long sequence) {
+        if (policy.getMode() == DurabilityPolicy.Mode.OS_BUFFERED) {
+            return;
+        }
+
+        lock.lock();
+        try {
+            while (synced < sequence) {
+                if (syncing) {
+                    await(0);
+                    continue;
+                }
+                if (policy.getMode() == DurabilityPolicy.Mode.GROUP_COMMIT) {
+                    final long remainingNanos = firstUnsyncedNanos + policy.getInterval().toNanos() - System.nanoTime();
+                    if (written - synced < policy.getMaxRecords() && remainingNanos > 0) {
+                        await(remainingNanos);
+                        continue;
+                    }
+                }
+                sync();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Переименование файла журнала со сбросом на диск и открытие нового пустого файла
+     *
+     * @param target Новое имя текущего файла
+     */
+    void rotate(Path target) {
+        lock.lock();
+        try {
+            awaitSync();
+            closeChannel();
+            try {
+                Files.move(path, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                throw new ManagerSaveException("Ошибка при переключении журнала: " + e.getMessage());
+            }
+            channel = open(path);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Закрытие журнала со сбросом на диск (кроме политики {@link DurabilityPolicy.Mode#OS_BUFFERED})
+     */
+    void close() {
+        lock.lock();
+        try {
+            awaitSync();
+            if (channel != null) {
+                closeChannel();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Получение количества сбросов на диск
+     */
+    long getSyncCount() {
+        lock.lock();
+        try {
+            return syncCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Сброс на диск ведущим потоком. Блокировка отпускается на время обращения к диску,
+     * чтобы другие потоки могли дописывать записи и вставать в очередь на следующий сброс.
+     * Канал на это время не закрывается и не переключается
+     */
+    private void sync() {
+        final long target = written;
+        syncing = true;
+        syncTarget = target;
+        lock.unlock();
+        try {
+            channel.force(false);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при сбросе журнала на диск: " + e.getMessage());
+        } finally {
+            lock.lock();
+            syncing = false;
+            changed.signalAll();
+        }
+        synced = Math.max(synced, target);
+        syncCount++;
+        if (written > synced) {
+            firstUnsyncedNanos = firstAfterSyncNanos;
+        }
+    }
+
+    /**
+     * Ожидание окончания сброса, выполняемого ведущим потоком
+     */
+    private void awaitSync() {
+        while (syncing) {
+            await(0);
+        }
+    }
+
+    /**
+     * Закрытие канала: записи, записанные до этого, сбрасываются на диск
+     */
+    private void closeChannel() {
+        try {
+            if (policy.getMode() != DurabilityPolicy.Mode.OS_BUFFERED && written > synced) {
+                channel.force(false);
+                syncCount++;
+            }
+            channel.close();
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при закрытии журнала: " + e.getMessage());
+        } finally {
+            channel = null;
+            synced = written;
+            changed.signalAll();
+        }
+    }
+
+    private void await(long nanos) {
+        try {
+            if (nanos > 0) {
+                changed.await(nanos, TimeUnit.NANOSECONDS);
+            } else {
+                changed.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ManagerSaveException("Ожидание сброса журнала прервано");
+        }
+    }
+
+    private static FileChannel open(Path path) {
+        try {
+            return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при открытии журнала: " + e.getMessage());
+        }
+    }
+}
@@ -1,8 +1,16 @@
 package com.taskmanager.service.managers;
 
+import com.taskmanager.service.formats.SnapshotFormat;
+
 import java.io.File;
+import java.time.Duration;
 
 public class Managers {
+    /**
+     * Ёмкость истории просмотра для ограниченных историй, например историй сессий {@link HistorySessions}.
+     * История по умолчанию {@link #getDefaultHistory()} не ограничена
+     */
+    public static final int DEFAULT_HISTORY_CAPACITY = 100;
 
     private Managers() {
     }
@@ -11,11 +19,55 @@ public class Managers {
         return new InMemoryTaskManager();
     }
 
+    public static TaskManager getConcurrent() {
+        return new ConcurrentTaskManager();
+    }
+
+    /**
+     * Загрузка таск-менеджера из файла. Если рядом с файлом есть журнал или его сегменты,
+     * таск-менеджер открывается в режиме {@link FileBackedTaskManager.PersistenceMode#LOG}:
+     * снимок дополняется журналом, и изменения продолжают дописываться в журнал
+     *
+     * @param file Файл с задачами
+     * @return Таск-менеджер
+     */
     public static FileBackedTaskManager loadFromFile(File file) {
+        if (FileBackedTaskManager.hasLog(file)) {
+            return new FileBackedTaskManager(file, FileBackedTaskManager.PersistenceMode.LOG);
+        }
         return new FileBackedTaskManager(file);
     }
 
+    public static FileBackedTaskManager loadFromFile(File file, FileBackedTaskManager.PersistenceMode mode) {
+        return new FileBackedTaskManager(file, mode);
+    }
+
+    public static FileBackedTaskManager loadFromFile(File file, DurabilityPolicy durability) {
+        return new FileBackedTaskManager(file, FileBackedTaskManager.PersistenceMode.LOG, durability);
+    }
+
+    public static FileBackedTaskManager loadFromFile(File file, Duration saveDelay, Duration maxSaveDelay) {
+        return new FileBackedTaskManager(file, saveDelay, maxSaveDelay);
+    }
+
+    public static FileBackedTaskManager loadFromFile(File file, FileBackedTaskManager.PersistenceMode mode,
+                                                     SnapshotFormat format) {
+        return new FileBackedTaskManager(file, mode, format);
+    }
+
     public static HistoryManager getDefaultHistory() {
         return new InMemoryHistoryManager();
     }
+
+    public static HistoryManager getDefaultHistory(int capacity) {
+        return new InMemoryHistoryManager(capacity);
+    }
+
+    public static AsyncHistoryManager getAsyncHistory(Duration drainInterval, AsyncHistoryManager.Consistency consistency) {
+        return AsyncHistoryManager.start(getDefaultHistory(), drainInterval, consistency);
+    }
+
+    public static HistoryManager getArrayHistory(int capacity) {
+        return new ArrayHistoryManager(capacity);
+    }
 }
@@ -0,0 +1,48 @@
+package com.taskmanager.service.managers;
+
+import com.taskmanager.model.AbstractTask;
+
+import java.util.List;
+
+/**
+ * Потокобезопасная обёртка над менеджером истории: все обращения выполняются под одной блокировкой
+ */
+public class SynchronizedHistoryManager implements HistoryManager {
+    private final HistoryManager historyManager;
+
+    /**
+     * Конструктор
+     *
+     * @param historyManager Менеджер истории, к которому синхронизируется доступ
+     */
+    public SynchronizedHistoryManager(HistoryManager historyManager) {
+        this.historyManager = historyManager;
+    }
+
+    @Override
+    public synchronized void add(AbstractTask abstractTask) {
+        historyManager.add(abstractTask);
+    }
+
+    @Override
+    public synchronized void remove(int id) {
+        historyManager.remove(id);
+    }
+
+    @Override
+    public synchronized List<AbstractTask> getHistory() {
+        return List.copyOf(historyManager.getHistory());
+    }
+
+    @Override
+    public synchronized List<AbstractTask> getHistory(int limit) {
+        return List.copyOf(historyManager.getHistory(limit));
+    }
+
+    @Override
+    public synchronized String toString() {
+        return SynchronizedHistoryManager.class.getName() + " {" +
+                "historyManager = " + historyManager +
+                '}';
+    }
+}
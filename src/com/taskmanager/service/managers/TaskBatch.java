@@ -0,0 +1,235 @@
+package com.taskmanager.service.managers;
+
+import com.taskmanager.model.AbstractTask;
+import com.taskmanager.model.Epic;
+import com.taskmanager.model.Subtask;
+import com.taskmanager.model.Task;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Набор изменений, применяемых таск-менеджером как единое целое через {@link TaskManager#apply(TaskBatch)}
+ * <p>
+ * Операции только запоминаются и выполняются в порядке добавления при применении набора.
+ * Если одна из операций завершается ошибкой, уже выполненные операции набора отменяются
+ * и таск-менеджер возвращается в состояние до применения
+ */
+public class TaskBatch {
+    /**
+     * Тип операции
+     */
+    enum OperationType {
+        ADD_TASK,
+        ADD_EPIC,
+        ADD_SUBTASK,
+        EDIT_TASK,
+        EDIT_EPIC,
+        EDIT_SUBTASK,
+        DELETE_TASK,
+        DELETE_EPIC,
+        DELETE_SUBTASK
+    }
+
+    private final List<Operation> operations;
+
+    /**
+     * Конструктор
+     */
+    public TaskBatch() {
+        this.operations = new ArrayList<>();
+    }
+
+    /**
+     * Добавление задачи
+     *
+     * @param task Объект задачи
+     * @return Этот набор
+     */
+    public TaskBatch addTask(Task task) {
+        return stage(new Operation(OperationType.ADD_TASK, task, null, null));
+    }
+
+    /**
+     * Добавление эпика
+     *
+     * @param epic Объект эпика
+     * @return Этот набор
+     */
+    public TaskBatch addEpic(Epic epic) {
+        return stage(new Operation(OperationType.ADD_EPIC, epic, null, null));
+    }
+
+    /**
+     * Добавление подзадачи
+     *
+     * @param subtask Объект подзадачи
+     * @return Этот набор
+     */
+    public TaskBatch addSubtask(Subtask subtask) {
+        return stage(new Operation(OperationType.ADD_SUBTASK, subtask, null, null));
+    }
+
+    /**
+     * Добавление подзадачи в эпик, добавляемый этим же набором. Идентификатор эпика
+     * подставляется в подзадачу при применении набора, поэтому его можно не задавать заранее
+     *
+     * @param subtask Объект подзадачи
+     * @param epic    Объект эпика
+     * @return Этот набор
+     */
+    public TaskBatch addSubtask(Subtask subtask, Epic epic) {
+        return stage(new Operation(OperationType.ADD_SUBTASK, subtask, null, epic));
+    }
+
+    /**
+     * Редактирование задачи
+     * <p>
+     * Передаваться должна копия, например {@code new Task(task)}, а не объект, полученный из менеджера:
+     * иначе при откате набора прежнюю версию задачи будет не восстановить
+     *
+     * @param task Обновлённая версия добавленной ранее задачи
+     * @return Этот набор
+     */
+    public TaskBatch editTask(Task task) {
+        return stage(new Operation(OperationType.EDIT_TASK, task, null, null));
+    }
+
+    /**
+     * Редактирование эпика
+     * <p>
+     * Передаваться должна копия, например {@code new Epic(epic)}, а не объект, полученный из менеджера
+     *
+     * @param epic Обновлённая версия добавленного ранее эпика
+     * @return Этот набор
+     */
+    public TaskBatch editEpic(Epic epic) {
+        return stage(new Operation(OperationType.EDIT_EPIC, epic, null, null));
+    }
+
+    /**
+     * Редактирование подзадачи
+     * <p>
+     * Передаваться должна копия, например {@code new Subtask(subtask)}, а не объект, полученный из менеджера
+     *
+     * @param subtask Обновлённая версия добавленной ранее подзадачи
+     * @return Этот набор
+     */
+    public TaskBatch editSubtask(Subtask subtask) {
+        return stage(new Operation(OperationType.EDIT_SUBTASK, subtask, null, null));
+    }
+
+    /**
+     * Удаление задачи
+     *
+     * @param id Идентификатор задачи
+     * @return Этот набор
+     */
+    public TaskBatch deleteTaskById(int id) {
+        return stage(new Operation(OperationType.DELETE_TASK, null, id, null));
+    }
+
+    /**
+     * Удаление эпика вместе с подзадачами
+     *
+     * @param id Идентификатор эпика
+     * @return Этот набор
+     */
+    public TaskBatch deleteEpicById(int id) {
+        return stage(new Operation(OperationType.DELETE_EPIC, null, id, null));
+    }
+
+    /**
+     * Удаление подзадачи
+     *
+     * @param id Идентификатор подзадачи
+     * @return Этот набор
+     */
+    public TaskBatch deleteSubtaskById(int id) {
+        return stage(new Operation(OperationType.DELETE_SUBTASK, null, id, null));
+    }
+
+    /**
+     * Получение количества операций в наборе
+     *
+     * @return Количество операций
+     */
+    public int size() {
+        return operations.size();
+    }
+
+    /**
+     * Проверка на пустоту
+     *
+     * @return true, если в наборе нет операций
+     */
+    public boolean isEmpty() {
+        return operations.isEmpty();
+    }
+
+    List<Operation> getOperations() {
+        return Collections.unmodifiableList(operations);
+    }
+
+    /**
+     * Проверка, есть ли в наборе удаление
+     */
+    boolean hasDeletes() {
+        for (Operation operation : operations) {
+            if (operation.type == OperationType.DELETE_TASK
+                    || operation.type == OperationType.DELETE_EPIC
+                    || operation.type == OperationType.DELETE_SUBTASK) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private TaskBatch stage(Operation operation) {
+        operations.add(operation);
+        return this;
+    }
+
+    /**
+     * Запомненная операция набора
+     */
+    static class Operation {
+        private final OperationType type;
+        private final AbstractTask item;
+        private final Integer id;
+        private final Epic epic;
+
+        private Operation(OperationType type, AbstractTask item, Integer id, Epic epic) {
+            this.type = type;
+            this.item = item;
+            this.id = id;
+            this.epic = epic;
+        }
+
+        OperationType getType() {
+            return type;
+        }
+
+        /**
+         * Объект задачи, эпика или подзадачи для добавления и редактирования
+         */
+        AbstractTask getItem() {
+            return item;
+        }
+
+        /**
+         * Идентификатор для удаления
+         */
+        int getId() {
+            return id;
+        }
+
+        /**
+         * Эпик из набора, в который добавляется подзадача (может быть null)
+         */
+        Epic getEpic() {
+            return epic;
+        }
+    }
+}
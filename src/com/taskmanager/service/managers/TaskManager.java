@@ -5,6 +5,9 @@ import com.taskmanager.model.Epic;
 import com.taskmanager.model.Subtask;
 import com.taskmanager.model.Task;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -33,6 +36,15 @@ public interface TaskManager {
      */
     void addSubtask(Subtask subtask);
 
+    /**
+     * Добавление набора задач, эпиков и подзадач по принципу «всё или ничего»: если хотя бы один элемент
+     * нельзя добавить, не добавляется ни один. Подзадача может ссылаться на эпик из того же набора,
+     * если у эпика задан идентификатор
+     *
+     * @param items Задачи, эпики и подзадачи
+     */
+    void addAll(Collection<? extends AbstractTask> items);
+
     /**
      * Редактирование задачи
      *
@@ -83,7 +95,7 @@ public interface TaskManager {
     List<AbstractTask> getAllEntities();
 
     /**
-     * Получение списка подзадач конкретного эпика
+     * Получение списка подзадач конкретного эпика. Подзадачи списка не попадают в историю просмотра
      *
      * @param epicId Идентификатор эпика
      * @return Список подзадач
@@ -113,7 +125,31 @@ public interface TaskManager {
     void deleteAllSubtasksInEpic(int epicId);
 
     /**
-     * Получение задачи по идентификатору
+     * Получение задачи по идентификатору без записи в историю просмотра
+     *
+     * @param id Идентификатор
+     * @return Задача
+     */
+    Task peekTaskById(int id);
+
+    /**
+     * Получение эпика по идентификатору без записи в историю просмотра
+     *
+     * @param id Идентификатор
+     * @return Эпик
+     */
+    Epic peekEpicById(int id);
+
+    /**
+     * Получение подзадачи по идентификатору без записи в историю просмотра
+     *
+     * @param id Идентификатор
+     * @return Подзадача
+     */
+    Subtask peekSubtaskById(int id);
+
+    /**
+     * Получение задачи по идентификатору с записью в историю просмотра
      *
      * @param id Идентификатор
      * @return Задача
@@ -121,7 +157,7 @@ public interface TaskManager {
     Task getTaskById(int id);
 
     /**
-     * Получение эпика по идентификатору
+     * Получение эпика по идентификатору с записью в историю просмотра
      *
      * @param id Идентификатор
      * @return Эпик
@@ -129,7 +165,7 @@ public interface TaskManager {
     Epic getEpicById(int id);
 
     /**
-     * Получение подзадачи по идентификатору
+     * Получение подзадачи по идентификатору с записью в историю просмотра
      *
      * @param id Идентификатор
      * @return Подзадача
@@ -157,6 +193,24 @@ public interface TaskManager {
      */
     void deleteSubtaskById(int id);
 
+    /**
+     * Удаление набора задач, эпиков и подзадач по идентификаторам. Вместе с эпиком удаляются его подзадачи.
+     * Если хотя бы один идентификатор не найден, не удаляется ничего
+     *
+     * @param ids Идентификаторы задач, эпиков и подзадач
+     */
+    void deleteByIds(Collection<Integer> ids);
+
+    /**
+     * Применение набора изменений как единого целого: операции выполняются по порядку,
+     * а при ошибке в любой из них уже выполненные операции отменяются.
+     * Изоляции нет: операции выполняются над текущими данными менеджера, и до отмены
+     * их могут увидеть читатели, не ожидающие завершения набора
+     *
+     * @param batch Набор изменений
+     */
+    void apply(TaskBatch batch);
+
     /**
      * Получение номера (идентификатора) для задачи
      *
@@ -179,9 +233,36 @@ public interface TaskManager {
     List<AbstractTask> getPrioritizedTasks();
 
     /**
-     * Получение истории просмотра задач (последние 10 задач)
+     * Получение задач из списка по приоритету, пересекающихся по времени с интервалом [from, to)
+     *
+     * @param from Начало интервала (null - без ограничения)
+     * @param to   Конец интервала (null - без ограничения)
+     * @return Отсортированный список задач
+     */
+    List<AbstractTask> getPrioritizedTasks(LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Поиск самого раннего свободного промежутка в списке по приоритету
+     *
+     * @param duration Длительность промежутка
+     * @param from     Время, не раньше которого должен начинаться промежуток
+     * @param horizon  Время, не позже которого должен закончиться промежуток (null - без ограничения)
+     * @return Время начала промежутка
+     */
+    LocalDateTime findFreeSlot(Duration duration, LocalDateTime from, LocalDateTime horizon);
+
+    /**
+     * Получение истории просмотра задач (не больше ёмкости истории)
      *
      * @return Список задач
      */
     List<AbstractTask> getHistory();
+
+    /**
+     * Получение последних просмотренных задач
+     *
+     * @param limit Максимальное количество задач (не отрицательное)
+     * @return Список задач в порядке просмотра
+     */
+    List<AbstractTask> getHistory(int limit);
 }
@@ -0,0 +1,47 @@
+package com.taskmanager.service.typeadapters;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.taskmanager.util.IntLinkedHashSet;
+
+import java.io.IOException;
+
+public class IntLinkedHashSetAdapter extends TypeAdapter<IntLinkedHashSet> {
+
+    @Override
+    public void write(final JsonWriter jsonWriter, final IntLinkedHashSet set) throws IOException {
+        if (set == null) {
+            jsonWriter.nullValue();
+            return;
+        }
+
+        // эпик изменяет множество под его монитором, поэтому обход не пересекается с изменением
+        final int[] values;
+        synchronized (set) {
+            values = set.toArray();
+        }
+        jsonWriter.beginArray();
+        for (int value : values) {
+            jsonWriter.value(value);
+        }
+        jsonWriter.endArray();
+    }
+
+    @Override
+    public IntLinkedHashSet read(final JsonReader jsonReader) throws IOException {
+        if (jsonReader.peek() == JsonToken.NULL) {
+            jsonReader.nextNull();
+            return null;
+        }
+
+        IntLinkedHashSet set = new IntLinkedHashSet();
+        jsonReader.beginArray();
+        while (jsonReader.hasNext()) {
+            set.add(jsonReader.nextInt());
+        }
+        jsonReader.endArray();
+        return set;
+    }
+}
@@ -0,0 +1,106 @@
+package com.taskmanager.util;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntConsumer;
+
+/**
+ * Потокобезопасное отображение с ключами типа int на основе {@link ConcurrentHashMap}
+ * <p>
+ * Чтение не блокируется и может идти параллельно с изменениями; обход отражает состояние
+ * отображения на некоторый момент во время обхода и не выбрасывает ConcurrentModificationException
+ *
+ * @param <V> Тип значений
+ */
+public class ConcurrentIntObjectMap<V> implements IntObjectMap<V> {
+    private final ConcurrentHashMap<Integer, V> map;
+
+    /**
+     * Конструктор
+     */
+    public ConcurrentIntObjectMap() {
+        this.map = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public V get(int key) {
+        return map.get(key);
+    }
+
+    @Override
+    public boolean containsKey(int key) {
+        return map.containsKey(key);
+    }
+
+    @Override
+    public V put(int key, V value) {
+        Objects.requireNonNull(value, "Значение не может быть null");
+        return map.put(key, value);
+    }
+
+    /**
+     * Добавление значения, если ключа ещё нет
+     *
+     * @param key   Ключ
+     * @param value Значение (не null)
+     * @return Текущее значение или null, если значение было добавлено
+     */
+    public V putIfAbsent(int key, V value) {
+        return map.putIfAbsent(key, value);
+    }
+
+    @Override
+    public V remove(int key) {
+        return map.remove(key);
+    }
+
+    @Override
+    public int size() {
+        return map.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return map.isEmpty();
+    }
+
+    @Override
+    public void clear() {
+        map.clear();
+    }
+
+    @Override
+    public void forEachKey(IntConsumer action) {
+        map.keySet().forEach(action::accept);
+    }
+
+    @Override
+    public void forEach(IntObjectConsumer<? super V> action) {
+        map.forEach(action::accept);
+    }
+
+    @Override
+    public Collection<V> values() {
+        return Collections.unmodifiableCollection(map.values());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ConcurrentIntObjectMap<?> that = (ConcurrentIntObjectMap<?>) o;
+        return map.equals(that.map);
+    }
+
+    @Override
+    public int hashCode() {
+        return map.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return map.toString();
+    }
+}
@@ -0,0 +1,320 @@
+package com.taskmanager.util;
+
+import java.util.*;
+import java.util.function.IntConsumer;
+
+/**
+ * Множество примитивных int с сохранением порядка добавления
+ * <p>
+ * Значения хранятся в плотных массивах со связным списком по индексам, а поиск идёт
+ * через хэш-таблицу с открытой адресацией ({@link OpenAddressing}), поэтому добавление,
+ * удаление и проверка наличия выполняются за O(1) без упаковки в Integer
+ */
+public class IntLinkedHashSet {
+    private static final int DEFAULT_CAPACITY = 8;
+    private static final int NONE = -1;
+
+    /**
+     * Хэш-таблица: номер записи + 1, 0 - свободная ячейка
+     */
+    private int[] table;
+
+    /**
+     * Значения записей
+     */
+    private int[] values;
+
+    /**
+     * Предыдущая запись в порядке добавления
+     */
+    private int[] prev;
+
+    /**
+     * Следующая запись в порядке добавления (для свободных записей - следующая свободная)
+     */
+    private int[] next;
+
+    private int head;
+    private int tail;
+    private int freeHead;
+    private int used;
+    private int size;
+
+    /**
+     * Конструктор
+     */
+    public IntLinkedHashSet() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Конструктор
+     *
+     * @param expectedSize Ожидаемое количество элементов
+     */
+    public IntLinkedHashSet(int expectedSize) {
+        final int capacity = Math.max(DEFAULT_CAPACITY, expectedSize);
+        this.table = new int[OpenAddressing.tableSizeFor(capacity)];
+        this.values = new int[capacity];
+        this.prev = new int[capacity];
+        this.next = new int[capacity];
+        this.head = NONE;
+        this.tail = NONE;
+        this.freeHead = NONE;
+    }
+
+    /**
+     * Конструктор копирования
+     *
+     * @param set Множество, для которого требуется копия
+     */
+    public IntLinkedHashSet(IntLinkedHashSet set) {
+        this.table = set.table.clone();
+        this.values = set.values.clone();
+        this.prev = set.prev.clone();
+        this.next = set.next.clone();
+        this.head = set.head;
+        this.tail = set.tail;
+        this.freeHead = set.freeHead;
+        this.used = set.used;
+        this.size = set.size;
+    }
+
+    /**
+     * Добавление значения в конец множества
+     *
+     * @param value Значение
+     * @return true, если значения ещё не было в множестве
+     */
+    public boolean add(int value) {
+        int slot = OpenAddressing.indexOf(table, values, value);
+        if (table[slot] != 0) {
+            return false;
+        }
+
+        if ((size + 1) * 2 > table.length) {
+            rehash(table.length * 2);
+            slot = OpenAddressing.indexOf(table, values, value);
+        }
+
+        final int entry = allocate();
+        values[entry] = value;
+        prev[entry] = tail;
+        next[entry] = NONE;
+        if (tail == NONE) {
+            head = entry;
+        } else {
+            next[tail] = entry;
+        }
+        tail = entry;
+
+        table[slot] = entry + 1;
+        size++;
+        return true;
+    }
+
+    /**
+     * Удаление значения
+     *
+     * @param value Значение
+     * @return true, если значение было в множестве
+     */
+    public boolean remove(int value) {
+        final int slot = OpenAddressing.indexOf(table, values, value);
+        if (table[slot] == 0) {
+            return false;
+        }
+
+        final int entry = table[slot] - 1;
+        if (prev[entry] == NONE) {
+            head = next[entry];
+        } else {
+            next[prev[entry]] = next[entry];
+        }
+        if (next[entry] == NONE) {
+            tail = prev[entry];
+        } else {
+            prev[next[entry]] = prev[entry];
+        }
+
+        next[entry] = freeHead;
+        freeHead = entry;
+
+        OpenAddressing.deleteSlot(table, values, slot);
+        size--;
+        return true;
+    }
+
+    /**
+     * Проверка наличия значения
+     *
+     * @param value Значение
+     * @return true, если значение есть в множестве
+     */
+    public boolean contains(int value) {
+        return table[OpenAddressing.indexOf(table, values, value)] != 0;
+    }
+
+    /**
+     * Получение количества элементов
+     *
+     * @return Количество элементов
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Проверка на пустоту
+     *
+     * @return true, если множество пустое
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Удаление всех элементов
+     */
+    public void clear() {
+        Arrays.fill(table, 0);
+        head = NONE;
+        tail = NONE;
+        freeHead = NONE;
+        used = 0;
+        size = 0;
+    }
+
+    /**
+     * Обход элементов в порядке добавления без упаковки в Integer
+     *
+     * @param action Действие для каждого элемента
+     */
+    public void forEach(IntConsumer action) {
+        for (int entry = head; entry != NONE; entry = next[entry]) {
+            action.accept(values[entry]);
+        }
+    }
+
+    /**
+     * Получение итератора по элементам в порядке добавления
+     *
+     * @return Итератор
+     */
+    public PrimitiveIterator.OfInt iterator() {
+        return new PrimitiveIterator.OfInt() {
+            private int entry = head;
+
+            @Override
+            public boolean hasNext() {
+                return entry != NONE;
+            }
+
+            @Override
+            public int nextInt() {
+                if (entry == NONE) {
+                    throw new NoSuchElementException();
+                }
+                final int value = values[entry];
+                entry = next[entry];
+                return value;
+            }
+        };
+    }
+
+    /**
+     * Получение элементов в виде массива в порядке добавления
+     *
+     * @return Массив элементов
+     */
+    public int[] toArray() {
+        final int[] result = new int[size];
+        int i = 0;
+        for (int entry = head; entry != NONE; entry = next[entry]) {
+            result[i++] = values[entry];
+        }
+        return result;
+    }
+
+    /**
+     * Получение неизменяемого представления множества в виде списка.
+     * Представление отражает изменения множества; contains и size выполняются за O(1),
+     * а get(index) проходит по элементам от начала
+     *
+     * @return Список элементов
+     */
+    public List<Integer> asList() {
+        return new ListView();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        IntLinkedHashSet that = (IntLinkedHashSet) o;
+        return Arrays.equals(toArray(), that.toArray());
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(toArray());
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+
+    private int allocate() {
+        if (freeHead != NONE) {
+            final int entry = freeHead;
+            freeHead = next[entry];
+            return entry;
+        }
+
+        if (used == values.length) {
+            final int capacity = values.length * 2;
+            values = Arrays.copyOf(values, capacity);
+            prev = Arrays.copyOf(prev, capacity);
+            next = Arrays.copyOf(next, capacity);
+        }
+        return used++;
+    }
+
+    private void rehash(int tableSize) {
+        table = new int[tableSize];
+        for (int entry = head; entry != NONE; entry = next[entry]) {
+            OpenAddressing.insert(table, values, entry);
+        }
+    }
+
+    /**
+     * Представление множества в виде списка
+     */
+    private class ListView extends AbstractList<Integer> {
+        @Override
+        public Integer get(int index) {
+            Objects.checkIndex(index, size);
+            int entry = head;
+            for (int i = 0; i < index; i++) {
+                entry = next[entry];
+            }
+            return values[entry];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return o instanceof Integer value && IntLinkedHashSet.this.contains(value);
+        }
+
+        @Override
+        public Iterator<Integer> iterator() {
+            return IntLinkedHashSet.this.iterator();
+        }
+    }
+}
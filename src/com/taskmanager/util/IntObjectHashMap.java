@@ -0,0 +1,318 @@
+package com.taskmanager.util;
+
+import java.util.*;
+import java.util.function.IntConsumer;
+
+/**
+ * Хэш-таблица с ключами примитивного типа int и открытой адресацией
+ * <p>
+ * Ключи и значения хранятся в двух параллельных массивах, поэтому на каждую запись не создаются
+ * ни упакованный Integer, ни объект записи, как в {@link HashMap}. Коллизии разрешаются линейным
+ * пробированием, при удалении следующие ячейки цепочки сдвигаются, так что «надгробий» не остаётся.
+ * Хэш ключа вычисляется так же, как в {@link HashMap}, поэтому небольшие последовательные
+ * идентификаторы обходятся по возрастанию. Значения null не поддерживаются
+ *
+ * @param <V> Тип значений
+ */
+public class IntObjectHashMap<V> implements IntObjectMap<V> {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * Максимальная заполненность таблицы в процентах
+     */
+    private static final int MAX_LOAD_PERCENT = 70;
+
+    private int[] keys;
+    private Object[] values;
+    private int size;
+
+    /**
+     * Конструктор
+     */
+    public IntObjectHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Конструктор
+     *
+     * @param expectedSize Ожидаемое количество записей
+     */
+    public IntObjectHashMap(int expectedSize) {
+        final int capacity = tableSizeFor(Math.max(DEFAULT_CAPACITY, expectedSize * 100 / MAX_LOAD_PERCENT + 1));
+        this.keys = new int[capacity];
+        this.values = new Object[capacity];
+    }
+
+    /**
+     * Получение значения по ключу
+     *
+     * @param key Ключ
+     * @return Значение или null, если ключа нет
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public V get(int key) {
+        return (V) values[indexOf(key)];
+    }
+
+    /**
+     * Проверка наличия ключа
+     *
+     * @param key Ключ
+     * @return true, если ключ есть в таблице
+     */
+    @Override
+    public boolean containsKey(int key) {
+        return values[indexOf(key)] != null;
+    }
+
+    /**
+     * Добавление или замена значения
+     *
+     * @param key   Ключ
+     * @param value Значение (не null)
+     * @return Предыдущее значение или null
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public V put(int key, V value) {
+        Objects.requireNonNull(value, "Значение не может быть null");
+
+        int slot = indexOf(key);
+        final V previous = (V) values[slot];
+        if (previous != null) {
+            values[slot] = value;
+            return previous;
+        }
+
+        if ((size + 1) * 100 > keys.length * MAX_LOAD_PERCENT) {
+            rehash(keys.length * 2);
+            slot = indexOf(key);
+        }
+
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+        return null;
+    }
+
+    /**
+     * Удаление значения по ключу
+     *
+     * @param key Ключ
+     * @return Удалённое значение или null, если ключа не было
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public V remove(int key) {
+        final int slot = indexOf(key);
+        final V previous = (V) values[slot];
+        if (previous != null) {
+            deleteSlot(slot);
+            size--;
+        }
+        return previous;
+    }
+
+    /**
+     * Получение количества записей
+     *
+     * @return Количество записей
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Проверка на пустоту
+     *
+     * @return true, если записей нет
+     */
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Удаление всех записей
+     */
+    @Override
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    /**
+     * Обход ключей без упаковки в Integer
+     *
+     * @param action Действие для каждого ключа
+     */
+    @Override
+    public void forEachKey(IntConsumer action) {
+        for (int slot = 0; slot < values.length; slot++) {
+            if (values[slot] != null) {
+                action.accept(keys[slot]);
+            }
+        }
+    }
+
+    /**
+     * Обход записей без упаковки ключей в Integer
+     *
+     * @param action Действие для каждой записи
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public void forEach(IntObjectConsumer<? super V> action) {
+        for (int slot = 0; slot < values.length; slot++) {
+            if (values[slot] != null) {
+                action.accept(keys[slot], (V) values[slot]);
+            }
+        }
+    }
+
+    /**
+     * Получение представления значений. Представление доступно только для чтения
+     * и отражает изменения таблицы
+     *
+     * @return Коллекция значений
+     */
+    @Override
+    public Collection<V> values() {
+        return new Values();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        IntObjectHashMap<?> that = (IntObjectHashMap<?>) o;
+        if (size != that.size) return false;
+
+        for (int slot = 0; slot < values.length; slot++) {
+            if (values[slot] != null && !values[slot].equals(that.get(keys[slot]))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 0;
+        for (int slot = 0; slot < values.length; slot++) {
+            if (values[slot] != null) {
+                result += keys[slot] ^ values[slot].hashCode();
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        final StringJoiner joiner = new StringJoiner(", ", "{", "}");
+        forEach((key, value) -> joiner.add(key + "=" + value));
+        return joiner.toString();
+    }
+
+    /**
+     * Поиск ячейки ключа или свободной ячейки, куда его можно поместить
+     */
+    private int indexOf(int key) {
+        final int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (values[slot] != null && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Освобождение ячейки со сдвигом следующих за ней ячеек той же цепочки
+     */
+    private void deleteSlot(int slot) {
+        final int mask = keys.length - 1;
+        int gap = slot;
+        int current = (slot + 1) & mask;
+
+        while (values[current] != null) {
+            final int home = hash(keys[current]) & mask;
+            if (((current - home) & mask) >= ((current - gap) & mask)) {
+                keys[gap] = keys[current];
+                values[gap] = values[current];
+                gap = current;
+            }
+            current = (current + 1) & mask;
+        }
+        values[gap] = null;
+    }
+
+    private void rehash(int capacity) {
+        final int[] oldKeys = keys;
+        final Object[] oldValues = values;
+        keys = new int[capacity];
+        values = new Object[capacity];
+
+        final int mask = capacity - 1;
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != null) {
+                int slot = hash(oldKeys[i]) & mask;
+                while (values[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private static int hash(int key) {
+        return key ^ (key >>> 16);
+    }
+
+    private static int tableSizeFor(int capacity) {
+        return Integer.highestOneBit(capacity - 1) << 1;
+    }
+
+    /**
+     * Представление значений таблицы
+     */
+    private class Values extends AbstractCollection<V> {
+        @Override
+        public Iterator<V> iterator() {
+            return new Iterator<>() {
+                private int slot = advance(0);
+
+                @Override
+                public boolean hasNext() {
+                    return slot < values.length;
+                }
+
+                @Override
+                @SuppressWarnings("unchecked")
+                public V next() {
+                    if (slot >= values.length) {
+                        throw new NoSuchElementException();
+                    }
+                    final V value = (V) values[slot];
+                    slot = advance(slot + 1);
+                    return value;
+                }
+
+                private int advance(int from) {
+                    while (from < values.length && values[from] == null) {
+                        from++;
+                    }
+                    return from;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
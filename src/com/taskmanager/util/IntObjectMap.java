@@ -0,0 +1,95 @@
+package com.taskmanager.util;
+
+import java.util.Collection;
+import java.util.function.IntConsumer;
+
+/**
+ * Отображение с ключами примитивного типа int. Значения null не поддерживаются
+ *
+ * @param <V> Тип значений
+ */
+public interface IntObjectMap<V> {
+
+    /**
+     * Получение значения по ключу
+     *
+     * @param key Ключ
+     * @return Значение или null, если ключа нет
+     */
+    V get(int key);
+
+    /**
+     * Проверка наличия ключа
+     *
+     * @param key Ключ
+     * @return true, если ключ есть в отображении
+     */
+    boolean containsKey(int key);
+
+    /**
+     * Добавление или замена значения
+     *
+     * @param key   Ключ
+     * @param value Значение (не null)
+     * @return Предыдущее значение или null
+     */
+    V put(int key, V value);
+
+    /**
+     * Удаление значения по ключу
+     *
+     * @param key Ключ
+     * @return Удалённое значение или null, если ключа не было
+     */
+    V remove(int key);
+
+    /**
+     * Получение количества записей
+     *
+     * @return Количество записей
+     */
+    int size();
+
+    /**
+     * Проверка на пустоту
+     *
+     * @return true, если записей нет
+     */
+    boolean isEmpty();
+
+    /**
+     * Удаление всех записей
+     */
+    void clear();
+
+    /**
+     * Обход ключей
+     *
+     * @param action Действие для каждого ключа
+     */
+    void forEachKey(IntConsumer action);
+
+    /**
+     * Обход записей
+     *
+     * @param action Действие для каждой записи
+     */
+    void forEach(IntObjectConsumer<? super V> action);
+
+    /**
+     * Получение представления значений, доступного только для чтения
+     *
+     * @return Коллекция значений
+     */
+    Collection<V> values();
+
+    /**
+     * Действие над записью отображения
+     *
+     * @param <V> Тип значения
+     */
+    @FunctionalInterface
+    interface IntObjectConsumer<V> {
+        void accept(int key, V value);
+    }
+}
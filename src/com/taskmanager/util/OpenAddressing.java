@@ -0,0 +1,86 @@
+package com.taskmanager.util;
+
+/**
+ * Хэш-таблица индексов с открытой адресацией для структур на параллельных массивах
+ * <p>
+ * Ячейка таблицы хранит номер записи + 1 (0 - свободная ячейка), а ключ записи лежит
+ * в отдельном массиве ключей по её номеру. Коллизии разрешаются линейным пробированием,
+ * при удалении следующие ячейки цепочки сдвигаются, так что «надгробий» не остаётся.
+ * Размер таблицы - степень двойки
+ */
+public final class OpenAddressing {
+
+    private OpenAddressing() {
+    }
+
+    /**
+     * Поиск ячейки ключа или свободной ячейки, куда его можно поместить
+     *
+     * @param table Таблица индексов
+     * @param keys  Ключи записей
+     * @param key   Ключ
+     * @return Номер ячейки
+     */
+    public static int indexOf(int[] table, int[] keys, int key) {
+        final int mask = table.length - 1;
+        int slot = hash(key) & mask;
+        while (table[slot] != 0 && keys[table[slot] - 1] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Добавление записи, ключа которой ещё нет в таблице
+     *
+     * @param table Таблица индексов
+     * @param keys  Ключи записей
+     * @param entry Номер записи
+     */
+    public static void insert(int[] table, int[] keys, int entry) {
+        final int mask = table.length - 1;
+        int slot = hash(keys[entry]) & mask;
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = entry + 1;
+    }
+
+    /**
+     * Освобождение ячейки со сдвигом следующих за ней ячеек той же цепочки
+     *
+     * @param table Таблица индексов
+     * @param keys  Ключи записей
+     * @param slot  Номер освобождаемой ячейки
+     */
+    public static void deleteSlot(int[] table, int[] keys, int slot) {
+        final int mask = table.length - 1;
+        int gap = slot;
+        int current = (slot + 1) & mask;
+
+        while (table[current] != 0) {
+            final int home = hash(keys[table[current] - 1]) & mask;
+            if (((current - home) & mask) >= ((current - gap) & mask)) {
+                table[gap] = table[current];
+                gap = current;
+            }
+            current = (current + 1) & mask;
+        }
+        table[gap] = 0;
+    }
+
+    /**
+     * Размер таблицы для заданного количества записей: не меньше чем вдвое больше, степень двойки
+     *
+     * @param capacity Количество записей
+     * @return Размер таблицы
+     */
+    public static int tableSizeFor(int capacity) {
+        return Integer.highestOneBit(capacity * 2 - 1) * 2;
+    }
+
+    private static int hash(int key) {
+        final int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,72 @@
+package com.taskmanager.benchmark;
+
+import com.taskmanager.model.Task;
+import com.taskmanager.util.IntObjectHashMap;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Сравнение занимаемой кучи хранилищами задач: {@link HashMap} с ключами Integer
+ * и {@link IntObjectHashMap} с примитивными ключами.
+ * Объекты задач общие для обоих хранилищ, поэтому измеряются только накладные расходы самих таблиц.
+ * Запуск: java -cp ... com.taskmanager.benchmark.EntityStoreFootprint [количество]
+ */
+public class EntityStoreFootprint {
+    private static final int DEFAULT_COUNT = 1_000_000;
+
+    /**
+     * Измеряемое хранилище; поле не даёт сборщику мусора освободить его до замера
+     */
+    private static Object store;
+
+    public static void main(String[] args) {
+        final int count = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_COUNT;
+
+        final Task[] tasks = new Task[count];
+        for (int i = 0; i < count; i++) {
+            tasks[i] = new Task(i + 1, "task" + i);
+        }
+
+        final long hashMapBytes = measureHashMap(tasks);
+        final long intMapBytes = measureIntObjectHashMap(tasks);
+
+        System.out.printf("HashMap<Integer, Task>:  %,d байт (%.1f байт на запись)%n",
+                hashMapBytes, (double) hashMapBytes / count);
+        System.out.printf("IntObjectHashMap<Task>:  %,d байт (%.1f байт на запись)%n",
+                intMapBytes, (double) intMapBytes / count);
+        System.out.printf("Экономия: %.1f%%%n", 100.0 * (hashMapBytes - intMapBytes) / hashMapBytes);
+    }
+
+    private static long measureHashMap(Task[] tasks) {
+        final long before = usedMemory();
+        final Map<Integer, Task> map = new HashMap<>();
+        for (Task task : tasks) {
+            map.put(task.getId(), task);
+        }
+        store = map;
+        final long result = usedMemory() - before;
+        store = null;
+        return result;
+    }
+
+    private static long measureIntObjectHashMap(Task[] tasks) {
+        final long before = usedMemory();
+        final IntObjectHashMap<Task> map = new IntObjectHashMap<>();
+        for (Task task : tasks) {
+            map.put(task.getId(), task);
+        }
+        store = map;
+        final long result = usedMemory() - before;
+        store = null;
+        return result;
+    }
+
+    private static long usedMemory() {
+        final Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
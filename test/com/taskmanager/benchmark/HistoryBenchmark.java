@@ -0,0 +1,71 @@
+package com.taskmanager.benchmark;
+
+import com.taskmanager.model.Task;
+import com.taskmanager.service.managers.ArrayHistoryManager;
+import com.taskmanager.service.managers.HistoryManager;
+import com.taskmanager.service.managers.InMemoryHistoryManager;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+/**
+ * Сравнение менеджеров истории {@link InMemoryHistoryManager} и {@link ArrayHistoryManager}
+ * на потоке просмотров случайных задач: время и объём памяти, выделенной на просмотры и чтение истории.
+ * Запуск: java -cp ... com.taskmanager.benchmark.HistoryBenchmark [просмотров] [задач] [ёмкость]
+ */
+public class HistoryBenchmark {
+    private static final int DEFAULT_VIEWS = 1_000_000;
+    private static final int DEFAULT_TASKS = 10_000;
+    private static final int DEFAULT_CAPACITY = 1_000;
+    private static final int ROUNDS = 5;
+
+    /**
+     * Результат замера; поле не даёт JIT-компилятору выбросить вычисления
+     */
+    private static long sink;
+
+    public static void main(String[] args) {
+        final int views = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_VIEWS;
+        final int taskCount = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_TASKS;
+        final int capacity = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_CAPACITY;
+
+        final Task[] tasks = new Task[taskCount];
+        for (int i = 0; i < taskCount; i++) {
+            tasks[i] = new Task(i + 1, "task" + i);
+        }
+        final int[] workload = new int[views];
+        final Random random = new Random(42);
+        for (int i = 0; i < views; i++) {
+            workload[i] = random.nextInt(taskCount);
+        }
+
+        for (int round = 1; round <= ROUNDS; round++) {
+            System.out.printf("Раунд %d (%,d просмотров, %,d задач, ёмкость %,d)%n", round, views, taskCount, capacity);
+            run("InMemoryHistoryManager", new InMemoryHistoryManager(capacity), tasks, workload);
+            run("ArrayHistoryManager   ", new ArrayHistoryManager(capacity), tasks, workload);
+        }
+    }
+
+    private static void run(String name, HistoryManager historyManager, Task[] tasks, int[] workload) {
+        final long allocatedBefore = allocatedBytes();
+        final long start = System.nanoTime();
+        for (int index : workload) {
+            historyManager.add(tasks[index]);
+        }
+        final long viewsTime = System.nanoTime() - start;
+        final long viewsAllocated = allocatedBytes() - allocatedBefore;
+
+        final long readStart = System.nanoTime();
+        sink += historyManager.getHistory().size();
+        final long readTime = System.nanoTime() - readStart;
+
+        System.out.printf("  %s: просмотры %,d мс (%.1f нс на просмотр, %.1f байт на просмотр), getHistory %,d мкс%n",
+                name, viewsTime / 1_000_000, (double) viewsTime / workload.length,
+                (double) viewsAllocated / workload.length, readTime / 1_000);
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().threadId());
+    }
+}
@@ -0,0 +1,98 @@
+package com.taskmanager.benchmark;
+
+import com.taskmanager.model.Epic;
+import com.taskmanager.model.Subtask;
+import com.taskmanager.model.Task;
+import com.taskmanager.service.formats.BinarySnapshotFormat;
+import com.taskmanager.service.formats.CsvSnapshotFormat;
+import com.taskmanager.service.formats.SnapshotFormat;
+import com.taskmanager.service.formats.TaskSnapshot;
+import com.taskmanager.service.managers.FileBackedTaskManager;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Сравнение форматов снимка {@link CsvSnapshotFormat} и {@link BinarySnapshotFormat}:
+ * время записи и чтения снимка, размер файла и время загрузки {@link FileBackedTaskManager} из файла.
+ * Запуск: java -cp ... com.taskmanager.benchmark.SnapshotFormatBenchmark [сущностей]
+ */
+public class SnapshotFormatBenchmark {
+    private static final int DEFAULT_ENTITIES = 1_000_000;
+    private static final int SUBTASKS_PER_EPIC = 8;
+    private static final int ROUNDS = 3;
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    /**
+     * Результат замера; поле не даёт JIT-компилятору выбросить вычисления
+     */
+    private static long sink;
+
+    public static void main(String[] args) throws IOException {
+        final int entities = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_ENTITIES;
+        final TaskSnapshot snapshot = createSnapshot(entities);
+
+        for (int round = 1; round <= ROUNDS; round++) {
+            System.out.printf("Раунд %d (%,d сущностей)%n", round, snapshot.size());
+            run("CSV     ", new CsvSnapshotFormat(), snapshot);
+            run("Двоичный", new BinarySnapshotFormat(), snapshot);
+        }
+    }
+
+    private static void run(String name, SnapshotFormat format, TaskSnapshot snapshot) throws IOException {
+        final File file = Files.createTempFile("snapshot", ".bin").toFile();
+        try {
+            final long writeStart = System.nanoTime();
+            try (OutputStream out = new FileOutputStream(file)) {
+                format.write(out, snapshot);
+            }
+            final long writeTime = System.nanoTime() - writeStart;
+
+            final long readStart = System.nanoTime();
+            try (InputStream in = new FileInputStream(file)) {
+                sink += format.read(in).size();
+            }
+            final long readTime = System.nanoTime() - readStart;
+
+            final long loadStart = System.nanoTime();
+            sink += new FileBackedTaskManager(file).getAllEntities().size();
+            final long loadTime = System.nanoTime() - loadStart;
+
+            System.out.printf("  %s: запись %,d мс, чтение %,d мс, загрузка менеджера %,d мс, файл %,d КБ%n",
+                    name, writeTime / 1_000_000, readTime / 1_000_000, loadTime / 1_000_000, file.length() / 1024);
+        } finally {
+            Files.deleteIfExists(file.toPath());
+        }
+    }
+
+    /**
+     * Снимок из задач, эпиков и подзадач поровну по количеству эпиков с подзадачами
+     * и непересекающимися интервалами времени
+     */
+    private static TaskSnapshot createSnapshot(int entities) {
+        final int epicCount = entities / (SUBTASKS_PER_EPIC + 2 + SUBTASKS_PER_EPIC);
+        final List<Task> tasks = new ArrayList<>();
+        final List<Epic> epics = new ArrayList<>();
+        final List<Subtask> subtasks = new ArrayList<>();
+        int id = 0;
+        LocalDateTime time = START;
+
+        for (int i = 0; i < epicCount; i++) {
+            final Epic epic = new Epic(++id, "Эпик " + i, "Описание эпика " + i);
+            epics.add(epic);
+            for (int j = 0; j < SUBTASKS_PER_EPIC; j++) {
+                subtasks.add(new Subtask(++id, "Подзадача " + id, "Описание", epic.getId(), time, Duration.ofMinutes(15)));
+                time = time.plusMinutes(20);
+            }
+        }
+        while (id < entities) {
+            tasks.add(new Task(++id, "Задача " + id, "Описание задачи", time, Duration.ofMinutes(30)));
+            time = time.plusMinutes(40);
+        }
+        return new TaskSnapshot(0, tasks, epics, subtasks);
+    }
+}
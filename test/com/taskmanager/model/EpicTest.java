@@ -1,8 +1,17 @@
 package com.taskmanager.model;
 
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import com.taskmanager.service.typeadapters.DurationAdapter;
+import com.taskmanager.service.typeadapters.LocalDateTimeAdapter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -66,4 +75,20 @@ class EpicTest {
 
         assertEquals(epic, epicToCompare, "Два эпика с одинаковым id должны быть эквивалентны");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void checkSubtaskListInJson() {
+        Gson gson = new GsonBuilder()
+                .registerTypeAdapter(Duration.class, new DurationAdapter())
+                .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
+                .create();
+        epic.addNewSubtask(3);
+        epic.addNewSubtask(2);
+
+        JsonObject object = gson.toJsonTree(epic).getAsJsonObject();
+        Epic epicFromJson = gson.fromJson(object, Epic.class);
+
+        assertEquals("[3,2]", object.get("subtaskList").toString(), "Подзадачи должны сериализоваться массивом");
+        assertEquals(List.of(3, 2), epicFromJson.getSubtaskList(), "Подзадачи не восстановились из JSON");
+    }
+}
@@ -0,0 +1,75 @@
+package com.taskmanager.service;
+
+import com.taskmanager.model.AbstractTask;
+import com.taskmanager.model.Epic;
+import com.taskmanager.model.Task;
+import com.taskmanager.service.managers.ArrayHistoryManager;
+import com.taskmanager.service.managers.InMemoryHistoryManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArrayHistoryManagerTest {
+    private ArrayHistoryManager historyManager;
+
+    @BeforeEach
+    public void prepare() {
+        historyManager = new ArrayHistoryManager(3);
+    }
+
+    @Test
+    void checkAddAndRemove() {
+        Epic epic = new Epic(1, "testEpic");
+        Task task1 = new Task(2, "testTask1");
+        Task task2 = new Task(3, "testTask2");
+
+        historyManager.add(epic);
+        historyManager.add(task1);
+        historyManager.add(task2);
+        historyManager.add(epic);
+
+        assertEquals(List.of(task1, task2, epic), historyManager.getHistory(), "Повторный просмотр должен переносить задачу в конец");
+
+        historyManager.remove(task2.getId());
+        historyManager.remove(100);
+        assertEquals(List.of(task1, epic), historyManager.getHistory(), "Ожидался список без удалённой задачи");
+        assertEquals(List.of(epic), historyManager.getHistory(1), "Ожидалась последняя просмотренная задача");
+    }
+
+    @Test
+    void checkEvictLeastRecentlyViewed() {
+        for (int id = 1; id <= 5; id++) {
+            historyManager.add(new Task(id, "testTask" + id));
+        }
+
+        assertEquals(List.of(3, 4, 5), historyManager.getHistory().stream().map(AbstractTask::getId).toList(),
+                "Должны были вытесниться давно просмотренные задачи");
+        assertThrows(IllegalArgumentException.class, () -> new ArrayHistoryManager(0));
+    }
+
+    @Test
+    void checkSameOrderAsInMemoryHistoryManager() {
+        ArrayHistoryManager arrayHistory = new ArrayHistoryManager(50);
+        InMemoryHistoryManager linkedHistory = new InMemoryHistoryManager(50);
+        Random random = new Random(42);
+
+        for (int i = 0; i < 10_000; i++) {
+            int id = random.nextInt(200);
+            if (random.nextInt(10) == 0) {
+                arrayHistory.remove(id);
+                linkedHistory.remove(id);
+            } else {
+                Task task = new Task(id, "testTask" + id);
+                arrayHistory.add(task);
+                linkedHistory.add(task);
+            }
+        }
+
+        assertEquals(linkedHistory.getHistory(), arrayHistory.getHistory(), "Истории должны совпадать");
+        assertEquals(linkedHistory.getHistory(7), arrayHistory.getHistory(7), "Истории должны совпадать");
+    }
+}
@@ -0,0 +1,92 @@
+package com.taskmanager.service;
+
+import com.taskmanager.model.Task;
+import com.taskmanager.service.managers.AsyncHistoryManager;
+import com.taskmanager.service.managers.AsyncHistoryManager.Consistency;
+import com.taskmanager.service.managers.InMemoryHistoryManager;
+import com.taskmanager.service.managers.InMemoryTaskManager;
+import com.taskmanager.service.managers.Managers;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncHistoryManagerTest {
+    private static final Duration NEVER = Duration.ofHours(1);
+
+    @Test
+    public void checkFlushBeforeRead() {
+        try (AsyncHistoryManager historyManager = AsyncHistoryManager.start(new InMemoryHistoryManager(), NEVER, Consistency.FLUSH)) {
+            Task task1 = new Task(1, "task1");
+            Task task2 = new Task(2, "task2");
+            historyManager.add(task1);
+            historyManager.add(task2);
+            historyManager.add(task1);
+
+            assertEquals(3, historyManager.getPendingCount(), "События не должны применяться до чтения");
+            assertEquals(List.of(task2, task1), historyManager.getHistory(), "Повторный просмотр должен переносить задачу в конец");
+            assertEquals(0, historyManager.getPendingCount());
+
+            historyManager.remove(task2.getId());
+            assertEquals(List.of(task1), historyManager.getHistory(1));
+        }
+    }
+
+    @Test
+    public void checkStaleReadUntilDrained() {
+        try (AsyncHistoryManager historyManager = Managers.getAsyncHistory(NEVER, Consistency.STALE)) {
+            Task task = new Task(1, "task1");
+            historyManager.add(task);
+
+            assertTrue(historyManager.getHistory().isEmpty(), "История должна была отставать до записи пачки");
+
+            historyManager.flush();
+            assertEquals(List.of(task), historyManager.getHistory());
+        }
+    }
+
+    @Test
+    public void checkCollapsedBatchMatchesSequentialHistory() {
+        try (AsyncHistoryManager asyncHistory = AsyncHistoryManager.start(new InMemoryHistoryManager(20), NEVER, Consistency.FLUSH)) {
+            InMemoryHistoryManager history = new InMemoryHistoryManager(20);
+            Random random = new Random(42);
+
+            for (int i = 0; i < 10_000; i++) {
+                int id = random.nextInt(50);
+                if (random.nextInt(5) == 0) {
+                    asyncHistory.remove(id);
+                    history.remove(id);
+                } else {
+                    Task task = new Task(id, "task" + id);
+                    asyncHistory.add(task);
+                    history.add(task);
+                }
+                if (random.nextInt(1_000) == 0) {
+                    asyncHistory.flush();
+                }
+            }
+
+            assertEquals(history.getHistory(), asyncHistory.getHistory(), "Истории должны совпадать");
+        }
+    }
+
+    @Test
+    public void checkBackgroundDrain() throws InterruptedException {
+        try (AsyncHistoryManager historyManager = Managers.getAsyncHistory(Duration.ofMillis(10), Consistency.STALE)) {
+            InMemoryTaskManager taskManager = new InMemoryTaskManager(historyManager);
+            Task task = new Task("task", "description");
+            taskManager.addTask(task);
+            taskManager.getTaskById(task.getId());
+
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (taskManager.getHistory().isEmpty() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+
+            assertEquals(List.of(task), taskManager.getHistory(), "Просмотр должен был записаться фоновым потоком");
+        }
+    }
+}
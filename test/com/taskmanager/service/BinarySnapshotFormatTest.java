@@ -0,0 +1,114 @@
+package com.taskmanager.service;
+
+import com.taskmanager.model.AbstractTask;
+import com.taskmanager.model.Epic;
+import com.taskmanager.model.Status;
+import com.taskmanager.model.Subtask;
+import com.taskmanager.model.Task;
+import com.taskmanager.service.exceptions.ManagerReadException;
+import com.taskmanager.service.formats.BinarySnapshotFormat;
+import com.taskmanager.service.formats.CsvSnapshotFormat;
+import com.taskmanager.service.formats.SnapshotFormat;
+import com.taskmanager.service.formats.TaskSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinarySnapshotFormatTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 10, 10, 0, 15, 123_456_789);
+
+    private final SnapshotFormat format = new BinarySnapshotFormat();
+
+    @Test
+    public void checkRoundTrip() throws IOException {
+        Task task = new Task(1, "Задача, с запятой", "Описание\nв две строки", START, Duration.ofMinutes(90));
+        task.setStatus(Status.IN_PROGRESS);
+        Task taskWithoutTime = new Task(2, "Задача без времени", null);
+        Epic epic = new Epic(300, "Эпик");
+        epic.setStartTime(START.minusYears(60));
+        epic.setDuration(Duration.ofHours(2));
+        epic.setStatus(Status.DONE);
+        Subtask subtask = new Subtask(70_000, "Подзадача", "", 300, START.plusDays(1), Duration.ZERO);
+
+        TaskSnapshot snapshot = roundTrip(new TaskSnapshot(7, List.of(task, taskWithoutTime), List.of(epic), List.of(subtask)));
+
+        assertEquals(7, snapshot.getLogSegment(), "Номер сегмента журнала должен сохраниться");
+        assertEquals(4, snapshot.size());
+        assertSameFields(task, snapshot.getTasks().get(0));
+        assertSameFields(taskWithoutTime, snapshot.getTasks().get(1));
+        assertNull(snapshot.getTasks().get(1).getDescription(), "Пустое описание должно остаться null");
+        assertSameFields(epic, snapshot.getEpics().get(0));
+        assertEquals(START.minusYears(60).plusHours(2), snapshot.getEpics().get(0).getEndTime(),
+                "Время окончания эпика должно вычисляться при чтении");
+        assertSameFields(subtask, snapshot.getSubtasks().get(0));
+        assertEquals(300, snapshot.getSubtasks().get(0).getEpicId());
+    }
+
+    @Test
+    public void checkSmallerThanCsv() throws IOException {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 1; i <= 1_000; i++) {
+            tasks.add(new Task(i, "Задача " + i, "Описание", START.plusHours(i), Duration.ofMinutes(30)));
+        }
+        TaskSnapshot snapshot = new TaskSnapshot(0, tasks, List.of(), List.of());
+
+        ByteArrayOutputStream binary = new ByteArrayOutputStream();
+        format.write(binary, snapshot);
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        new CsvSnapshotFormat().write(csv, snapshot);
+
+        assertTrue(binary.size() < csv.size(), "Двоичный снимок должен быть компактнее текстового: "
+                + binary.size() + " и " + csv.size());
+    }
+
+    @Test
+    public void checkExceptionUnknownVersion() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        format.write(out, new TaskSnapshot(0, List.of(), List.of(), List.of()));
+        byte[] bytes = out.toByteArray();
+        bytes[4] = (byte) (BinarySnapshotFormat.VERSION + 1);
+
+        assertThrows(ManagerReadException.class, () -> format.read(new ByteArrayInputStream(bytes)),
+                "Должно было появиться исключение типа " + ManagerReadException.class.getSimpleName());
+    }
+
+    @Test
+    public void checkExceptionWrongContent() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        format.write(out, new TaskSnapshot(0, List.of(new Task(1, "Задача")), List.of(), List.of()));
+        byte[] bytes = out.toByteArray();
+
+        assertThrows(ManagerReadException.class,
+                () -> format.read(new ByteArrayInputStream("id,type,name".getBytes())),
+                "Должно было появиться исключение типа " + ManagerReadException.class.getSimpleName());
+        assertThrows(EOFException.class,
+                () -> format.read(new ByteArrayInputStream(Arrays.copyOf(bytes, bytes.length - 3))),
+                "Должно было появиться исключение типа " + EOFException.class.getSimpleName());
+    }
+
+    private TaskSnapshot roundTrip(TaskSnapshot snapshot) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        format.write(out, snapshot);
+        return format.read(new ByteArrayInputStream(out.toByteArray()));
+    }
+
+    private static void assertSameFields(AbstractTask expected, AbstractTask actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getName(), actual.getName());
+        assertEquals(expected.getDescription(), actual.getDescription());
+        assertEquals(expected.getStatus(), actual.getStatus());
+        assertEquals(expected.getStartTime(), actual.getStartTime());
+        assertEquals(expected.getDuration(), actual.getDuration());
+    }
+}
@@ -0,0 +1,325 @@
+package com.taskmanager.service;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.taskmanager.model.*;
+import com.taskmanager.service.exceptions.AlreadyExistsException;
+import com.taskmanager.service.exceptions.NotFoundException;
+import com.taskmanager.service.exceptions.TimeOverlapException;
+import com.taskmanager.service.managers.ConcurrentTaskManager;
+import com.taskmanager.service.managers.ConcurrentTaskManager.LockingMode;
+import com.taskmanager.service.typeadapters.DurationAdapter;
+import com.taskmanager.service.typeadapters.LocalDateTimeAdapter;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentTaskManagerTest {
+
+    private static final int THREADS = 8;
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 10, 10, 0);
+
+    @Test
+    public void checkParallelAddKeepsScheduleWithoutOverlaps() throws InterruptedException {
+        checkParallelAddKeepsScheduleWithoutOverlaps(new ConcurrentTaskManager(LockingMode.GLOBAL));
+    }
+
+    @Test
+    public void checkParallelAddKeepsScheduleWithoutOverlapsWithEpicStripes() throws InterruptedException {
+        checkParallelAddKeepsScheduleWithoutOverlaps(new ConcurrentTaskManager(LockingMode.EPIC_STRIPES));
+    }
+
+    @Test
+    public void checkParallelSubtaskChangesKeepEpicAggregates() throws InterruptedException {
+        checkParallelSubtaskChangesKeepEpicAggregates(new ConcurrentTaskManager(LockingMode.GLOBAL));
+    }
+
+    @Test
+    public void checkParallelSubtaskChangesKeepEpicAggregatesWithEpicStripes() throws InterruptedException {
+        checkParallelSubtaskChangesKeepEpicAggregates(new ConcurrentTaskManager(LockingMode.EPIC_STRIPES));
+    }
+
+    @Test
+    public void checkParallelReadsDuringWrites() throws InterruptedException {
+        checkParallelReadsDuringWrites(new ConcurrentTaskManager(LockingMode.GLOBAL));
+    }
+
+    @Test
+    public void checkParallelReadsDuringWritesWithEpicStripes() throws InterruptedException {
+        checkParallelReadsDuringWrites(new ConcurrentTaskManager(LockingMode.EPIC_STRIPES));
+    }
+
+    @Test
+    public void checkParallelIdsAreUnique() throws InterruptedException {
+        ConcurrentTaskManager taskManager = new ConcurrentTaskManager();
+        Set<Integer> ids = ConcurrentHashMap.newKeySet();
+
+        runInParallel(thread -> {
+            for (int i = 0; i < 10_000; i++) {
+                assertTrue(ids.add(taskManager.getNextId()), "Идентификатор выдан повторно");
+            }
+        });
+
+        assertEquals(THREADS * 10_000, ids.size(), "Ожидалось другое количество идентификаторов");
+    }
+
+    @Test
+    public void checkEpicStripesLetOtherEpicsProceed() throws Exception {
+        ConcurrentTaskManager taskManager = new ConcurrentTaskManager(LockingMode.EPIC_STRIPES);
+        Epic epic1 = new Epic("epic1", "desc");
+        Epic epic2 = new Epic("epic2", "desc");
+        taskManager.addEpic(epic1);
+        taskManager.addEpic(epic2);
+
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean armed = new AtomicBoolean();
+        // подзадача задерживает изменение первого эпика, пока удерживается его блокировка
+        Subtask blocking = new Subtask("blocking", epic1.getId()) {
+            @Override
+            public Status getStatus() {
+                if (armed.compareAndSet(true, false)) {
+                    entered.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return super.getStatus();
+            }
+        };
+        armed.set(true);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> blocked = executor.submit(() -> taskManager.addSubtask(blocking));
+            assertTrue(entered.await(10, TimeUnit.SECONDS), "Изменение первого эпика не началось");
+
+            Future<?> other = executor.submit(() -> taskManager.addSubtask(new Subtask("other", epic2.getId())));
+            assertDoesNotThrow(() -> other.get(10, TimeUnit.SECONDS),
+                    "Изменение другого эпика не должно ждать блокировку первого");
+            assertFalse(blocked.isDone(), "Изменение первого эпика должно было ждать");
+
+            release.countDown();
+            blocked.get(10, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+
+        assertEquals(Set.of(epic1.getId(), epic2.getId()),
+                Set.copyOf(taskManager.getSubtasks().stream().map(Subtask::getEpicId).toList()));
+    }
+
+    @Test
+    public void checkEpicSubtaskIdsReadDuringAdds() throws InterruptedException {
+        ConcurrentTaskManager taskManager = new ConcurrentTaskManager(LockingMode.EPIC_STRIPES);
+        Epic epic = new Epic("epic", "desc");
+        taskManager.addEpic(epic);
+        Gson gson = new GsonBuilder()
+                .registerTypeAdapter(Duration.class, new DurationAdapter())
+                .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
+                .create();
+
+        runInParallel(thread -> {
+            for (int i = 0; i < 2_000; i++) {
+                if (thread == 0) {
+                    // удаление освобождает записи множества, и следующие добавления их переиспользуют
+                    Subtask subtask = new Subtask("subtask" + i, epic.getId());
+                    taskManager.addSubtask(subtask);
+                    if (i % 2 == 1) {
+                        taskManager.deleteSubtaskById(subtask.getId() - 1);
+                    }
+                    continue;
+                }
+                // подзадачи добавляются по возрастанию идентификаторов, поэтому любой согласованный набор упорядочен
+                int[] ids = thread % 2 == 0
+                        ? taskManager.peekEpicById(epic.getId()).getSubtaskIds()
+                        : gson.fromJson(gson.toJson(taskManager.peekEpicById(epic.getId())), Epic.class).getSubtaskIds();
+                for (int j = 1; j < ids.length; j++) {
+                    assertTrue(ids[j - 1] < ids[j], "Прочитан несогласованный набор подзадач эпика");
+                }
+            }
+        });
+
+        assertEquals(1_000, epic.getSubtaskCount());
+    }
+
+    private static void checkParallelAddKeepsScheduleWithoutOverlaps(ConcurrentTaskManager taskManager) throws InterruptedException {
+        AtomicInteger added = new AtomicInteger();
+        Set<Task> rejected = ConcurrentHashMap.newKeySet();
+
+        runInParallel(thread -> {
+            Random random = new Random(thread);
+            for (int i = 0; i < 500; i++) {
+                Task task = new Task("task" + thread + "_" + i, "desc",
+                        START.plusMinutes(15L * random.nextInt(2_000)), Duration.ofMinutes(15 + random.nextInt(4) * 15));
+                try {
+                    taskManager.addTask(task);
+                    added.incrementAndGet();
+                } catch (TimeOverlapException e) {
+                    rejected.add(task);
+                }
+            }
+        });
+
+        assertEquals(added.get(), taskManager.getTasks().size(), "Количество задач не совпадает с количеством добавлений");
+        assertEquals(added.get(), taskManager.getPrioritizedTasks().size(), "Все задачи со временем должны попасть в список по приоритету");
+        assertFalse(rejected.isEmpty(), "Ожидались отклонённые пересекающиеся задачи");
+        rejected.forEach(task -> assertNull(task.getId(), "Отклонённой задаче не должен оставаться идентификатор"));
+        assertNoOverlaps(taskManager.getPrioritizedTasks());
+        assertUniqueIds(taskManager.getAllEntities());
+    }
+
+    private static void checkParallelSubtaskChangesKeepEpicAggregates(ConcurrentTaskManager taskManager) throws InterruptedException {
+        List<Integer> epicIds = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Epic epic = new Epic("epic" + i, "desc");
+            taskManager.addEpic(epic);
+            epicIds.add(epic.getId());
+        }
+
+        runInParallel(thread -> {
+            Random random = new Random(thread);
+            for (int i = 0; i < 1_000; i++) {
+                try {
+                    int operation = random.nextInt(10);
+                    if (operation < 5) {
+                        Subtask subtask = new Subtask("subtask" + thread + "_" + i, "desc",
+                                epicIds.get(random.nextInt(epicIds.size())));
+                        randomize(subtask, random);
+                        taskManager.addSubtask(subtask);
+                    } else {
+                        List<Subtask> subtasks = taskManager.getSubtasks();
+                        if (subtasks.isEmpty()) {
+                            continue;
+                        }
+                        Subtask subtask = subtasks.get(random.nextInt(subtasks.size()));
+                        if (operation < 9) {
+                            Subtask edited = new Subtask(subtask);
+                            edited.setEpicId(epicIds.get(random.nextInt(epicIds.size())));
+                            randomize(edited, random);
+                            taskManager.editSubtask(edited);
+                        } else {
+                            taskManager.deleteSubtaskById(subtask.getId());
+                        }
+                    }
+                } catch (NotFoundException | TimeOverlapException | AlreadyExistsException e) {
+                    // ожидаемые отказы при параллельных изменениях
+                }
+            }
+        });
+
+        taskManager.setAggregateCheckEnabled(true);
+        for (int epicId : epicIds) {
+            assertDoesNotThrow(() -> taskManager.correctEpicStatus(epicId), "Агрегированные данные эпика разошлись с подзадачами");
+
+            Epic epic = taskManager.getEpicById(epicId);
+            Set<Integer> expected = new HashSet<>();
+            taskManager.getSubtasks().stream()
+                    .filter(subtask -> subtask.getEpicId() == epicId)
+                    .forEach(subtask -> expected.add(subtask.getId()));
+            assertEquals(expected, new HashSet<>(epic.getSubtaskList()), "Список подзадач эпика разошёлся с подзадачами");
+        }
+        assertNoOverlaps(taskManager.getPrioritizedTasks());
+        assertUniqueIds(taskManager.getAllEntities());
+    }
+
+    private static void checkParallelReadsDuringWrites(ConcurrentTaskManager taskManager) throws InterruptedException {
+        AtomicBoolean running = new AtomicBoolean(true);
+        Queue<Throwable> errors = new ConcurrentLinkedQueue<>();
+        Thread reader = new Thread(() -> {
+            while (running.get()) {
+                try {
+                    List<AbstractTask> prioritized = taskManager.getPrioritizedTasks();
+                    for (int i = 1; i < prioritized.size(); i++) {
+                        assertFalse(prioritized.get(i).getStartTime().isBefore(prioritized.get(i - 1).getStartTime()),
+                                "Список по приоритету должен быть отсортирован");
+                    }
+                    taskManager.getTasks().forEach(task -> {
+                        try {
+                            taskManager.getTaskById(task.getId());
+                        } catch (NotFoundException e) {
+                            // задача удалена параллельно
+                        }
+                    });
+                    taskManager.getHistory();
+                } catch (Throwable e) {
+                    errors.add(e);
+                }
+            }
+        });
+        reader.start();
+
+        runInParallel(thread -> {
+            for (int i = 0; i < 500; i++) {
+                Task task = new Task("task" + thread + "_" + i, "desc",
+                        START.plusHours(1_000L * thread + i), Duration.ofMinutes(30));
+                taskManager.addTask(task);
+                if (i % 3 == 0) {
+                    taskManager.deleteTaskById(task.getId());
+                }
+            }
+        });
+        running.set(false);
+        reader.join();
+
+        assertTrue(errors.isEmpty(), () -> "Ошибки при чтении: " + errors);
+        assertEquals(THREADS * 333, taskManager.getTasks().size(), "Ожидалось другое количество задач");
+    }
+
+    private static void randomize(Subtask subtask, Random random) {
+        subtask.setStatus(Status.values()[random.nextInt(Status.values().length)]);
+        if (random.nextBoolean()) {
+            subtask.setStartTime(START.plusMinutes(30L * random.nextInt(500)));
+            subtask.setDuration(Duration.ofMinutes(30));
+        } else {
+            subtask.setStartTime(null);
+            subtask.setDuration(Duration.ZERO);
+        }
+    }
+
+    private static void assertNoOverlaps(List<AbstractTask> prioritized) {
+        for (int i = 1; i < prioritized.size(); i++) {
+            AbstractTask previous = prioritized.get(i - 1);
+            AbstractTask current = prioritized.get(i);
+            assertFalse(current.getStartTime().isBefore(previous.getEndTime()),
+                    "Задачи " + previous.getId() + " и " + current.getId() + " пересекаются по времени");
+        }
+    }
+
+    private static void assertUniqueIds(List<AbstractTask> entities) {
+        Set<Integer> ids = new HashSet<>();
+        entities.forEach(entity -> assertTrue(ids.add(entity.getId()), "Идентификатор " + entity.getId() + " повторяется"));
+    }
+
+    private static void runInParallel(IntConsumer body) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            int number = thread;
+            futures.add(executor.submit(() -> {
+                start.await();
+                body.accept(number);
+                return null;
+            }));
+        }
+
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES), "Потоки не завершились за отведённое время");
+        for (Future<?> future : futures) {
+            assertDoesNotThrow(() -> future.get());
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.taskmanager.service;
+
+import com.taskmanager.model.Status;
+import com.taskmanager.model.Subtask;
+import com.taskmanager.service.indexes.EpicAggregate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EpicAggregateTest {
+
+    private EpicAggregate aggregate;
+
+    @BeforeEach
+    public void prepare() {
+        aggregate = new EpicAggregate();
+    }
+
+    @Test
+    public void checkEmptyAggregateStatus() {
+        assertEquals(Status.NEW, aggregate.getStatus(), "Эпик без подзадач должен быть в статусе NEW");
+    }
+
+    @Test
+    public void checkStatusCounters() {
+        Subtask subtask1 = new Subtask(2, "subtask1", 1);
+        Subtask subtask2 = new Subtask(3, "subtask2", 1);
+        aggregate.put(subtask1);
+        aggregate.put(subtask2);
+        assertEquals(Status.NEW, aggregate.getStatus());
+
+        subtask1.setStatus(Status.DONE);
+        aggregate.put(subtask1);
+        assertEquals(1, aggregate.getCount(Status.NEW), "Ожидалась 1 новая подзадача");
+        assertEquals(1, aggregate.getCount(Status.DONE), "Ожидалась 1 завершённая подзадача");
+        assertEquals(Status.IN_PROGRESS, aggregate.getStatus());
+
+        subtask2.setStatus(Status.DONE);
+        aggregate.put(subtask2);
+        assertEquals(Status.DONE, aggregate.getStatus());
+        assertEquals(2, aggregate.size(), "Повторный учёт подзадачи не должен менять их количество");
+    }
+
+    @Test
+    public void checkRemoveAndClear() {
+        Subtask subtask1 = new Subtask(2, "subtask1", 1);
+        Subtask subtask2 = new Subtask(3, "subtask2", 1);
+        subtask2.setStatus(Status.IN_PROGRESS);
+        aggregate.put(subtask1);
+        aggregate.put(subtask2);
+
+        aggregate.remove(subtask2.getId());
+        assertFalse(aggregate.contains(subtask2.getId()), "Подзадача должна была быть исключена из учёта");
+        assertEquals(Status.NEW, aggregate.getStatus());
+
+        aggregate.remove(100);
+        assertEquals(1, aggregate.size(), "Удаление неучтённой подзадачи не должно менять счётчики");
+
+        aggregate.clear();
+        assertEquals(0, aggregate.size(), "Ожидался пустой учёт");
+        assertEquals(0, aggregate.getCount(Status.NEW), "Ожидались обнулённые счётчики");
+    }
+
+    @Test
+    public void checkStartAndEndTime() {
+        LocalDateTime start = LocalDateTime.of(2025, 1, 10, 10, 0);
+        Subtask subtask1 = new Subtask(2, "subtask1", 1, start, Duration.ofMinutes(30));
+        Subtask subtask2 = new Subtask(3, "subtask2", 1, start.plusHours(2), Duration.ofMinutes(60));
+        Subtask subtask3 = new Subtask(4, "subtask3", 1);
+        aggregate.put(subtask1);
+        aggregate.put(subtask2);
+        aggregate.put(subtask3);
+
+        assertEquals(start, aggregate.getStartTime(), "Ожидалось начало первой подзадачи");
+        assertEquals(start.plusHours(3), aggregate.getEndTime(), "Ожидалось окончание второй подзадачи");
+
+        subtask1.setStatus(Status.DONE);
+        aggregate.put(subtask1);
+        assertEquals(start.plusHours(2), aggregate.getStartTime(), "Завершённые подзадачи не должны учитываться");
+
+        subtask2.setStartTime(start.minusHours(1));
+        aggregate.put(subtask2);
+        assertEquals(start.minusHours(1), aggregate.getStartTime(), "Ожидалось новое начало второй подзадачи");
+        assertEquals(start, aggregate.getEndTime(), "Ожидалось новое окончание второй подзадачи");
+
+        aggregate.remove(subtask2.getId());
+        assertNull(aggregate.getStartTime(), "Не должно остаться незавершённых подзадач со временем");
+        assertNull(aggregate.getEndTime(), "Не должно остаться незавершённых подзадач со временем");
+    }
+
+    @Test
+    public void checkSameTimesCountedSeparately() {
+        LocalDateTime start = LocalDateTime.of(2025, 1, 10, 10, 0);
+        aggregate.put(new Subtask(2, "subtask1", 1, start, Duration.ZERO));
+        aggregate.put(new Subtask(3, "subtask2", 1, start, Duration.ZERO));
+
+        aggregate.remove(2);
+
+        assertEquals(start, aggregate.getStartTime(), "Время второй подзадачи должно было остаться в учёте");
+        assertEquals(start, aggregate.getEndTime(), "Время второй подзадачи должно было остаться в учёте");
+    }
+}
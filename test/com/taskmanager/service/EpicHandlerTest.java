@@ -303,6 +303,7 @@ public class EpicHandlerTest {
 
         assertEquals(200, response.statusCode());
         assertTrue(subtaskFromResponse.contains(subtask));
+        assertTrue(taskManager.getHistory().isEmpty(), "Список подзадач не должен попадать в историю просмотра");
     }
 
     @Test
@@ -1,17 +1,33 @@
 package com.taskmanager.service;
 
+import com.taskmanager.model.AbstractTask;
 import com.taskmanager.model.Epic;
 import com.taskmanager.model.Subtask;
 import com.taskmanager.model.Task;
 import com.taskmanager.service.exceptions.ManagerReadException;
+import com.taskmanager.service.exceptions.NotFoundException;
+import com.taskmanager.service.formats.BinarySnapshotFormat;
+import com.taskmanager.service.formats.CsvSnapshotFormat;
+import com.taskmanager.service.formats.SnapshotFormat;
+import com.taskmanager.service.managers.DurabilityPolicy;
+import com.taskmanager.service.managers.FileBackedTaskManager;
+import com.taskmanager.service.managers.FileBackedTaskManager.PersistenceMode;
+import com.taskmanager.service.managers.TaskBatch;
 import com.taskmanager.service.managers.TaskManager;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.io.*;
+import java.lang.ref.WeakReference;
 import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static com.taskmanager.service.managers.Managers.loadFromFile;
 import static org.junit.jupiter.api.Assertions.*;
@@ -39,6 +55,10 @@ public class FileBackedTaskManagerTest {
     @AfterEach
     public void cleanUp() {
         file.deleteOnExit();
+        new File(file.getPath() + FileBackedTaskManager.LOG_SUFFIX).deleteOnExit();
+        for (int i = 1; i <= 5; i++) {
+            new File(file.getPath() + FileBackedTaskManager.LOG_SUFFIX + "." + i).deleteOnExit();
+        }
     }
 
     @Test
@@ -92,6 +112,362 @@ public class FileBackedTaskManagerTest {
         assertTrue(text.contains(tempSubtask.toString()), "Задача не была добавлена в файл после изменения");
     }
 
+    @Test
+    public void checkSaveAll() throws IOException {
+        Epic tempEpic = new Epic(7, "Проверочный эпик");
+        Subtask tempSubtask = new Subtask(8, "Проверочная подзадача", 7);
+        Task tempTask = new Task(9, "Проверочная задача");
+
+        TaskManager taskManager = loadFromFile(file);
+        taskManager.addAll(List.of(tempSubtask, tempEpic, tempTask));
+
+        BufferedReader reader = new BufferedReader(new FileReader(file));
+        List<String> text = reader.lines().toList();
+
+        assertTrue(text.containsAll(List.of(tempEpic.toString(), tempSubtask.toString(), tempTask.toString())),
+                "Набор задач не был добавлен в файл");
+        assertEquals(taskManager, loadFromFile(file), "Из файла должен был восстановиться тот же таск-менеджер");
+    }
+
+    @Test
+    public void checkApplyBatch() throws IOException {
+        TaskManager taskManager = loadFromFile(file);
+        List<String> before = Files.readAllLines(file.toPath());
+
+        assertThrows(NotFoundException.class, () -> taskManager.apply(new TaskBatch()
+                .addTask(new Task(10, "Проверочная задача"))
+                .deleteSubtaskById(100)));
+        assertEquals(before, Files.readAllLines(file.toPath()), "Отменённый набор не должен был попасть в файл");
+
+        taskManager.apply(new TaskBatch()
+                .addTask(new Task(10, "Проверочная задача"))
+                .deleteSubtaskById(3));
+        assertEquals(taskManager, loadFromFile(file), "Из файла должен был восстановиться тот же таск-менеджер");
+    }
+
+    @Test
+    public void checkLogModeReplay() throws IOException {
+        List<String> snapshot = Files.readAllLines(file.toPath());
+        FileBackedTaskManager taskManager = loadFromFile(file, PersistenceMode.LOG);
+
+        taskManager.addTask(new Task("Новая задача", "Описание"));
+        taskManager.editTask(new Task(1, "Изменённая задача", "Описание"));
+        taskManager.editEpic(new Epic(2, "Изменённый эпик", "Описание"));
+        taskManager.addAll(List.of(new Subtask(11, "Подзадача набора", 10), new Epic(10, "Эпик набора")));
+        taskManager.deleteByIds(List.of(3));
+        assertThrows(NotFoundException.class, () -> taskManager.apply(new TaskBatch()
+                .addTask(new Task(20, "Отменённая задача"))
+                .deleteSubtaskById(100)));
+        taskManager.apply(new TaskBatch()
+                .addSubtask(new Subtask(21, "Подзадача из набора", 2))
+                .deleteEpicById(10));
+        taskManager.close();
+
+        assertEquals(snapshot, Files.readAllLines(file.toPath()), "Файл не должен был перезаписываться");
+        assertEquals(8, Files.readAllLines(taskManager.getLogFile().toPath()).size(),
+                "Каждое изменение должно было дописать свои записи в журнал");
+
+        try (FileBackedTaskManager restored = loadFromFile(file, PersistenceMode.LOG)) {
+            assertEquals(taskManager, restored, "Из файла и журнала должен был восстановиться тот же таск-менеджер");
+            assertEquals(taskManager.getNextId(), restored.getNextId(), "Счётчик идентификаторов должен был восстановиться");
+        }
+    }
+
+    @Test
+    public void checkLogModeWithoutFile() throws IOException {
+        File missing = new File(file.getPath() + ".missing");
+        missing.deleteOnExit();
+
+        FileBackedTaskManager taskManager = loadFromFile(missing, PersistenceMode.LOG);
+        taskManager.addEpic(new Epic("Эпик", "Описание"));
+        taskManager.deleteAllEpics();
+        taskManager.close();
+        taskManager.getLogFile().deleteOnExit();
+
+        try (FileBackedTaskManager restored = loadFromFile(missing, PersistenceMode.LOG)) {
+            assertTrue(restored.getEpics().isEmpty(), "Удаление эпиков должно было воспроизвестись из журнала");
+            assertFalse(missing.exists(), "Файл не должен был создаваться");
+        }
+    }
+
+    @Test
+    public void checkLoadFromFileDetectsLog() throws IOException {
+        try (FileBackedTaskManager snapshot = loadFromFile(file)) {
+            assertEquals(PersistenceMode.SNAPSHOT, snapshot.getPersistenceMode(), "Файл без журнала должен был открыться как снимок");
+        }
+
+        FileBackedTaskManager taskManager = loadFromFile(file, PersistenceMode.LOG);
+        taskManager.addTask(new Task(4, "Задача из журнала"));
+        taskManager.close();
+
+        try (FileBackedTaskManager restored = loadFromFile(file)) {
+            assertEquals(PersistenceMode.LOG, restored.getPersistenceMode(), "Файл с журналом должен был открыться в режиме журнала");
+            assertEquals(taskManager, restored, "Из файла и журнала должен был восстановиться тот же таск-менеджер");
+        }
+
+        File missing = new File(file.getPath() + ".missing");
+        missing.deleteOnExit();
+        FileBackedTaskManager withoutFile = loadFromFile(missing, PersistenceMode.LOG);
+        withoutFile.addEpic(new Epic(1, "Эпик из журнала"));
+        withoutFile.close();
+        withoutFile.getLogFile().deleteOnExit();
+
+        try (FileBackedTaskManager restored = loadFromFile(missing)) {
+            assertEquals(withoutFile.getEpics(), restored.getEpics(), "Журнал без файла должен был воспроизвестись");
+        }
+
+        // остались только сегменты журнала
+        File segment = new File(withoutFile.getLogFile().getPath() + ".1");
+        segment.deleteOnExit();
+        Files.move(withoutFile.getLogFile().toPath(), segment.toPath());
+        try (FileBackedTaskManager restored = loadFromFile(missing)) {
+            assertEquals(withoutFile.getEpics(), restored.getEpics(), "Сегменты журнала должны были воспроизвестись");
+        }
+    }
+
+    @Test
+    public void checkLogModeEmptyDeleteByIds() throws IOException {
+        Task tempTask = new Task(4, "Проверочная задача");
+        FileBackedTaskManager taskManager = loadFromFile(file, PersistenceMode.LOG);
+        taskManager.addTask(tempTask);
+        taskManager.deleteByIds(List.of());
+        taskManager.close();
+
+        assertEquals(1, Files.readAllLines(taskManager.getLogFile().toPath()).size(),
+                "Удаление пустого набора не должно было записываться в журнал");
+
+        // журнал с пустой записью удаления тоже должен читаться
+        Files.writeString(taskManager.getLogFile().toPath(), "DELETE_BY_IDS,\n", StandardOpenOption.APPEND);
+        try (FileBackedTaskManager restored = loadFromFile(file, PersistenceMode.LOG)) {
+            assertTrue(restored.getTasks().contains(tempTask), "Задача должна была восстановиться из журнала");
+        }
+    }
+
+    @Test
+    public void checkLogCompaction() throws IOException {
+        FileBackedTaskManager taskManager = new FileBackedTaskManager(file, PersistenceMode.LOG, 3, Long.MAX_VALUE);
+        for (int i = 0; i < 10; i++) {
+            taskManager.addTask(new Task("Задача " + i, "Описание"));
+        }
+        taskManager.deleteTaskById(1);
+        taskManager.close();
+
+        File log = taskManager.getLogFile();
+        assertTrue(Files.readAllLines(log.toPath()).size() < 11, "Журнал должен был сжаться");
+        assertFalse(new File(log.getPath() + ".1").exists(), "Вошедший в снимок сегмент должен был удалиться");
+        assertTrue(Files.readAllLines(file.toPath()).get(0).contains("log_segment="),
+                "В заголовке снимка должен быть номер последнего вошедшего в него сегмента");
+
+        try (FileBackedTaskManager restored = loadFromFile(file, PersistenceMode.LOG)) {
+            assertEquals(taskManager, restored, "Из снимка и журнала должен был восстановиться тот же таск-менеджер");
+        }
+    }
+
+    @Test
+    public void checkRestoreAfterInterruptedCompaction() throws IOException {
+        FileBackedTaskManager taskManager = loadFromFile(file, PersistenceMode.LOG);
+        taskManager.addTask(new Task(4, "Задача из снимка"));
+        taskManager.compact();
+        taskManager.close();
+
+        File log = taskManager.getLogFile();
+        // сегмент уже вошёл в снимок, но не был удалён
+        Files.writeString(new File(log.getPath() + ".1").toPath(), "ADD," + new Task(4, "Задача из снимка") + "\n");
+        // сегмент переименован, но снимок с ним записать не успели
+        Files.writeString(new File(log.getPath() + ".2").toPath(), "ADD," + new Task(5, "Задача из сегмента") + "\n");
+        Files.writeString(log.toPath(), "DELETE_TASK,1\n");
+
+        try (FileBackedTaskManager restored = loadFromFile(file, PersistenceMode.LOG)) {
+            assertEquals(List.of(4, 5), restored.getTasks().stream().map(Task::getId).sorted().toList(),
+                    "Должны были воспроизвестись только не вошедшие в снимок сегменты и журнал");
+            assertFalse(new File(log.getPath() + ".1").exists(), "Вошедший в снимок сегмент должен был удалиться");
+
+            restored.compact();
+            assertFalse(new File(log.getPath() + ".2").exists(), "Сегмент должен был войти в новый снимок");
+        }
+    }
+
+    @Test
+    public void checkLogModeSpecialCharactersCsv() throws IOException {
+        assertSpecialCharactersSurviveLog(new CsvSnapshotFormat());
+    }
+
+    @Test
+    public void checkLogModeSpecialCharactersBinary() throws IOException {
+        assertSpecialCharactersSurviveLog(new BinarySnapshotFormat());
+        assertTrue(BinarySnapshotFormat.matches(file), "Снимок при сжатии должен был записаться в двоичном формате");
+    }
+
+    /**
+     * Запятые, переводы строк и знаки процента в наименованиях и описаниях должны переживать
+     * воспроизведение журнала, сжатие и повторное открытие
+     */
+    private void assertSpecialCharactersSurviveLog(SnapshotFormat format) throws IOException {
+        Task special = new Task(4, "Задача, с запятой", "Описание\nв две строки,\r\nготово на 100%, код %2C");
+        Epic specialEpic = new Epic(5, "Эпик,\nс переводом строки", "%0A");
+        Subtask specialSubtask = new Subtask(6, "Подзадача, %", "Описание, с запятой", 5);
+        FileBackedTaskManager taskManager = loadFromFile(file, PersistenceMode.LOG, format);
+        taskManager.addTask(special);
+        taskManager.addEpic(specialEpic);
+        taskManager.addSubtask(specialSubtask);
+        taskManager.editTask(new Task(1, "Изменённая, задача", "Описание\n"));
+        taskManager.close();
+
+        assertEquals(4, Files.readAllLines(taskManager.getLogFile().toPath()).size(),
+                "Каждая запись журнала должна была занять одну строку");
+
+        try (FileBackedTaskManager restored = loadFromFile(file, PersistenceMode.LOG, format)) {
+            assertSameNames(taskManager, restored);
+            restored.compact();
+        }
+        try (FileBackedTaskManager restored = loadFromFile(file, PersistenceMode.LOG, format)) {
+            assertSameNames(taskManager, restored);
+        }
+    }
+
+    private static void assertSameNames(TaskManager expected, TaskManager actual) {
+        assertEquals(expected.getAllEntities(), actual.getAllEntities());
+        for (AbstractTask task : expected.getAllEntities()) {
+            AbstractTask restored = actual.getAllEntities().stream()
+                    .filter(item -> item.equals(task))
+                    .findFirst()
+                    .orElseThrow();
+            assertEquals(task.getName(), restored.getName(), "Наименование должно было восстановиться без изменений");
+            assertEquals(task.getDescription(), restored.getDescription(), "Описание должно было восстановиться без изменений");
+        }
+    }
+
+    @Test
+    public void checkSyncEveryWrite() {
+        try (FileBackedTaskManager taskManager = loadFromFile(file, DurabilityPolicy.everyWrite())) {
+            taskManager.addTask(new Task(4, "Задача"));
+            taskManager.deleteTaskById(4);
+
+            assertEquals(2, taskManager.getSyncCount(), "Каждое изменение должно было сбросить журнал на диск");
+        }
+    }
+
+    @Test
+    public void checkOsBufferedWithoutSync() {
+        try (FileBackedTaskManager taskManager = loadFromFile(file, DurabilityPolicy.osBuffered())) {
+            taskManager.addTask(new Task(4, "Задача"));
+
+            assertEquals(0, taskManager.getSyncCount(), "Журнал не должен был сбрасываться на диск");
+        }
+    }
+
+    @Test
+    public void checkGroupCommitSharesSync() throws Exception {
+        final int threads = 8;
+        final int tasksPerThread = 25;
+        FileBackedTaskManager taskManager = loadFromFile(file, DurabilityPolicy.groupCommit(Duration.ofMillis(20), threads));
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            final int thread = i;
+            futures.add(executor.submit(() -> {
+                for (int j = 0; j < tasksPerThread; j++) {
+                    taskManager.addTask(new Task("Задача " + thread + "-" + j, "Описание"));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertTrue(taskManager.getSyncCount() < threads * tasksPerThread,
+                "Параллельные изменения должны были ждать общего сброса журнала");
+        taskManager.close();
+
+        try (FileBackedTaskManager restored = loadFromFile(file, PersistenceMode.LOG)) {
+            assertEquals(1 + threads * tasksPerThread, restored.getTasks().size(), "Из журнала должны были восстановиться все задачи");
+            assertEquals(taskManager, restored, "Из журнала должен был восстановиться тот же таск-менеджер");
+        }
+    }
+
+    @Test
+    public void checkDebouncedSaveCoalescesBurst() throws InterruptedException {
+        FileBackedTaskManager taskManager = loadFromFile(file, Duration.ofMillis(100), Duration.ofSeconds(2));
+        for (int i = 0; i < 1_000; i++) {
+            taskManager.addTask(new Task("Задача " + i, "Описание"));
+        }
+        assertTrue(taskManager.getPendingMutations() > 0, "Изменения должны были сохраняться в фоне");
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!taskManager.getDirtyAge().isZero() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(Duration.ZERO, taskManager.getDirtyAge(), "Изменения должны были сохраниться");
+        assertTrue(taskManager.getSaveCount() <= 2, "Серия изменений должна была сохраниться одной-двумя записями файла");
+        assertEquals(taskManager.getAllEntities(), loadFromFile(file).getAllEntities(),
+                "Из файла должны были восстановиться все задачи");
+        taskManager.close();
+    }
+
+    @Test
+    public void checkDebouncedSaveMaxDelay() throws InterruptedException {
+        try (FileBackedTaskManager taskManager = loadFromFile(file, Duration.ofMillis(200), Duration.ofMillis(300))) {
+            // изменения не затихают дольше наибольшей задержки
+            for (int i = 0; i < 40; i++) {
+                taskManager.addTask(new Task("Задача " + i, "Описание"));
+                Thread.sleep(20);
+            }
+
+            assertTrue(taskManager.getSaveCount() >= 1, "Файл должен был сохраниться не позже наибольшей задержки");
+        }
+    }
+
+    @Test
+    public void checkDebouncedFlushOnClose() throws IOException {
+        Task tempTask = new Task(4, "Проверочная задача");
+        FileBackedTaskManager taskManager = loadFromFile(file, Duration.ofHours(1), Duration.ofHours(1));
+        taskManager.addTask(tempTask);
+
+        assertEquals(1, taskManager.getPendingMutations());
+        assertFalse(taskManager.getDirtyAge().isZero(), "Изменение должно было остаться несохранённым");
+        assertFalse(Files.readAllLines(file.toPath()).contains(tempTask.toString()), "Файл не должен был перезаписываться сразу");
+
+        taskManager.close();
+        assertTrue(Files.readAllLines(file.toPath()).contains(tempTask.toString()), "Изменение должно было сохраниться при закрытии");
+        assertEquals(0, taskManager.getPendingMutations());
+    }
+
+    @Test
+    public void checkBinarySnapshotFormat() throws IOException {
+        Task tempTask = new Task(4, "Задача, с запятой", "Описание\nв две строки");
+        FileBackedTaskManager taskManager = loadFromFile(file, PersistenceMode.SNAPSHOT, new BinarySnapshotFormat());
+        taskManager.addTask(tempTask);
+
+        assertTrue(BinarySnapshotFormat.matches(file), "Файл должен был перезаписаться в двоичном формате");
+
+        TaskManager restored = loadFromFile(file);
+        assertEquals(taskManager.getAllEntities(), restored.getAllEntities(),
+                "Двоичный файл должен читаться независимо от формата записи");
+        assertEquals(tempTask.getDescription(), restored.getTaskById(4).getDescription());
+    }
+
+    @Test
+    public void checkDebouncedUnclosedManagerIsCollected() throws InterruptedException, IOException {
+        Task tempTask = new Task(4, "Проверочная задача");
+        FileBackedTaskManager taskManager = loadFromFile(file, Duration.ofMillis(10), Duration.ofMillis(20));
+        taskManager.addTask(tempTask);
+        WeakReference<FileBackedTaskManager> reference = new WeakReference<>(taskManager);
+        taskManager = null;
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (reference.get() != null && System.nanoTime() < deadline) {
+            System.gc();
+            Thread.sleep(20);
+        }
+
+        assertNull(reference.get(), "Незакрытый таск-менеджер не должен удерживаться обработчиком завершения");
+        assertTrue(Files.readAllLines(file.toPath()).contains(tempTask.toString()),
+                "Изменения должны были сохраниться до освобождения таск-менеджера");
+    }
+
     @Test
     public void checkEditTask() throws IOException {
         Task tempTask = new Task(1, "Проверочная задача");
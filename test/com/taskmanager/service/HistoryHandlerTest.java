@@ -2,6 +2,9 @@ package com.taskmanager.service;
 
 import com.google.gson.*;
 import com.taskmanager.model.Epic;
+import com.taskmanager.model.Subtask;
+import com.taskmanager.model.Task;
+import com.taskmanager.service.managers.HistorySessions;
 import com.taskmanager.service.managers.Managers;
 import com.taskmanager.service.managers.TaskManager;
 import com.taskmanager.service.typeadapters.DurationAdapter;
@@ -17,8 +20,10 @@ import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class HistoryHandlerTest {
     private final Integer PORT = 8085;
@@ -92,4 +97,100 @@ public class HistoryHandlerTest {
         assertEquals(200, response.statusCode());
         assertEquals(epic, epicFromResponse);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testGetHistoryWithLimit() throws IOException, InterruptedException {
+        taskManager.addEpic(new Epic("Test 1", "Testing task 1"));
+        taskManager.addEpic(new Epic("Test 2", "Testing task 2"));
+        taskManager.getEpicById(1);
+        taskManager.getEpicById(2);
+
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:" + PORT + endpoint + "?limit=1"))
+                .GET()
+                .build();
+
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        JsonArray array = JsonParser.parseString(response.body()).getAsJsonArray();
+
+        assertEquals(200, response.statusCode());
+        assertEquals(1, array.size(), "Ожидался список из 1 элемента");
+        assertEquals(2, array.get(0).getAsJsonObject().get("id").getAsInt(), "Ожидалась последняя просмотренная задача");
+
+        request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:" + PORT + endpoint + "?limit=-1"))
+                .GET()
+                .build();
+        assertEquals(400, client.send(request, HttpResponse.BodyHandlers.ofString()).statusCode());
+    }
+
+    @Test
+    public void testGetClientHistory() throws IOException, InterruptedException {
+        taskManager.addEpic(new Epic("Test 1", "Testing task 1"));
+        taskManager.addEpic(new Epic("Test 2", "Testing task 2"));
+        HttpClient client = HttpClient.newHttpClient();
+
+        client.send(clientRequest("/epics/1", "client1"), HttpResponse.BodyHandlers.ofString());
+        client.send(clientRequest("/epics/2", "client2"), HttpResponse.BodyHandlers.ofString());
+        client.send(clientRequest("/epics/1", "client2"), HttpResponse.BodyHandlers.ofString());
+
+        JsonArray history1 = JsonParser.parseString(client.send(clientRequest(endpoint, "client1"),
+                HttpResponse.BodyHandlers.ofString()).body()).getAsJsonArray();
+        JsonArray history2 = JsonParser.parseString(client.send(clientRequest(endpoint, "client2"),
+                HttpResponse.BodyHandlers.ofString()).body()).getAsJsonArray();
+
+        assertEquals(1, history1.size(), "Ожидалась история только первого клиента");
+        assertEquals(2, history2.size(), "Ожидалась история только второго клиента");
+        assertEquals(1, history2.get(1).getAsJsonObject().get("id").getAsInt(), "Ожидалась последняя просмотренная задача");
+        assertTrue(taskManager.getHistory().isEmpty(), "Просмотры клиентов не должны попадать в общую историю");
+
+        taskManager.deleteEpicById(1);
+        history1 = JsonParser.parseString(client.send(clientRequest(endpoint, "client1"),
+                HttpResponse.BodyHandlers.ofString()).body()).getAsJsonArray();
+        assertEquals(0, history1.size(), "Удалённая задача не должна оставаться в истории клиента");
+    }
+
+    @Test
+    public void testDeleteRemovesFromClientHistories() throws IOException, InterruptedException {
+        server.stop();
+        HistorySessions sessions = new HistorySessions();
+        server = new HttpTaskServer(taskManager, PORT, sessions);
+        server.start();
+
+        Epic epic = new Epic("Test 1", "Testing task 1");
+        taskManager.addEpic(epic);
+        Subtask subtask = new Subtask("Subtask", epic.getId());
+        taskManager.addSubtask(subtask);
+        Task task = new Task("Task", "Testing task");
+        taskManager.addTask(task);
+        HttpClient client = HttpClient.newHttpClient();
+
+        client.send(clientRequest("/subtasks/" + subtask.getId(), "client1"), HttpResponse.BodyHandlers.ofString());
+        client.send(clientRequest("/tasks/" + task.getId(), "client1"), HttpResponse.BodyHandlers.ofString());
+        client.send(clientRequest("/epics/" + epic.getId(), "client2"), HttpResponse.BodyHandlers.ofString());
+        assertEquals(List.of(subtask, task), sessions.getHistory("client1").getHistory());
+
+        client.send(HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:" + PORT + "/epics/" + epic.getId()))
+                .DELETE()
+                .build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(List.of(task), sessions.getHistory("client1").getHistory(),
+                "Подзадача удалённого эпика должна была удалиться из истории клиента");
+        assertTrue(sessions.getHistory("client2").getHistory().isEmpty(), "Эпик должен был удалиться из истории клиента");
+
+        client.send(HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:" + PORT + "/tasks?ids=" + task.getId()))
+                .DELETE()
+                .build(), HttpResponse.BodyHandlers.ofString());
+        assertTrue(sessions.getHistory("client1").getHistory().isEmpty(), "Задача должна была удалиться из истории клиента");
+    }
+
+    private HttpRequest clientRequest(String path, String clientId) {
+        return HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:" + PORT + path))
+                .header("X-Client-Id", clientId)
+                .GET()
+                .build();
+    }
+}
@@ -0,0 +1,117 @@
+package com.taskmanager.service;
+
+import com.taskmanager.model.Task;
+import com.taskmanager.service.managers.HistoryManager;
+import com.taskmanager.service.managers.HistorySessions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HistorySessionsTest {
+    private ManualClock clock;
+    private HistorySessions sessions;
+
+    @BeforeEach
+    public void prepare() {
+        clock = new ManualClock();
+        sessions = new HistorySessions(Duration.ofMinutes(10), 2, 5, clock);
+    }
+
+    @Test
+    public void checkClientsHaveOwnHistory() {
+        Task task1 = new Task(1, "task1");
+        Task task2 = new Task(2, "task2");
+        sessions.getHistory("client1").add(task1);
+        sessions.getHistory("client2").add(task2);
+
+        assertEquals(List.of(task1), sessions.getHistory("client1").getHistory());
+        assertEquals(List.of(task2), sessions.getHistory("client2").getHistory());
+
+        sessions.remove(task1.getId());
+        assertTrue(sessions.getHistory("client1").getHistory().isEmpty(), "Задача должна была удалиться из историй клиентов");
+    }
+
+    @Test
+    public void checkIdleSessionEvicted() {
+        HistoryManager history = sessions.getHistory("client1");
+        history.add(new Task(1, "task1"));
+
+        clock.advance(Duration.ofMinutes(10));
+        assertSame(history, sessions.getHistory("client1"), "Сессия ещё не должна была простаивать");
+
+        clock.advance(Duration.ofMinutes(11));
+        assertFalse(sessions.contains("client1"), "Сессия должна была считаться простаивающей");
+        assertTrue(sessions.getHistory("client1").getHistory().isEmpty(), "Для простаивавшего клиента ожидалась новая история");
+
+        clock.advance(Duration.ofMinutes(11));
+        sessions.evictIdle();
+        assertEquals(0, sessions.size(), "Простаивающая сессия должна была удалиться");
+    }
+
+    @Test
+    public void checkIdleSessionsEvictedOnAccess() {
+        sessions.getHistory("client1");
+        clock.advance(Duration.ofMinutes(6));
+        sessions.getHistory("client2");
+        clock.advance(Duration.ofMinutes(5));
+        sessions.getHistory("client2");
+
+        assertEquals(2, sessions.size(), "Простаивающие сессии не должны удаляться чаще раза за время простоя");
+
+        clock.advance(Duration.ofMinutes(6));
+        sessions.getHistory("client2");
+
+        assertEquals(1, sessions.size(), "Простаивающая сессия должна была удалиться при обращении другого клиента");
+        assertTrue(sessions.contains("client2"));
+    }
+
+    @Test
+    public void checkSessionsLimit() {
+        sessions.getHistory("client1");
+        clock.advance(Duration.ofMinutes(1));
+        sessions.getHistory("client2");
+        clock.advance(Duration.ofMinutes(1));
+        sessions.getHistory("client1");
+        clock.advance(Duration.ofMinutes(1));
+        sessions.getHistory("client3");
+
+        assertEquals(2, sessions.size(), "Количество сессий не должно превышать лимит");
+        assertTrue(sessions.contains("client1"));
+        assertFalse(sessions.contains("client2"), "Должна была удалиться сессия, к которой обращались раньше всех");
+        assertTrue(sessions.contains("client3"));
+    }
+
+    /**
+     * Часы, время которых переводится вручную
+     */
+    private static class ManualClock extends Clock {
+        private Instant instant = Instant.parse("2025-01-10T10:00:00Z");
+
+        private void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -10,6 +10,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class InMemoryHistoryManagerTest {
@@ -138,4 +139,34 @@ class InMemoryHistoryManagerTest {
     }
 
 
-}
\ No newline at end of file
+
+    @Test
+    void checkEvictLeastRecentlyViewed() {
+        historyManager = new InMemoryHistoryManager(2);
+        Task task1 = new Task(1, "testTask1");
+        Task task2 = new Task(2, "testTask2");
+        Task task3 = new Task(3, "testTask3");
+
+        historyManager.add(task1);
+        historyManager.add(task2);
+        historyManager.add(task1);
+        historyManager.add(task3);
+
+        assertEquals(List.of(task1, task3), historyManager.getHistory(), "Должна была вытесниться давно просмотренная задача");
+
+        historyManager.remove(task3.getId());
+        historyManager.add(task2);
+        assertEquals(List.of(task1, task2), historyManager.getHistory(), "После удаления ничего не должно вытесняться");
+    }
+
+    @Test
+    void checkGetHistoryWithLimit() {
+        List<Task> tasks = List.of(new Task(1, "testTask1"), new Task(2, "testTask2"), new Task(3, "testTask3"));
+        tasks.forEach(historyManager::add);
+
+        assertEquals(tasks.subList(1, 3), historyManager.getHistory(2), "Ожидались последние просмотренные задачи");
+        assertEquals(tasks, historyManager.getHistory(10));
+        assertTrue(historyManager.getHistory(0).isEmpty(), "Ожидался пустой список");
+        assertThrows(IllegalArgumentException.class, () -> historyManager.getHistory(-1));
+    }
+}
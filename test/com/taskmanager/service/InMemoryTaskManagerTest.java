@@ -6,6 +6,7 @@ import com.taskmanager.service.exceptions.NotFoundException;
 import com.taskmanager.service.exceptions.TimeOverlapException;
 import com.taskmanager.service.exceptions.WithouIdException;
 import com.taskmanager.service.managers.InMemoryTaskManager;
+import com.taskmanager.service.managers.TaskBatch;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -879,4 +880,398 @@ class InMemoryTaskManagerTest {
         assertFalse(prioritizedTasks.contains(subtask2));
         assertEquals(prioritizedTasks.get(0), task);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void checkEditTaskMovedInsideOwnInterval() {
+        LocalDateTime dt1 = LocalDateTime.of(LocalDate.of(2025, 1, 10), LocalTime.of(10, 0, 0));
+        LocalDateTime dt2 = LocalDateTime.of(LocalDate.of(2025, 1, 10), LocalTime.of(12, 0, 0));
+
+        Task task1 = new Task(1, "TaskName1", "desc", dt1, Duration.ofMinutes(60));
+        Task task2 = new Task(2, "TaskName2", "desc", dt2, Duration.ofMinutes(60));
+        taskManager.addTask(task1);
+        taskManager.addTask(task2);
+
+        taskManager.editTask(new Task(1, "TaskName1", "desc", dt1.plusMinutes(30), Duration.ofMinutes(60)));
+        assertEquals(2, taskManager.getPrioritizedTasks().size(), "Старый интервал задачи должен был замениться");
+
+        assertThrows(TimeOverlapException.class, () -> {
+            taskManager.editTask(new Task(1, "TaskName1", "desc", dt1.plusMinutes(90), Duration.ofMinutes(60)));
+        }, "Должно было появиться исключение типа " + TimeOverlapException.class.getSimpleName());
+        assertDoesNotThrow(() -> taskManager.addTask(new Task(3, "TaskName3", "desc", dt1, Duration.ofMinutes(30))),
+                "Освободившийся интервал должен быть доступен");
+    }
+
+    @Test
+    public void checkEpicStatusCountersWithAggregateCheck() {
+        taskManager.setAggregateCheckEnabled(true);
+        Epic epic = new Epic("testEpic");
+        taskManager.addEpic(epic);
+        for (int i = 0; i < 5; i++) {
+            taskManager.addSubtask(new Subtask("subtask" + i, epic.getId()));
+        }
+
+        for (Subtask subtask : taskManager.getSubtasks()) {
+            Subtask edited = new Subtask(subtask);
+            edited.setStatus(Status.DONE);
+            taskManager.editSubtask(edited);
+        }
+        assertEquals(Status.DONE, epic.getStatus());
+
+        Subtask inProgress = new Subtask(taskManager.getSubtasks().getFirst());
+        inProgress.setStatus(Status.IN_PROGRESS);
+        taskManager.editSubtask(inProgress);
+        assertEquals(Status.IN_PROGRESS, epic.getStatus());
+
+        taskManager.deleteSubtaskById(inProgress.getId());
+        assertEquals(Status.DONE, epic.getStatus());
+
+        taskManager.deleteAllSubtasksInEpic(epic.getId());
+        assertEquals(Status.NEW, epic.getStatus());
+    }
+
+    @Test
+    public void checkEditSubtaskMovedToAnotherEpic() {
+        taskManager.setAggregateCheckEnabled(true);
+        Epic epic1 = new Epic("testEpic1");
+        Epic epic2 = new Epic("testEpic2");
+        taskManager.addEpic(epic1);
+        taskManager.addEpic(epic2);
+        Subtask subtask = new Subtask("testSubtask", epic1.getId());
+        subtask.setStatus(Status.DONE);
+        taskManager.addSubtask(subtask);
+
+        Subtask moved = new Subtask(subtask);
+        moved.setEpicId(epic2.getId());
+        taskManager.editSubtask(moved);
+
+        assertTrue(epic1.getSubtaskList().isEmpty(), "Подзадача должна была быть удалена из старого эпика");
+        assertTrue(epic2.getSubtaskList().contains(moved.getId()), "Подзадача должна была быть добавлена в новый эпик");
+        assertEquals(Status.NEW, epic1.getStatus());
+        assertEquals(Status.DONE, epic2.getStatus());
+    }
+
+    @Test
+    public void checkEpicTimeWithAggregateCheck() {
+        taskManager.setAggregateCheckEnabled(true);
+        LocalDateTime dt = LocalDateTime.of(LocalDate.of(2025, 1, 10), LocalTime.of(10, 0, 0));
+        Epic epic = new Epic(1, "Epic");
+        taskManager.addEpic(epic);
+        taskManager.addSubtask(new Subtask(2, "TaskName1", "desc", epic.getId(), dt, Duration.ofMinutes(30)));
+        taskManager.addSubtask(new Subtask(3, "TaskName2", "desc", epic.getId(), dt.plusHours(2), Duration.ofMinutes(60)));
+        taskManager.addSubtask(new Subtask(4, "TaskName3", "desc", epic.getId()));
+
+        Subtask rescheduled = new Subtask(2, "TaskName1", "desc", epic.getId(), dt.plusHours(4), Duration.ofMinutes(30));
+        taskManager.editSubtask(rescheduled);
+
+        assertEquals(dt.plusHours(2), epic.getStartTime());
+        assertEquals(dt.plusHours(4).plusMinutes(30), epic.getEndTime());
+        assertEquals(Duration.ofMinutes(150), epic.getDuration());
+
+        taskManager.deleteSubtaskById(3);
+        taskManager.deleteSubtaskById(2);
+
+        assertNull(epic.getStartTime(), "У эпика без подзадач со временем не должно быть начала");
+        assertNull(epic.getEndTime(), "У эпика без подзадач со временем не должно быть окончания");
+        assertEquals(Duration.ZERO, epic.getDuration());
+    }
+
+    @Test
+    public void checkDuplicateDetectionFollowsEditAndDelete() {
+        Task task = new Task("oldName", "description");
+        taskManager.addTask(task);
+        taskManager.editTask(new Task(task.getId(), "newName", "description"));
+
+        taskManager.addTask(new Task("oldName", "description"));
+        assertThrows(AlreadyExistsException.class, () -> taskManager.addTask(new Task("newName", "description")),
+                "Должно было появиться исключение типа " + AlreadyExistsException.class.getSimpleName());
+
+        taskManager.deleteTaskById(task.getId());
+        taskManager.addTask(new Task("newName", "description"));
+        assertEquals(2, taskManager.getTasks().size(), "Ожидался список из 2 элементов");
+    }
+
+    @Test
+    public void checkSameSubtaskAllowedInAnotherEpic() {
+        Epic epic1 = new Epic("epic1", "description");
+        Epic epic2 = new Epic("epic2", "description");
+        taskManager.addEpic(epic1);
+        taskManager.addEpic(epic2);
+        taskManager.addSubtask(new Subtask("testSubtask", "descriptionSub", epic1.getId()));
+        taskManager.addSubtask(new Subtask("testSubtask", "descriptionSub", epic2.getId()));
+
+        assertThrows(AlreadyExistsException.class,
+                () -> taskManager.addSubtask(new Subtask("testSubtask", "descriptionSub", epic2.getId())),
+                "Должно было появиться исключение типа " + AlreadyExistsException.class.getSimpleName());
+        assertEquals(2, taskManager.getSubtasks().size(), "Ожидался список из 2 элементов");
+
+        taskManager.addTask(new Task("testSubtask", "descriptionSub"));
+        assertEquals(1, taskManager.getTasks().size(), "Задача с содержимым подзадачи не является дубликатом");
+    }
+
+    @Test
+    public void checkListSnapshotsRebuiltOnlyAfterChanges() {
+        Epic epic = new Epic("epic", "description");
+        taskManager.addTask(new Task("task", "description"));
+        taskManager.addEpic(epic);
+
+        List<Task> tasks = taskManager.getTasks();
+        List<AbstractTask> allEntities = taskManager.getAllEntities();
+        assertSame(tasks, taskManager.getTasks(), "Без изменений должен возвращаться тот же список");
+        assertThrows(UnsupportedOperationException.class, () -> allEntities.add(epic), "Список должен быть неизменяемым");
+
+        taskManager.addSubtask(new Subtask("subtask", "description", epic.getId()));
+
+        assertSame(tasks, taskManager.getTasks(), "Список задач не должен пересобираться после изменения подзадач");
+        assertNotSame(allEntities, taskManager.getAllEntities(), "Общий список должен был пересобраться");
+        assertEquals(3, taskManager.getAllEntities().size(), "Ожидался список из 3 элементов");
+        assertEquals(2, allEntities.size(), "Старый снимок не должен меняться");
+    }
+
+    @Test
+    public void checkAddAllWithEpicFromBatch() {
+        taskManager.setAggregateCheckEnabled(true);
+        LocalDateTime dt = LocalDateTime.of(LocalDate.of(2025, 1, 10), LocalTime.of(10, 0, 0));
+        Epic epic = new Epic(10, "Epic");
+        Subtask subtask1 = new Subtask("Subtask1", epic.getId(), dt.plusHours(2), Duration.ofMinutes(30));
+        Subtask subtask2 = new Subtask("Subtask2", epic.getId(), dt, Duration.ofMinutes(60));
+        subtask2.setStatus(Status.DONE);
+        Task task = new Task("Task", "description", dt.plusHours(1), Duration.ofMinutes(60));
+
+        taskManager.addAll(List.of(subtask1, task, epic, subtask2));
+
+        assertEquals(1, taskManager.getTasks().size(), "Ожидался список из 1 элемента");
+        assertEquals(2, taskManager.getSubtasks().size(), "Ожидался список из 2 элементов");
+        assertEquals(List.of(subtask1.getId(), subtask2.getId()), epic.getSubtaskList(), "Подзадачи должны были попасть в эпик");
+        assertEquals(Status.IN_PROGRESS, epic.getStatus());
+        assertEquals(dt.plusHours(2), epic.getStartTime(), "Завершённая подзадача не учитывается во времени эпика");
+        assertEquals(List.of(subtask2, task, subtask1), taskManager.getPrioritizedTasks());
+        assertTrue(taskManager.getNextId() > epic.getId(), "Новые идентификаторы не должны совпадать с переданными");
+    }
+
+    @Test
+    public void checkAddAllIsAllOrNothing() {
+        LocalDateTime dt = LocalDateTime.of(LocalDate.of(2025, 1, 10), LocalTime.of(10, 0, 0));
+        taskManager.addTask(new Task("Existing", "description", dt, Duration.ofMinutes(60)));
+        Task free = new Task("Free", "description", dt.plusHours(3), Duration.ofMinutes(30));
+
+        assertThrows(TimeOverlapException.class, () -> taskManager.addAll(List.of(free,
+                new Task("Overlapping", "description", dt.plusMinutes(30), Duration.ofMinutes(60)))),
+                "Ожидалось пересечение с уже добавленной задачей");
+        assertThrows(TimeOverlapException.class, () -> taskManager.addAll(List.of(free,
+                new Task("Inner", "description", dt.plusHours(3).plusMinutes(10), Duration.ZERO))),
+                "Ожидалось пересечение внутри набора");
+        assertThrows(AlreadyExistsException.class, () -> taskManager.addAll(List.of(free, new Task(free))),
+                "Ожидался дубликат внутри набора");
+        assertThrows(NotFoundException.class, () -> taskManager.addAll(List.of(free, new Subtask("Subtask", 100))),
+                "Ожидалась ошибка для подзадачи без эпика");
+
+        assertNull(free.getId(), "Задаче из отклонённого набора не должен присваиваться идентификатор");
+        assertEquals(1, taskManager.getTasks().size(), "Ни одна задача из отклонённого набора не должна добавиться");
+        assertEquals(1, taskManager.getPrioritizedTasks().size(), "Ни одна задача из отклонённого набора не должна добавиться");
+
+        taskManager.addAll(List.of(free, new Task("Adjacent", "description", dt.plusHours(1), Duration.ofHours(2))));
+        assertEquals(3, taskManager.getPrioritizedTasks().size(), "Задачи, касающиеся границами, не пересекаются");
+    }
+
+    @Test
+    public void checkAddAllMixedIds() {
+        Task generated = new Task("A", "a");
+        Task explicit = new Task(1, "B", "b");
+
+        taskManager.addAll(List.of(generated, explicit));
+
+        assertNotEquals(explicit.getId(), generated.getId(), "Сгенерированный идентификатор совпал с переданным в наборе");
+        assertEquals(2, taskManager.getTasks().size(), "Ожидался список из 2 элементов");
+        assertEquals(generated, taskManager.getTaskById(generated.getId()));
+        assertEquals(explicit, taskManager.getTaskById(1));
+    }
+
+    @Test
+    public void checkDeleteByIds() {
+        taskManager.setAggregateCheckEnabled(true);
+        LocalDateTime dt = LocalDateTime.of(LocalDate.of(2025, 1, 10), LocalTime.of(10, 0, 0));
+        Epic epic1 = new Epic(1, "Epic1");
+        Epic epic2 = new Epic(2, "Epic2");
+        Subtask subtask1 = new Subtask(3, "Subtask1", epic1.getId(), dt, Duration.ofMinutes(30));
+        Subtask subtask2 = new Subtask(4, "Subtask2", epic1.getId(), dt.plusHours(1), Duration.ofMinutes(30));
+        Subtask subtask3 = new Subtask(5, "Subtask3", epic2.getId(), dt.plusHours(2), Duration.ofMinutes(30));
+        Task task = new Task(6, "Task", dt.plusHours(3), Duration.ofMinutes(30));
+        subtask2.setStatus(Status.DONE);
+        taskManager.addAll(List.of(epic1, epic2, subtask1, subtask2, subtask3, task));
+        taskManager.getSubtaskById(subtask3.getId());
+
+        assertThrows(NotFoundException.class, () -> taskManager.deleteByIds(List.of(subtask1.getId(), 100)),
+                "Должно было появиться исключение типа " + NotFoundException.class.getSimpleName());
+        assertEquals(3, taskManager.getSubtasks().size(), "При ненайденном идентификаторе ничего не должно удаляться");
+
+        taskManager.deleteByIds(List.of(subtask1.getId(), epic2.getId(), task.getId()));
+
+        assertEquals(List.of(subtask2), taskManager.getSubtasks(), "Подзадачи удалённого эпика должны были удалиться");
+        assertEquals(List.of(epic1), taskManager.getEpics());
+        assertTrue(taskManager.getTasks().isEmpty(), "Ожидался пустой список задач");
+        assertEquals(List.of(subtask2), taskManager.getPrioritizedTasks());
+        assertTrue(taskManager.getHistory().isEmpty(), "Удалённые задачи должны были удалиться из истории");
+        assertEquals(List.of(subtask2.getId()), epic1.getSubtaskList());
+        assertEquals(Status.DONE, epic1.getStatus());
+        assertNull(epic1.getStartTime(), "У эпика без незавершённых подзадач со временем не должно быть начала");
+    }
+
+    @Test
+    public void checkApplyBatch() {
+        taskManager.setAggregateCheckEnabled(true);
+        LocalDateTime dt = LocalDateTime.of(LocalDate.of(2025, 1, 10), LocalTime.of(10, 0, 0));
+        Task task = new Task("Task", "description", dt, Duration.ofMinutes(60));
+        taskManager.addTask(task);
+        Epic epic = new Epic("Epic", "description");
+        Subtask subtask = new Subtask("Subtask", null, dt, Duration.ofMinutes(30));
+
+        taskManager.apply(new TaskBatch()
+                .addEpic(epic)
+                .editTask(new Task(task.getId(), "Task", "description", dt.plusHours(1), Duration.ofMinutes(60)))
+                .addSubtask(subtask, epic));
+
+        assertEquals(epic.getId(), subtask.getEpicId(), "Подзадача должна была попасть в эпик из набора");
+        assertEquals(List.of(subtask.getId()), epic.getSubtaskList());
+        assertEquals(dt, epic.getStartTime());
+        assertEquals(List.of(subtask.getId(), task.getId()),
+                taskManager.getPrioritizedTasks().stream().map(AbstractTask::getId).toList());
+    }
+
+    @Test
+    public void checkApplyBatchRollsBack() {
+        taskManager.setAggregateCheckEnabled(true);
+        LocalDateTime dt = LocalDateTime.of(LocalDate.of(2025, 1, 10), LocalTime.of(10, 0, 0));
+        Task task = new Task("Task", "description", dt, Duration.ofMinutes(60));
+        Epic epic = new Epic("Epic", "description");
+        taskManager.addTask(task);
+        taskManager.addEpic(epic);
+        Subtask subtask = new Subtask("Subtask", epic.getId(), dt.plusHours(2), Duration.ofMinutes(30));
+        taskManager.addSubtask(subtask);
+        taskManager.getTaskById(task.getId());
+        taskManager.getSubtaskById(subtask.getId());
+        int nextId = taskManager.getNextId();
+
+        Epic newEpic = new Epic("New epic", "description");
+        Task newTask = new Task("New task", "description");
+        assertThrows(TimeOverlapException.class, () -> taskManager.apply(new TaskBatch()
+                .addEpic(newEpic)
+                .addSubtask(new Subtask("New subtask", null), newEpic)
+                .editEpic(new Epic(epic.getId(), "Renamed", "description"))
+                .deleteTaskById(task.getId())
+                .deleteSubtaskById(subtask.getId())
+                .addTask(newTask)
+                .addTask(new Task("Overlapping", "description", dt.plusHours(3), Duration.ofMinutes(30)))
+                .addTask(new Task("Overlapping again", "description", dt.plusHours(3), Duration.ofMinutes(30)))),
+                "Должно было появиться исключение типа " + TimeOverlapException.class.getSimpleName());
+
+        assertEquals(List.of(task), taskManager.getTasks(), "Удалённая в наборе задача должна была вернуться");
+        assertEquals(List.of(epic), taskManager.getEpics(), "Добавленный в наборе эпик должен был удалиться");
+        assertEquals(List.of(subtask), taskManager.getSubtasks());
+        assertEquals("Epic", epic.getName(), "Название эпика должно было восстановиться");
+        assertEquals(List.of(subtask.getId()), epic.getSubtaskList());
+        assertEquals(dt.plusHours(2), epic.getStartTime());
+        assertEquals(List.of(task, subtask), taskManager.getPrioritizedTasks());
+        assertEquals(List.of(task, subtask), taskManager.getHistory(), "История просмотра должна была восстановиться");
+        assertNull(newEpic.getId(), "Сгенерированный идентификатор должен был сброситься");
+        assertNull(newTask.getId(), "Сгенерированный идентификатор должен был сброситься");
+        assertEquals(nextId + 1, taskManager.getNextId(), "Счётчик идентификаторов должен был восстановиться");
+
+        assertThrows(NotFoundException.class, () -> taskManager.apply(new TaskBatch()
+                .addTask(new Task("Another task", "description"))
+                .deleteSubtaskById(100)));
+        assertEquals(1, taskManager.getTasks().size(), "Ожидался список из 1 элемента");
+    }
+
+    @Test
+    public void checkApplyBatchEditRollsBack() {
+        LocalDateTime dt = LocalDateTime.of(LocalDate.of(2025, 1, 10), LocalTime.of(10, 0, 0));
+        Task task = new Task("Task", "description", dt, Duration.ofMinutes(60));
+        taskManager.addTask(task);
+        Epic epic = new Epic("Epic", "description");
+        taskManager.addEpic(epic);
+        Subtask subtask = new Subtask(null, "Subtask", "description", epic.getId(), dt.plusHours(2), Duration.ofMinutes(30));
+        taskManager.addSubtask(subtask);
+
+        Task editedTask = new Task(task);
+        editedTask.setName("Renamed");
+        editedTask.setStartTime(dt.plusHours(5));
+        Subtask editedSubtask = new Subtask(subtask);
+        editedSubtask.setStartTime(dt.plusHours(7));
+        assertThrows(NotFoundException.class, () -> taskManager.apply(new TaskBatch()
+                .editTask(editedTask)
+                .editSubtask(editedSubtask)
+                .deleteTaskById(100)));
+
+        assertEquals("Task", taskManager.peekTaskById(task.getId()).getName(), "Название задачи должно было восстановиться");
+        assertEquals(dt, taskManager.peekTaskById(task.getId()).getStartTime(), "Время задачи должно было восстановиться");
+        assertEquals(dt.plusHours(2), taskManager.peekSubtaskById(subtask.getId()).getStartTime());
+        assertEquals(dt.plusHours(2), epic.getStartTime(), "Время эпика должно было восстановиться");
+        assertDoesNotThrow(() -> taskManager.addTask(new Task("New task", "description", dt.plusHours(5), Duration.ofMinutes(30))),
+                "Интервал отменённого редактирования должен был освободиться");
+
+        Task stored = taskManager.peekTaskById(task.getId());
+        stored.setStartTime(dt.plusHours(10));
+        assertThrows(IllegalArgumentException.class, () -> taskManager.apply(new TaskBatch().editTask(stored)),
+                "Должно было появиться исключение типа " + IllegalArgumentException.class.getSimpleName());
+        stored.setStartTime(dt);
+        assertThrows(TimeOverlapException.class,
+                () -> taskManager.addTask(new Task("Overlapping", "description", dt.plusMinutes(30), Duration.ofMinutes(10))),
+                "Интервал задачи не должен был измениться");
+        assertThrows(IllegalArgumentException.class,
+                () -> taskManager.apply(new TaskBatch().editSubtask(taskManager.peekSubtaskById(subtask.getId()))));
+        assertThrows(IllegalArgumentException.class,
+                () -> taskManager.apply(new TaskBatch().editEpic(taskManager.peekEpicById(epic.getId()))));
+    }
+
+    @Test
+    public void checkApplyBatchRunsAllUndosOnUndoError() {
+        Task failing = new Task("Failing", "description");
+        InMemoryTaskManager manager = new InMemoryTaskManager() {
+            @Override
+            public void deleteTaskById(int id) {
+                if (failing.getId() != null && id == failing.getId()) {
+                    throw new IllegalStateException("Ошибка отмены");
+                }
+                super.deleteTaskById(id);
+            }
+        };
+        Task viewed = new Task("Viewed", "description");
+        manager.addTask(viewed);
+        manager.getTaskById(viewed.getId());
+        int nextId = manager.getNextId();
+
+        Task first = new Task("First", "description");
+        NotFoundException e = assertThrows(NotFoundException.class, () -> manager.apply(new TaskBatch()
+                .addTask(first)
+                .addTask(failing)
+                .deleteTaskById(viewed.getId())
+                .deleteTaskById(100)));
+
+        assertEquals(1, e.getSuppressed().length, "Ошибка отмены должна была добавиться к исходной");
+        assertInstanceOf(IllegalStateException.class, e.getSuppressed()[0]);
+        assertFalse(manager.getTasks().contains(first), "Отмены после ошибочной должны были выполниться");
+        assertTrue(manager.getTasks().contains(viewed), "Удалённая в наборе задача должна была вернуться");
+        assertEquals(List.of(viewed), manager.getHistory(), "История просмотра должна была восстановиться");
+        assertEquals(nextId + 1, manager.getNextId(), "Счётчик идентификаторов должен был восстановиться");
+    }
+
+    @Test
+    public void checkPeekDoesNotTouchHistory() {
+        Task task = new Task("Task", "description");
+        Epic epic = new Epic("Epic", "description");
+        taskManager.addTask(task);
+        taskManager.addEpic(epic);
+        Subtask subtask = new Subtask("Subtask", epic.getId());
+        taskManager.addSubtask(subtask);
+
+        assertSame(task, taskManager.peekTaskById(task.getId()));
+        assertSame(epic, taskManager.peekEpicById(epic.getId()));
+        assertSame(subtask, taskManager.peekSubtaskById(subtask.getId()));
+        assertEquals(List.of(subtask), taskManager.getSubtaskListByEpicId(epic.getId()));
+        assertTrue(taskManager.getHistory().isEmpty(), "Чтение без просмотра не должно попадать в историю");
+        assertThrows(NotFoundException.class, () -> taskManager.peekTaskById(100));
+
+        taskManager.getEpicById(epic.getId());
+        assertEquals(List.of(epic), taskManager.getHistory(), "Просмотр эпика должен был попасть в историю");
+    }
+}
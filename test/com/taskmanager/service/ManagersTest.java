@@ -21,6 +21,15 @@ class ManagersTest {
                 "Наименования классов не совпадают");
     }
 
+    @Test
+    public void checkCreateConcurrentTaskManager() {
+        TaskManager taskManager = Managers.getConcurrent();
+
+        assertNotNull(taskManager, "Потокобезопасный таск-менеджер должен был быть проинициализированным");
+        assertEquals(taskManager.getClass().getSimpleName(), ConcurrentTaskManager.class.getSimpleName(),
+                "Наименования классов не совпадают");
+    }
+
     @Test
     public void checkCreateInMemoryHistoryManager() {
         HistoryManager historyManager = Managers.getDefaultHistory();
@@ -30,6 +39,16 @@ class ManagersTest {
                 "Наименования классов не совпадают");
     }
 
+    @Test
+    public void checkCreateBoundedHistoryManager() {
+        HistoryManager historyManager = Managers.getDefaultHistory(2);
+
+        assertEquals(2, ((InMemoryHistoryManager) historyManager).getCapacity(), "Ёмкость истории не совпадает");
+        assertEquals(Integer.MAX_VALUE,
+                ((InMemoryHistoryManager) Managers.getDefaultHistory()).getCapacity(), "История по умолчанию не должна быть ограничена");
+        assertThrows(IllegalArgumentException.class, () -> Managers.getDefaultHistory(0));
+    }
+
     @Test
     public void checkCreateFileBackedTaskManager() {
         File file = null;
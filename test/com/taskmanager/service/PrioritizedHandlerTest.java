@@ -90,4 +90,90 @@ public class PrioritizedHandlerTest {
         assertEquals(200, response.statusCode());
         assertEquals(task, taskFromResponse);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testGetPrioritizedInWindow() throws IOException, InterruptedException {
+        LocalDateTime start = LocalDateTime.of(2025, 1, 10, 10, 0);
+        taskManager.addTask(new Task("Test 1", "Testing task 1", start, Duration.ofMinutes(30)));
+        taskManager.addTask(new Task("Test 2", "Testing task 2", start.plusDays(1), Duration.ofMinutes(30)));
+
+        HttpClient client = HttpClient.newHttpClient();
+        URI url = URI.create("http://localhost:" + PORT + endpoint + "?from=2025-01-10T00:00&to=2025-01-11T00:00");
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(url)
+                .GET()
+                .build();
+
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        JsonArray array = JsonParser.parseString(response.body()).getAsJsonArray();
+
+        assertEquals(200, response.statusCode());
+        assertEquals(1, array.size());
+        assertEquals("Test 1", array.get(0).getAsJsonObject().get("name").getAsString());
+    }
+
+    @Test
+    public void testGetPrioritizedWrongWindow() throws IOException, InterruptedException {
+        HttpClient client = HttpClient.newHttpClient();
+        URI url = URI.create("http://localhost:" + PORT + endpoint + "?from=yesterday");
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(url)
+                .GET()
+                .build();
+
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(400, response.statusCode());
+
+        url = URI.create("http://localhost:" + PORT + endpoint + "?from=2025-01-11T00:00&to=2025-01-10T00:00");
+        request = HttpRequest.newBuilder()
+                .uri(url)
+                .GET()
+                .build();
+
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(400, response.statusCode());
+    }
+
+    @Test
+    public void testGetFreeSlot() throws IOException, InterruptedException {
+        LocalDateTime start = LocalDateTime.of(2025, 1, 10, 10, 0);
+        taskManager.addTask(new Task("Test 1", "Testing task 1", start, Duration.ofMinutes(30)));
+        taskManager.addTask(new Task("Test 2", "Testing task 2", start.plusMinutes(45), Duration.ofMinutes(30)));
+
+        HttpClient client = HttpClient.newHttpClient();
+        URI url = URI.create("http://localhost:" + PORT + endpoint + "/free-slot?duration=1800&from=2025-01-10T10:00");
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(url)
+                .GET()
+                .build();
+
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        JsonObject slot = JsonParser.parseString(response.body()).getAsJsonObject();
+
+        assertEquals(200, response.statusCode());
+        assertEquals(start.plusMinutes(75), gson.fromJson(slot.get("startTime"), LocalDateTime.class));
+        assertEquals(start.plusMinutes(105), gson.fromJson(slot.get("endTime"), LocalDateTime.class));
+
+        url = URI.create("http://localhost:" + PORT + endpoint + "/free-slot?duration=1800&from=2025-01-10T10:00&horizon=2025-01-10T11:00");
+        request = HttpRequest.newBuilder()
+                .uri(url)
+                .GET()
+                .build();
+
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(404, response.statusCode());
+    }
+
+    @Test
+    public void testGetFreeSlotWrongRequest() throws IOException, InterruptedException {
+        HttpClient client = HttpClient.newHttpClient();
+        URI url = URI.create("http://localhost:" + PORT + endpoint + "/free-slot?duration=half-hour");
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(url)
+                .GET()
+                .build();
+
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(400, response.statusCode());
+    }
+}
@@ -0,0 +1,60 @@
+package com.taskmanager.service;
+
+import com.taskmanager.service.indexes.SnapshotCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotCacheTest {
+
+    private List<Integer> source;
+    private AtomicInteger builds;
+    private SnapshotCache<Integer> cache;
+
+    @BeforeEach
+    public void prepare() {
+        source = new ArrayList<>(List.of(1, 2));
+        builds = new AtomicInteger();
+        cache = new SnapshotCache<>(() -> {
+            builds.incrementAndGet();
+            return List.copyOf(source);
+        });
+    }
+
+    @Test
+    public void checkSnapshotReusedUntilInvalidated() {
+        List<Integer> first = cache.get();
+
+        assertSame(first, cache.get(), "Без изменений должен возвращаться тот же снимок");
+        assertEquals(1, builds.get(), "Снимок должен был собраться один раз");
+
+        source.add(3);
+        cache.invalidate();
+        cache.invalidate();
+
+        assertEquals(List.of(1, 2, 3), cache.get(), "Снимок должен был пересобраться после изменения");
+        assertEquals(List.of(1, 2), first, "Старый снимок не должен меняться");
+        assertEquals(2, builds.get(), "Снимок должен был пересобраться один раз");
+    }
+
+    @Test
+    public void checkChangeDuringBuildIsNotLost() {
+        cache = new SnapshotCache<>(() -> {
+            List<Integer> snapshot = List.copyOf(source);
+            if (builds.incrementAndGet() == 1) {
+                // данные изменились во время сборки снимка
+                source.add(3);
+                cache.invalidate();
+            }
+            return snapshot;
+        });
+
+        assertEquals(List.of(1, 2), cache.get());
+        assertEquals(List.of(1, 2, 3), cache.get(), "Снимок, собранный во время изменения, не должен использоваться");
+    }
+}
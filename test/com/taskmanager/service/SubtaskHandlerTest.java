@@ -344,4 +344,48 @@ public class SubtaskHandlerTest {
         HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
         assertEquals(404, response.statusCode());
     }
+
+    @Test
+    public void testDeleteSubtasksByIds() throws IOException, InterruptedException {
+        Epic epic = new Epic("Test 2", "Testing task 2");
+        taskManager.addEpic(epic);
+        taskManager.addSubtask(new Subtask("Subtest 1", 1));
+        taskManager.addSubtask(new Subtask("Subtest 2", 1));
+        taskManager.addSubtask(new Subtask("Subtest 3", 1));
+
+        HttpClient client = HttpClient.newHttpClient();
+        URI url = URI.create("http://localhost:" + PORT + endpoint + "?ids=2,4");
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(url)
+                .DELETE()
+                .build();
+
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        assertEquals(List.of(3), taskManager.getSubtasks().stream().map(Subtask::getId).toList());
+        assertEquals(List.of(3), epic.getSubtaskList());
+    }
+
+    @Test
+    public void testDeleteSubtasksByIdsWrongRequest() throws IOException, InterruptedException {
+        Epic epic = new Epic("Test 2", "Testing task 2");
+        taskManager.addEpic(epic);
+        taskManager.addSubtask(new Subtask("Subtest 1", 1));
+
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:" + PORT + endpoint + "?ids=2,text"))
+                .DELETE()
+                .build();
+        assertEquals(400, client.send(request, HttpResponse.BodyHandlers.ofString()).statusCode());
+
+        request = HttpRequest.newBuilder()
+                .uri(URI.create("http://localhost:" + PORT + endpoint + "?ids=1,2"))
+                .DELETE()
+                .build();
+        assertEquals(404, client.send(request, HttpResponse.BodyHandlers.ofString()).statusCode(),
+                "Эпик не должен удаляться через список подзадач");
+        assertEquals(1, taskManager.getSubtasks().size());
+        assertEquals(1, taskManager.getEpics().size());
+    }
 }
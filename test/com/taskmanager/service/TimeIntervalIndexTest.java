@@ -0,0 +1,155 @@
+package com.taskmanager.service;
+
+import com.taskmanager.model.AbstractTask;
+import com.taskmanager.model.Task;
+import com.taskmanager.service.indexes.TimeIntervalIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeIntervalIndexTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 10, 10, 0);
+
+    private TimeIntervalIndex index;
+
+    @BeforeEach
+    public void prepare() {
+        index = new TimeIntervalIndex();
+        index.put(new Task(1, "task1", START, Duration.ofMinutes(60)));
+        index.put(new Task(2, "task2", START.plusHours(2), Duration.ofMinutes(30)));
+    }
+
+    @Test
+    public void checkOverlapInsideInterval() {
+        assertTrue(index.isOverlapping(new Task(3, "task3", START.plusMinutes(30), Duration.ofMinutes(10))),
+                "Ожидалось пересечение с первой задачей");
+        assertTrue(index.isOverlapping(new Task(3, "task3", START.minusMinutes(30), Duration.ofHours(5))),
+                "Ожидалось пересечение с интервалом, покрывающим обе задачи");
+    }
+
+    @Test
+    public void checkNoOverlapOnBorders() {
+        assertFalse(index.isOverlapping(new Task(3, "task3", START.plusHours(1), Duration.ofHours(1))),
+                "Интервалы, касающиеся границами, не пересекаются");
+        assertFalse(index.isOverlapping(new Task(3, "task3", START.minusHours(1), Duration.ofHours(1))),
+                "Интервалы, касающиеся границами, не пересекаются");
+        assertFalse(index.isOverlapping(new Task(3, "task3", START.plusHours(3), Duration.ofHours(1))),
+                "Не ожидалось пересечения после всех интервалов");
+    }
+
+    @Test
+    public void checkOwnIntervalIgnored() {
+        Task moved = new Task(1, "task1", START.plusMinutes(15), Duration.ofMinutes(60));
+
+        assertFalse(index.isOverlapping(moved), "Собственный интервал задачи не должен учитываться");
+
+        moved.setDuration(Duration.ofMinutes(120));
+        assertTrue(index.isOverlapping(moved), "Ожидалось пересечение со второй задачей");
+    }
+
+    @Test
+    public void checkTaskWithoutTimeIsNotIndexed() {
+        index.put(new Task(3, "task3"));
+
+        assertEquals(2, index.size(), "Задача без времени не должна попадать в индекс");
+        assertFalse(index.isOverlapping(new Task(4, "task4")), "Задача без времени ни с чем не пересекается");
+    }
+
+    @Test
+    public void checkRemoveAndReplace() {
+        index.remove(1);
+        assertFalse(index.isOverlapping(new Task(3, "task3", START, Duration.ofMinutes(60))),
+                "Интервал удалённой задачи не должен учитываться");
+
+        index.put(new Task(2, "task2", START, Duration.ofMinutes(30)));
+        assertEquals(1, index.size(), "Интервал задачи должен был замениться");
+        assertFalse(index.isOverlapping(new Task(3, "task3", START.plusHours(2), Duration.ofMinutes(30))),
+                "Старый интервал задачи не должен учитываться");
+    }
+
+    @Test
+    public void checkGetTasksSortedByStart() {
+        Task early = new Task(3, "task3", START.minusHours(1), Duration.ofMinutes(30));
+        index.put(early);
+
+        List<AbstractTask> tasks = index.getTasks();
+
+        assertEquals(3, tasks.size(), "Ожидался список из 3 элементов");
+        assertEquals(early, tasks.getFirst(), "Ожидался другой первый элемент");
+        assertEquals(2, tasks.getLast().getId(), "Ожидался другой последний элемент");
+    }
+
+    @Test
+    public void checkTaskModifiedInPlaceIsReplacedById() {
+        Task task = new Task(3, "task3", START.plusHours(4), Duration.ofMinutes(30));
+        index.put(task);
+
+        task.setStartTime(START.minusHours(4));
+        index.put(task);
+
+        assertEquals(3, index.size(), "Старый интервал изменённой задачи должен был удалиться");
+        assertSame(task, index.get(3), "Не найдена задача по идентификатору");
+        assertEquals(task, index.getTasks().getFirst(), "Ожидался другой первый элемент");
+        assertFalse(index.isOverlapping(new Task(4, "task4", START.plusHours(4), Duration.ofMinutes(30))),
+                "Старый интервал задачи не должен учитываться");
+    }
+
+    @Test
+    public void checkWindowIncludesTaskStartedBeforeWindow() {
+        List<AbstractTask> tasks = index.getTasks(START.plusMinutes(30), START.plusHours(2).plusMinutes(10));
+
+        assertEquals(List.of(1, 2), tasks.stream().map(AbstractTask::getId).toList(),
+                "Ожидались задача, начавшаяся до окна, и задача внутри окна");
+        assertEquals(List.of(2), index.getTasks(START.plusHours(1), START.plusHours(3)).stream().map(AbstractTask::getId).toList(),
+                "Задача, закончившаяся в начале окна, не должна попадать в окно");
+        assertTrue(index.getTasks(START.plusHours(1), START.plusHours(2)).isEmpty(),
+                "Задача, начинающаяся в конце окна, не должна попадать в окно");
+    }
+
+    @Test
+    public void checkWindowWithOpenBounds() {
+        index.put(new Task(3, "task3", START.plusHours(5), Duration.ZERO));
+
+        assertEquals(3, index.getTasks(null, null).size(), "Без границ ожидался весь список");
+        assertEquals(List.of(1), index.getTasks(null, START.plusHours(2)).stream().map(AbstractTask::getId).toList());
+        assertEquals(List.of(3), index.getTasks(START.plusHours(5), null).stream().map(AbstractTask::getId).toList(),
+                "Задача без длительности должна попадать в окно, начинающееся в её время");
+        assertThrows(IllegalArgumentException.class, () -> index.getTasks(START, START.minusHours(1)),
+                "Конец окна не может быть раньше начала");
+    }
+
+    @Test
+    public void checkFreeSlotBetweenTasks() {
+        assertEquals(START.plusHours(1), index.findFreeSlot(Duration.ofMinutes(60), START.plusMinutes(10), null),
+                "Промежуток должен был начаться после задачи, в которую попадает время начала поиска");
+        assertEquals(START.plusHours(2).plusMinutes(30), index.findFreeSlot(Duration.ofMinutes(61), START, null),
+                "Промежуток между задачами слишком короткий");
+        assertEquals(START.minusHours(1), index.findFreeSlot(Duration.ofMinutes(60), START.minusHours(1), null),
+                "Промежуток до первой задачи должен был подойти");
+    }
+
+    @Test
+    public void checkFreeSlotWithHorizon() {
+        assertNull(index.findFreeSlot(Duration.ofMinutes(90), START, START.plusHours(3)),
+                "До горизонта нет промежутка нужной длительности");
+        assertEquals(START.plusHours(2).plusMinutes(30), index.findFreeSlot(Duration.ofMinutes(30), START.plusHours(2), START.plusHours(3)),
+                "Промежуток, заканчивающийся на горизонте, должен был подойти");
+        assertThrows(IllegalArgumentException.class, () -> index.findFreeSlot(Duration.ofMinutes(-1), START, null));
+    }
+
+    @Test
+    public void checkFreeSlotAroundZeroLengthTask() {
+        index.put(new Task(3, "task3", START.plusHours(1).plusMinutes(30), Duration.ZERO));
+
+        LocalDateTime slot = index.findFreeSlot(Duration.ofMinutes(30), START.plusHours(1).plusMinutes(10), null);
+
+        assertEquals(START.plusHours(1).plusMinutes(30), slot, "Задача без длительности делит промежуток");
+        assertFalse(index.isOverlapping(slot, slot.plusMinutes(30), null), "Найденный промежуток не должен пересекаться с задачами");
+    }
+}
@@ -0,0 +1,107 @@
+package com.taskmanager.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntLinkedHashSetTest {
+
+    private IntLinkedHashSet set;
+
+    @BeforeEach
+    public void prepare() {
+        set = new IntLinkedHashSet();
+    }
+
+    @Test
+    public void checkAddKeepsInsertionOrder() {
+        assertTrue(set.add(5));
+        assertTrue(set.add(1));
+        assertTrue(set.add(3));
+        assertFalse(set.add(1), "Повторное добавление не должно менять множество");
+
+        assertArrayEquals(new int[]{5, 1, 3}, set.toArray(), "Ожидался порядок добавления");
+        assertEquals(List.of(5, 1, 3), set.asList(), "Ожидался порядок добавления");
+    }
+
+    @Test
+    public void checkRemove() {
+        set.add(5);
+        set.add(1);
+        set.add(3);
+
+        assertTrue(set.remove(1));
+        assertFalse(set.remove(1), "Повторное удаление не должно менять множество");
+        assertFalse(set.contains(1), "Удалённый элемент не должен находиться");
+        assertArrayEquals(new int[]{5, 3}, set.toArray(), "Ожидался порядок добавления без удалённого элемента");
+
+        set.add(1);
+        assertArrayEquals(new int[]{5, 3, 1}, set.toArray(), "Повторно добавленный элемент должен оказаться в конце");
+    }
+
+    @Test
+    public void checkAsListReflectsChanges() {
+        List<Integer> view = set.asList();
+        set.add(7);
+
+        assertEquals(1, view.size(), "Представление должно отражать изменения множества");
+        assertTrue(view.contains(7), "Не найден добавленный элемент");
+        assertThrows(UnsupportedOperationException.class, () -> view.add(8), "Представление должно быть только для чтения");
+    }
+
+    @Test
+    public void checkManyElementsAgainstLinkedHashSet() {
+        Random random = new Random(42);
+        Set<Integer> expected = new LinkedHashSet<>();
+
+        for (int i = 0; i < 100_000; i++) {
+            int value = random.nextInt(5_000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(value), set.remove(value), "Результат удаления не совпадает");
+            } else {
+                assertEquals(expected.add(value), set.add(value), "Результат добавления не совпадает");
+            }
+        }
+
+        assertEquals(expected.size(), set.size(), "Размер не совпадает");
+        assertEquals(new ArrayList<>(expected), set.asList(), "Порядок элементов не совпадает");
+        for (int value = 0; value < 5_000; value++) {
+            assertEquals(expected.contains(value), set.contains(value), "Наличие элемента " + value + " не совпадает");
+        }
+    }
+
+    @Test
+    public void checkClearAndCopy() {
+        set.add(1);
+        set.add(2);
+        IntLinkedHashSet copy = new IntLinkedHashSet(set);
+
+        set.clear();
+
+        assertTrue(set.isEmpty(), "Ожидалось пустое множество");
+        assertEquals(List.of(1, 2), copy.asList(), "Копия не должна зависеть от исходного множества");
+    }
+
+    @Test
+    public void checkCopyAfterRemovals() {
+        for (int value = 0; value < 20; value++) {
+            set.add(value);
+        }
+        for (int value = 0; value < 20; value += 2) {
+            set.remove(value);
+        }
+        IntLinkedHashSet copy = new IntLinkedHashSet(set);
+
+        copy.add(100);
+        copy.remove(1);
+        set.add(200);
+
+        assertEquals(List.of(3, 5, 7, 9, 11, 13, 15, 17, 19, 100), copy.asList(),
+                "Копия должна переиспользовать свободные записи независимо от исходного множества");
+        assertTrue(copy.contains(100) && !copy.contains(1) && !copy.contains(200));
+        assertEquals(List.of(1, 3, 5, 7, 9, 11, 13, 15, 17, 19, 200), set.asList());
+    }
+}
@@ -0,0 +1,95 @@
+package com.taskmanager.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntObjectHashMapTest {
+
+    private IntObjectHashMap<String> map;
+
+    @BeforeEach
+    public void prepare() {
+        map = new IntObjectHashMap<>();
+    }
+
+    @Test
+    public void checkPutGetRemove() {
+        assertNull(map.put(1, "one"));
+        assertNull(map.put(-7, "minus seven"));
+        assertEquals("one", map.put(1, "uno"), "Ожидалось предыдущее значение");
+
+        assertEquals(2, map.size(), "Ожидалась таблица из 2 элементов");
+        assertEquals("uno", map.get(1), "Значение должно было замениться");
+        assertTrue(map.containsKey(-7), "Не найден отрицательный ключ");
+        assertFalse(map.containsKey(0), "Ключ 0 не добавлялся");
+
+        assertEquals("minus seven", map.remove(-7));
+        assertNull(map.remove(-7), "Повторное удаление не должно менять таблицу");
+        assertNull(map.get(-7), "Удалённый ключ не должен находиться");
+        assertEquals(1, map.size(), "Ожидалась таблица из 1 элемента");
+    }
+
+    @Test
+    public void checkNullValueNotAllowed() {
+        assertThrows(NullPointerException.class, () -> map.put(1, null), "Значение null не поддерживается");
+    }
+
+    @Test
+    public void checkIterationAndValuesView() {
+        Collection<String> values = map.values();
+        map.put(3, "three");
+        map.put(1, "one");
+        map.put(2, "two");
+
+        List<Integer> keys = new ArrayList<>();
+        map.forEachKey(keys::add);
+
+        assertEquals(List.of(1, 2, 3), keys, "Небольшие ключи должны обходиться по возрастанию");
+        assertEquals(3, values.size(), "Представление должно отражать изменения таблицы");
+        assertTrue(values.contains("two"), "Не найдено добавленное значение");
+        assertThrows(UnsupportedOperationException.class, () -> values.add("four"), "Представление должно быть только для чтения");
+        assertEquals("{1=one, 2=two, 3=three}", map.toString());
+    }
+
+    @Test
+    public void checkEqualsIgnoresInsertionOrder() {
+        IntObjectHashMap<String> other = new IntObjectHashMap<>(1000);
+        map.put(1, "one");
+        map.put(2, "two");
+        other.put(2, "two");
+        other.put(1, "one");
+
+        assertEquals(map, other, "Таблицы с одинаковыми записями должны быть равны");
+        assertEquals(map.hashCode(), other.hashCode(), "Хэш-коды равных таблиц должны совпадать");
+
+        other.put(2, "dos");
+        assertNotEquals(map, other, "Таблицы с разными значениями не должны быть равны");
+    }
+
+    @Test
+    public void checkManyKeysAgainstHashMap() {
+        Random random = new Random(42);
+        Map<Integer, String> expected = new HashMap<>();
+
+        for (int i = 0; i < 200_000; i++) {
+            int key = random.nextInt(5_000) - 1_000;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key), "Разный результат удаления ключа " + key);
+            } else {
+                assertEquals(expected.put(key, "v" + i), map.put(key, "v" + i), "Разный результат добавления ключа " + key);
+            }
+        }
+
+        assertEquals(expected.size(), map.size(), "Разное количество элементов");
+        expected.forEach((key, value) -> assertEquals(value, map.get(key), "Разное значение ключа " + key));
+        map.forEach((key, value) -> assertEquals(expected.get(key), value, "Лишний ключ " + key));
+
+        map.clear();
+        assertTrue(map.isEmpty(), "После очистки таблица должна быть пустой");
+        assertFalse(map.containsKey(1), "После очистки ключей быть не должно");
+    }
+}